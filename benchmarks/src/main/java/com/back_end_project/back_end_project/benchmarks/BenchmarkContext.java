@@ -0,0 +1,112 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.math.BigDecimal;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.BackEndProjectApplication;
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Products;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 以 H2 啟動完整的 Spring 容器並灌入固定筆數的測試資料，供各個 DAO 基準共用。
+ */
+final class BenchmarkContext {
+
+    static final int CATEGORIES = 20;
+    static final int PRODUCTS = 1000;
+    static final int ORDER_LINES = 50;
+
+    private final ConfigurableApplicationContext context;
+    private Integer firstCategoryId;
+    private Integer ordersId;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static BenchmarkContext start() {
+        BenchmarkContext benchmarkContext = new BenchmarkContext(
+                new SpringApplicationBuilder(BackEndProjectApplication.class).run());
+        benchmarkContext.seed();
+        return benchmarkContext;
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    Integer firstCategoryId() {
+        return firstCategoryId;
+    }
+
+    Integer ordersId() {
+        return ordersId;
+    }
+
+    void close() {
+        context.close();
+    }
+
+    private void seed() {
+        EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+        TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+        tx.executeWithoutResult(status -> {
+            EntityManager em = emf.createEntityManager();
+            em.joinTransaction();
+
+            Categories[] categories = new Categories[CATEGORIES];
+            for (int i = 0; i < CATEGORIES; i++) {
+                categories[i] = new Categories();
+                categories[i].setCategoriesName("Category-" + i);
+                em.persist(categories[i]);
+            }
+
+            Products[] products = new Products[PRODUCTS];
+            for (int i = 0; i < PRODUCTS; i++) {
+                products[i] = new Products();
+                products[i].setCategory(categories[i % CATEGORIES]);
+                products[i].setProductName("Product-" + i);
+                products[i].setSku("SKU-" + i);
+                products[i].setPrice(BigDecimal.valueOf(50 + i % 200));
+                products[i].setQuantityInStock(100);
+                em.persist(products[i]);
+            }
+
+            Customer customer = new Customer();
+            customer.setName("Bench");
+            customer.setEmail("bench@example.com");
+            customer.setPasswordHash("x");
+            em.persist(customer);
+
+            Orders order = new Orders();
+            order.setCustomer(customer);
+            order.setTotalAmount(BigDecimal.ZERO);
+            order.setPaymentStatus("Pending");
+            order.setShippingStatus("Pending");
+            em.persist(order);
+
+            for (int i = 0; i < ORDER_LINES; i++) {
+                OrderDetails detail = new OrderDetails();
+                detail.setOrder(order);
+                detail.setProduct(products[i]);
+                detail.setQuantity(1 + i % 3);
+                detail.setUnitPrice(products[i].getPrice());
+                em.persist(detail);
+            }
+            em.flush();
+
+            firstCategoryId = categories[0].getCategoriesId();
+            ordersId = order.getOrdersId();
+            em.close();
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.back_end_project.back_end_project.controllerComponentECPay.CheckMacValueSigner;
+
+/**
+ * CheckMacValue 簽章：舊版字串串接 + replaceAll 與 CheckMacValueSigner 的比較，參數與 buildEcpayForm 送出的欄位相同。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckMacValueBenchmark {
+
+    // 綠界測試環境公開的特店金鑰
+    private static final String HASH_KEY = "5294y06JbISpM5x9";
+    private static final String HASH_IV = "v77hoKGq4kWxNNIS";
+
+    private CheckMacValueSigner signer;
+    private Map<String, String> parameters;
+    private Map<String, String> sortedParameters;
+
+    @Setup
+    public void setUp() {
+        signer = new CheckMacValueSigner();
+        parameters = new HashMap<>();
+        parameters.put("MerchantID", "2000132");
+        parameters.put("MerchantTradeNo", "ORDER1700000000000");
+        parameters.put("ItemName", "法國麵包 x 2#可頌 x 3");
+        parameters.put("TotalAmount", "540");
+        parameters.put("TradeDesc", "線上烘焙坊訂單");
+        parameters.put("MerchantTradeDate", "2025/01/15 10:30:00");
+        parameters.put("PaymentType", "aio");
+        parameters.put("ChoosePayment", "ALL");
+        parameters.put("ReturnURL", "https://example.com/pages/ecpay/return");
+
+        sortedParameters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER); // 與 EcpayFunctions.createEcpayData 相同的預先排序
+        sortedParameters.putAll(parameters);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return LegacyCheckMacValue.genCheckMacValue(parameters, HASH_KEY, HASH_IV);
+    }
+
+    @Benchmark
+    public String signer() {
+        return signer.sign(parameters, HASH_KEY, HASH_IV);
+    }
+
+    @Benchmark
+    public String signerPresorted() {
+        return signer.sign(sortedParameters, HASH_KEY, HASH_IV);
+    }
+}
@@ -0,0 +1,71 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 改寫前的 EcpayFunctions.genCheckMacValue，原封不動保留作為基準對照組。
+ */
+final class LegacyCheckMacValue {
+
+    private LegacyCheckMacValue() {
+    }
+
+    static String genCheckMacValue(Map<String, String> params, String hashKey, String hashIV) {
+        Set<String> keySet = params.keySet();
+        TreeSet<String> treeSet = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        treeSet.addAll(keySet);
+        String name[] = treeSet.toArray(new String[treeSet.size()]);
+        String paramStr = "";
+        for (int i = 0; i < name.length; i++) {
+            if (!name[i].equals("CheckMacValue")) {
+                paramStr += "&" + name[i] + "=" + params.get(name[i]);
+            }
+        }
+
+        String urlEncode = urlEncode("Hashkey=" + hashKey + paramStr + "&HashIV=" + hashIV).toLowerCase();
+        urlEncode = urlEncode.replaceAll("%21", "\\!").replaceAll("%28", "\\(").replaceAll("%29", "\\)");
+
+        return hash(urlEncode.getBytes(), "SHA-256");
+    }
+
+    private static String urlEncode(String data) {
+        String result = "";
+        try {
+            result = URLEncoder.encode(data, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    private static String hash(byte data[], String mode) {
+        MessageDigest md = null;
+        try {
+            if (mode == "MD5") {
+                md = MessageDigest.getInstance("MD5");
+            } else if (mode == "SHA-256") {
+                md = MessageDigest.getInstance("SHA-256");
+            }
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+        return bytesToHex(md.digest(data));
+    }
+
+    private static String bytesToHex(byte[] bytes) {
+        final char[] hexArray = "0123456789ABCDEF".toCharArray();
+        char[] hexChars = new char[bytes.length * 2];
+        for (int j = 0; j < bytes.length; j++) {
+            int v = bytes[j] & 0xFF;
+            hexChars[j * 2] = hexArray[v >>> 4];
+            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+        }
+        return new String(hexChars);
+    }
+}
@@ -0,0 +1,124 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平台執行緒與虛擬執行緒模式的負載測試：對執行中的伺服器以固定並行數反覆呼叫 /api/products 與 /api/orders，
+ * 輸出每秒請求數與 p50 / p99 延遲。
+ *
+ * 先以兩種模式各啟動一台伺服器 (連同一個資料庫)，例如：
+ * <pre>
+ * java -jar back-end-project.war --server.port=8080
+ * java -jar back-end-project.war --server.port=8081 --spring.profiles.active=virtual-threads   (Java 21)
+ * mvn -f benchmarks/pom.xml package exec:exec -Dbench.main=com.back_end_project.back_end_project.benchmarks.LoadTest \
+ *     -Djmh.args="30 200 platform=http://localhost:8080 virtual=http://localhost:8081"
+ * </pre>
+ * 參數：測量秒數、並行數 (同時進行的請求數，應大於 Tomcat 預設的 200 條執行緒才看得出差異)、一或多個 名稱=網址。
+ * 每個網址先暖機 5 秒，不列入結果。
+ */
+public class LoadTest {
+
+    private static final List<String> PATHS = List.of("/api/products?size=50", "/api/orders");
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("用法：LoadTest <測量秒數> <並行數> <名稱=網址>...");
+            System.exit(1);
+        }
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[0]));
+        int concurrency = Integer.parseInt(args[1]);
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String target : Arrays.copyOfRange(args, 2, args.length)) {
+            int separator = target.indexOf('=');
+            targets.put(target.substring(0, separator), target.substring(separator + 1));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        System.out.printf("%-10s %-24s %10s %10s %10s %8s%n", "模式", "路徑", "req/s", "p50 ms", "p99 ms", "錯誤");
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            for (String path : PATHS) {
+                URI uri = URI.create(target.getValue() + path);
+                run(client, uri, concurrency, WARMUP);
+                Result result = run(client, uri, concurrency, duration);
+                System.out.printf("%-10s %-24s %10.1f %10.1f %10.1f %8d%n", target.getKey(), path,
+                        result.count() / (double) duration.toSeconds(),
+                        result.percentile(0.50), result.percentile(0.99), result.errors());
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> parts = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                parts.add(future.get());
+            }
+            long[] all = parts.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Result(all, errors.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+
+        long count() {
+            return sortedNanos.length;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+
+/**
+ * OrderDetailsDAOImpl.findByOrderId 的 DTO 投影查詢。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderDetailsDaoBenchmark {
+
+    private BenchmarkContext context;
+    private OrderDetailsDAO orderDetailsDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderDetailsDAO = context.getBean(OrderDetailsDAO.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderDetailDTO> findByOrderId() {
+        return orderDetailsDAO.findByOrderId(context.ordersId());
+    }
+}
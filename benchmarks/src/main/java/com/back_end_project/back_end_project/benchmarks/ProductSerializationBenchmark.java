@@ -0,0 +1,80 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.back_end_project.back_end_project.controllerComponentJackson.JacksonHibernateConfig;
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Products;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 以與 Spring MVC 相同設定的 ObjectMapper 序列化 Products 清單 (GET /api/products 的回應內容)，比較單筆與一頁 50 筆。
+ * 圖片不在 JSON 中 (image 為 @Transient、僅供寫入，另由 /api/products/{id}/image 輸出)，所以不設定圖片。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({ "1", "50" })
+    public int productCount;
+
+    private ObjectMapper objectMapper;
+    private List<Products> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new JacksonHibernateConfig().hibernate6Module())
+                .build();
+
+        Categories category = new Categories();
+        category.setCategoriesId(1);
+        category.setCategoriesName("Bread");
+
+        products = new ArrayList<>();
+        for (int i = 1; i <= productCount; i++) {
+            Products product = new Products();
+            product.setProductsId(i);
+            product.setCategory(category);
+            product.setProductName("Baguette " + i);
+            product.setSku("SKU-" + i);
+            product.setPrice(BigDecimal.valueOf(120));
+            product.setDiscountRate(0.1f);
+            product.setQuantityInStock(30);
+            product.setDescription("Crusty French loaf baked every morning with stone-milled flour.");
+            product.setIsFeatured(i % 5 == 0);
+            product.setRating(4.5f);
+            product.setReviewsCount(12);
+            product.setCreatedDate(LocalDateTime.of(2024, 1, 1, 8, 0));
+            product.setUpdatedDate(LocalDateTime.of(2024, 1, 1, 8, 0));
+            products.add(product);
+        }
+    }
+
+    @Benchmark
+    public String serializeProducts() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(products);
+    }
+}
@@ -0,0 +1,56 @@
+package com.back_end_project.back_end_project.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.database.Products;
+
+/**
+ * ProductsDAOImpl 的列表查詢 (直接打 DAO，不經過 ProductCatalogCache)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductsDaoBenchmark {
+
+    private BenchmarkContext context;
+    private ProductsDAO productsDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productsDAO = context.getBean(ProductsDAO.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Products> findAll() {
+        return productsDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Products> findByCategoryId() {
+        return productsDAO.findByCategoryId(context.firstCategoryId());
+    }
+}
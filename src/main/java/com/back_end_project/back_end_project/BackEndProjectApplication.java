@@ -2,12 +2,16 @@ package com.back_end_project.back_end_project;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class BackEndProjectApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BackEndProjectApplication.class, args);
+		SpringApplication application = new SpringApplication(BackEndProjectApplication.class);
+		// 記錄啟動各步驟的耗時，可由 /actuator/startup 查詢，StartupTimingReporter 也會在啟動後列出最慢的步驟
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,33 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+/**
+ * 購物車的一行：產品 ID 與數量，用於合併與整批取代購物車。
+ */
+public class CartLineDTO {
+    private Integer productsId;
+    private Integer quantity;
+
+    public CartLineDTO() {
+    }
+
+    public CartLineDTO(Integer productsId, Integer quantity) {
+        this.productsId = productsId;
+        this.quantity = quantity;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public void setProductsId(Integer productsId) {
+        this.productsId = productsId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,42 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * 報表的分類銷售：售出數量、營收與已付款營收，未分類的產品 categoriesId 為 null。
+ */
+public class CategorySalesDTO {
+    private Integer categoriesId;
+    private String categoriesName;
+    private Long quantity;
+    private BigDecimal revenue;
+    private BigDecimal paidRevenue;
+
+    public CategorySalesDTO(Integer categoriesId, String categoriesName, Long quantity, BigDecimal revenue, BigDecimal paidRevenue) {
+        this.categoriesId = categoriesId;
+        this.categoriesName = categoriesName;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.paidRevenue = paidRevenue;
+    }
+
+    public Integer getCategoriesId() {
+        return categoriesId;
+    }
+
+    public String getCategoriesName() {
+        return categoriesName;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public BigDecimal getPaidRevenue() {
+        return paidRevenue;
+    }
+}
@@ -0,0 +1,53 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+/**
+ * 結帳請求：將客戶購物車轉為訂單所需的資料。
+ * 地址未填時使用客戶資料中的地址。
+ */
+public class CheckoutRequestDTO {
+    private Integer customerId;
+    private String shippingAddress;
+    private String billingAddress;
+    private String paymentMethod;
+    private String notes;
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(String shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public String getBillingAddress() {
+        return billingAddress;
+    }
+
+    public void setBillingAddress(String billingAddress) {
+        this.billingAddress = billingAddress;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -0,0 +1,36 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * 結帳結果：新建立的訂單與付款資料 ID。
+ */
+public class CheckoutResultDTO {
+    private Integer ordersId;
+    private Integer paymentsId;
+    private BigDecimal totalAmount;
+    private Integer lineCount;
+
+    public CheckoutResultDTO(Integer ordersId, Integer paymentsId, BigDecimal totalAmount, Integer lineCount) {
+        this.ordersId = ordersId;
+        this.paymentsId = paymentsId;
+        this.totalAmount = totalAmount;
+        this.lineCount = lineCount;
+    }
+
+    public Integer getOrdersId() {
+        return ordersId;
+    }
+
+    public Integer getPaymentsId() {
+        return paymentsId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+/**
+ * 登入驗證用的客戶資料投影，只包含 ID、Email、密碼雜湊與角色。
+ */
+public class CustomerCredentialsDTO {
+    private Integer customerId;
+    private String email;
+    private String passwordHash;
+    private Boolean isSuperAdmin;
+
+    public CustomerCredentialsDTO() {
+    }
+
+    public CustomerCredentialsDTO(Integer customerId, String email, String passwordHash, Boolean isSuperAdmin) {
+        this.customerId = customerId;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.isSuperAdmin = isSuperAdmin;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    public Boolean getIsSuperAdmin() {
+        return isSuperAdmin;
+    }
+
+    public void setIsSuperAdmin(Boolean isSuperAdmin) {
+        this.isSuperAdmin = isSuperAdmin;
+    }
+}
@@ -0,0 +1,25 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.util.List;
+
+/**
+ * 游標 (keyset) 分頁的回應物件。
+ * next 為下一頁的游標，若已無下一頁則為 null。
+ */
+public class KeysetPageDTO<T> {
+    private List<T> items;
+    private String next;
+
+    public KeysetPageDTO(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,90 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單明細匯出 (會計對帳) 用的投影：一筆明細一列，附上訂單日期、付款狀態與產品編號。
+ */
+public class OrderDetailExportDTO {
+    private Integer orderDetailsId;
+    private Integer ordersId;
+    private LocalDateTime orderDate;
+    private String paymentStatus;
+    private Boolean isCancelled;
+    private Integer productsId;
+    private String sku;
+    private String productName;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal discount;
+
+    public OrderDetailExportDTO(Integer orderDetailsId, Integer ordersId, LocalDateTime orderDate, String paymentStatus,
+            Boolean isCancelled, Integer productsId, String sku, String productName, Integer quantity,
+            BigDecimal unitPrice, BigDecimal discount) {
+        this.orderDetailsId = orderDetailsId;
+        this.ordersId = ordersId;
+        this.orderDate = orderDate;
+        this.paymentStatus = paymentStatus;
+        this.isCancelled = isCancelled;
+        this.productsId = productsId;
+        this.sku = sku;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.discount = discount;
+    }
+
+    public Integer getOrderDetailsId() {
+        return orderDetailsId;
+    }
+
+    public Integer getOrdersId() {
+        return ordersId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public Boolean getIsCancelled() {
+        return isCancelled;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    // 小計 = 數量 × (單價 - 折扣)，與 OrderDetails.getSubTotal 相同
+    public BigDecimal getSubTotal() {
+        if (quantity == null || unitPrice == null) {
+            return null;
+        }
+        BigDecimal net = discount == null ? unitPrice : unitPrice.subtract(discount);
+        return net.multiply(BigDecimal.valueOf(quantity));
+    }
+}
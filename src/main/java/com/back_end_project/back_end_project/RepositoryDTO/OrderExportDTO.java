@@ -0,0 +1,75 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單匯出 (會計對帳) 用的投影：一筆訂單一列，不載入 Customer 實體與地址、備註等欄位。
+ */
+public class OrderExportDTO {
+    private Integer ordersId;
+    private LocalDateTime orderDate;
+    private Integer customerId;
+    private String customerName;
+    private BigDecimal totalAmount;
+    private String paymentMethod;
+    private String paymentStatus;
+    private String shippingStatus;
+    private Boolean isCancelled;
+    private LocalDateTime cancellationDate;
+
+    public OrderExportDTO(Integer ordersId, LocalDateTime orderDate, Integer customerId, String customerName,
+            BigDecimal totalAmount, String paymentMethod, String paymentStatus, String shippingStatus,
+            Boolean isCancelled, LocalDateTime cancellationDate) {
+        this.ordersId = ordersId;
+        this.orderDate = orderDate;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.totalAmount = totalAmount;
+        this.paymentMethod = paymentMethod;
+        this.paymentStatus = paymentStatus;
+        this.shippingStatus = shippingStatus;
+        this.isCancelled = isCancelled;
+        this.cancellationDate = cancellationDate;
+    }
+
+    public Integer getOrdersId() {
+        return ordersId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public String getShippingStatus() {
+        return shippingStatus;
+    }
+
+    public Boolean getIsCancelled() {
+        return isCancelled;
+    }
+
+    public LocalDateTime getCancellationDate() {
+        return cancellationDate;
+    }
+}
@@ -0,0 +1,119 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * 訂單搜尋條件 (/api/orders/search 的查詢參數)，未提供的條件不篩選。
+ * orderDateFrom / orderDateTo 為訂單日期的起訖日 (含當天)；minAmount / maxAmount 為總金額範圍 (含)。
+ * sort 可為 orderDate (預設)、totalAmount 或 ordersId，direction 為 desc (預設) 或 asc；
+ * cursor 為上一頁回傳的 next，須搭配相同的 sort 與 direction。
+ */
+public class OrderSearchDTO {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateTo;
+    private String paymentStatus;
+    private String shippingStatus;
+    private Integer customerId;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String sort = "orderDate";
+    private String direction = "desc";
+    private Integer size;
+    private String cursor;
+
+    public OrderSearchDTO() {
+    }
+
+    public LocalDate getOrderDateFrom() {
+        return orderDateFrom;
+    }
+
+    public void setOrderDateFrom(LocalDate orderDateFrom) {
+        this.orderDateFrom = orderDateFrom;
+    }
+
+    public LocalDate getOrderDateTo() {
+        return orderDateTo;
+    }
+
+    public void setOrderDateTo(LocalDate orderDateTo) {
+        this.orderDateTo = orderDateTo;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public String getShippingStatus() {
+        return shippingStatus;
+    }
+
+    public void setShippingStatus(String shippingStatus) {
+        this.shippingStatus = shippingStatus;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -0,0 +1,62 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 訂單列表用的輕量投影，只含列表欄位與客戶名稱，不載入 Customer 實體與地址、備註等欄位。
+ */
+public class OrderSummaryDTO {
+    private Integer ordersId;
+    private Integer customerId;
+    private String customerName;
+    private LocalDateTime orderDate;
+    private BigDecimal totalAmount;
+    private String paymentStatus;
+    private String shippingStatus;
+    private Boolean isCancelled;
+
+    public OrderSummaryDTO(Integer ordersId, Integer customerId, String customerName, LocalDateTime orderDate,
+            BigDecimal totalAmount, String paymentStatus, String shippingStatus, Boolean isCancelled) {
+        this.ordersId = ordersId;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.orderDate = orderDate;
+        this.totalAmount = totalAmount;
+        this.paymentStatus = paymentStatus;
+        this.shippingStatus = shippingStatus;
+        this.isCancelled = isCancelled;
+    }
+
+    public Integer getOrdersId() {
+        return ordersId;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public String getShippingStatus() {
+        return shippingStatus;
+    }
+
+    public Boolean getIsCancelled() {
+        return isCancelled;
+    }
+}
@@ -0,0 +1,28 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+/**
+ * 產品匯入中未寫入的一列：上傳檔案中的行號、產品編號 (若讀得到) 與原因。
+ */
+public class ProductImportErrorDTO {
+    private long line;
+    private String sku;
+    private String message;
+
+    public ProductImportErrorDTO(long line, String sku, String message) {
+        this.line = line;
+        this.sku = sku;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,65 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 產品匯入結果：各類筆數與逐列的錯誤報告。
+ * 錯誤最多保留 products.import.max-errors 筆，超過時 errorsTruncated 為 true，failed 仍為完整筆數。
+ */
+public class ProductImportResultDTO {
+    private long received;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<ProductImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ProductImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
@@ -0,0 +1,113 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 產品匯入的一列 (CSV 欄位名稱或 NDJSON 屬性名稱與欄位名稱相同)。
+ * 選填欄位為 null 時，新產品使用預設值，既有產品保留原值。
+ */
+public class ProductImportRowDTO {
+    private String sku; // 產品編號 (必填，唯一，比對既有產品)
+    private String productName; // 產品名稱 (必填)
+    private String categoriesName; // 分類名稱 (必填，須為既有分類)
+    private BigDecimal price; // 價格 (必填)
+    private Integer quantityInStock; // 庫存數量 (只用於新產品)
+    private Float discountRate; // 折扣率
+    private Integer thresholdLevel; // 補貨警戒值
+    private String warehouseLocation; // 庫存所在位置
+    private String description; // 產品描述
+    private Boolean isFeatured; // 是否為特色商品
+
+    @JsonIgnore
+    private Integer categoriesId; // 由分類名稱查得，不是匯入欄位
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getCategoriesName() {
+        return categoriesName;
+    }
+
+    public void setCategoriesName(String categoriesName) {
+        this.categoriesName = categoriesName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getQuantityInStock() {
+        return quantityInStock;
+    }
+
+    public void setQuantityInStock(Integer quantityInStock) {
+        this.quantityInStock = quantityInStock;
+    }
+
+    public Float getDiscountRate() {
+        return discountRate;
+    }
+
+    public void setDiscountRate(Float discountRate) {
+        this.discountRate = discountRate;
+    }
+
+    public Integer getThresholdLevel() {
+        return thresholdLevel;
+    }
+
+    public void setThresholdLevel(Integer thresholdLevel) {
+        this.thresholdLevel = thresholdLevel;
+    }
+
+    public String getWarehouseLocation() {
+        return warehouseLocation;
+    }
+
+    public void setWarehouseLocation(String warehouseLocation) {
+        this.warehouseLocation = warehouseLocation;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+
+    public void setIsFeatured(Boolean isFeatured) {
+        this.isFeatured = isFeatured;
+    }
+
+    public Integer getCategoriesId() {
+        return categoriesId;
+    }
+
+    public void setCategoriesId(Integer categoriesId) {
+        this.categoriesId = categoriesId;
+    }
+}
@@ -0,0 +1,42 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * 報表的產品銷售 (熱銷排行)：售出數量、營收與已付款營收。
+ */
+public class ProductSalesDTO {
+    private Integer productsId;
+    private String productName;
+    private Long quantity;
+    private BigDecimal revenue;
+    private BigDecimal paidRevenue;
+
+    public ProductSalesDTO(Integer productsId, String productName, Long quantity, BigDecimal revenue, BigDecimal paidRevenue) {
+        this.productsId = productsId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.paidRevenue = paidRevenue;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public BigDecimal getPaidRevenue() {
+        return paidRevenue;
+    }
+}
@@ -0,0 +1,80 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+
+/**
+ * 產品列表用的輕量投影，不含圖片等大型欄位。
+ */
+public class ProductSummaryDTO {
+    private Integer productsId;
+    private String productName;
+    private String sku;
+    private BigDecimal price;
+    private Float discountRate;
+    private Integer quantityInStock;
+    private Boolean isFeatured;
+    private Float rating;
+    private Integer reviewsCount;
+    private Integer categoriesId;
+    private String categoriesName;
+
+    public ProductSummaryDTO(Integer productsId, String productName, String sku, BigDecimal price,
+            Float discountRate, Integer quantityInStock, Boolean isFeatured, Float rating,
+            Integer reviewsCount, Integer categoriesId, String categoriesName) {
+        this.productsId = productsId;
+        this.productName = productName;
+        this.sku = sku;
+        this.price = price;
+        this.discountRate = discountRate;
+        this.quantityInStock = quantityInStock;
+        this.isFeatured = isFeatured;
+        this.rating = rating;
+        this.reviewsCount = reviewsCount;
+        this.categoriesId = categoriesId;
+        this.categoriesName = categoriesName;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Float getDiscountRate() {
+        return discountRate;
+    }
+
+    public Integer getQuantityInStock() {
+        return quantityInStock;
+    }
+
+    public Boolean getIsFeatured() {
+        return isFeatured;
+    }
+
+    public Float getRating() {
+        return rating;
+    }
+
+    public Integer getReviewsCount() {
+        return reviewsCount;
+    }
+
+    public Integer getCategoriesId() {
+        return categoriesId;
+    }
+
+    public String getCategoriesName() {
+        return categoriesName;
+    }
+}
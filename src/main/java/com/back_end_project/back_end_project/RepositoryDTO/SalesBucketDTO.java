@@ -0,0 +1,47 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 報表的時間區段銷售：每日 (hour 為 null) 或每小時的售出數量、營收與已付款營收。
+ */
+public class SalesBucketDTO {
+    private LocalDate date;
+    private Integer hour;
+    private Long quantity;
+    private BigDecimal revenue;
+    private BigDecimal paidRevenue;
+
+    public SalesBucketDTO(LocalDate date, Long quantity, BigDecimal revenue, BigDecimal paidRevenue) {
+        this(date, null, quantity, revenue, paidRevenue);
+    }
+
+    public SalesBucketDTO(LocalDate date, Integer hour, Long quantity, BigDecimal revenue, BigDecimal paidRevenue) {
+        this.date = date;
+        this.hour = hour;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.paidRevenue = paidRevenue;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Integer getHour() {
+        return hour;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public BigDecimal getPaidRevenue() {
+        return paidRevenue;
+    }
+}
@@ -0,0 +1,33 @@
+package com.back_end_project.back_end_project.RepositoryDTO;
+
+/**
+ * 逾期未結帳的購物車項目：購物車 ID 與所屬客戶 ID，供購物車清理排程分段使用。
+ */
+public class StaleCartLineDTO {
+    private Integer shoppingCartId;
+    private Integer customerId;
+
+    public StaleCartLineDTO() {
+    }
+
+    public StaleCartLineDTO(Integer shoppingCartId, Integer customerId) {
+        this.shoppingCartId = shoppingCartId;
+        this.customerId = customerId;
+    }
+
+    public Integer getShoppingCartId() {
+        return shoppingCartId;
+    }
+
+    public void setShoppingCartId(Integer shoppingCartId) {
+        this.shoppingCartId = shoppingCartId;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+}
@@ -67,4 +67,19 @@ public interface CustomerDAO {
      * 刪除所有客戶資料。
      */
     void deleteAll();
+
+    /**
+     * 讀取舊版存放在 Customer 表 image 欄位中的圖片，供搬移至 ImageStore 使用。
+     *
+     * @param customerId 客戶 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    Optional<byte[]> findLegacyImage(Integer customerId);
+
+    /**
+     * 清除舊版 image 欄位內容 (圖片已搬移至 ImageStore 後呼叫)。
+     *
+     * @param customerId 客戶 ID
+     */
+    void clearLegacyImage(Integer customerId);
 }
@@ -0,0 +1,57 @@
+package com.back_end_project.back_end_project.RepositoryDaoAbstract;
+
+import com.back_end_project.back_end_project.database.EcpayCallbackInbox;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * EcpayCallbackInboxDAO 介面，用於操作 EcpayCallbackInbox 表的數據。
+ */
+@Repository
+public interface EcpayCallbackInboxDAO {
+
+    /**
+     * 保存或更新一筆付款通知。
+     *
+     * @param inbox 付款通知
+     * @return 保存後的付款通知
+     */
+    EcpayCallbackInbox save(EcpayCallbackInbox inbox);
+
+    /**
+     * 檢查該特店交易編號是否已經收過。
+     *
+     * @param merchantTradeNo 特店交易編號
+     * @return 已存在則為 true
+     */
+    boolean existsByMerchantTradeNo(String merchantTradeNo);
+
+    /**
+     * 依收件順序取出某個分區內尚未處理的通知。
+     * 以 inboxId 取餘數分區，讓多個背景工作各自處理不重疊的資料列。
+     *
+     * @param partition  分區編號 (0 起算)
+     * @param partitions 分區總數
+     * @param afterId    只取 inboxId 大於此值的通知 (同一輪處理中不重複取出失敗待重試的通知)
+     * @param limit      最多筆數
+     * @return 待處理的通知
+     */
+    List<EcpayCallbackInbox> findPending(int partition, int partitions, long afterId, int limit);
+
+    /**
+     * 計算尚未處理的通知數量。
+     *
+     * @return 待處理筆數
+     */
+    long countPending();
+
+    /**
+     * 查詢最早一筆尚未處理通知的收件時間。
+     *
+     * @return 收件時間，若沒有待處理通知則為 Optional.empty()
+     */
+    Optional<LocalDateTime> findOldestPendingReceivedDate();
+}
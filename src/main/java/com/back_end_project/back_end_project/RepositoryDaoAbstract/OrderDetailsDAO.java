@@ -5,10 +5,14 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailExportDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
 import com.back_end_project.back_end_project.database.OrderDetails;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * OrderDetailsDAO 介面，用於操作 OrderDetails 表的數據。
@@ -54,6 +58,14 @@ public interface OrderDetailsDAO {
     // List<OrderDetails> findByOrderId(Integer ordersId);
     List<OrderDetailDTO> findByOrderId(Integer ordersId);
 
+    /**
+     * 查詢某訂單各產品的購買數量，用於取消訂單時退回庫存。
+     *
+     * @param ordersId 訂單 ID
+     * @return 扣庫存明細
+     */
+    List<StockLineDTO> findStockLinesByOrderId(Integer ordersId);
+
     /**
      * 根據產品 ID 查詢該產品的所有訂單明細。
      *
@@ -62,6 +74,17 @@ public interface OrderDetailsDAO {
      */
     List<OrderDetails> findByProductsId(Integer productsId);
 
+    /**
+     * 以唯讀、只能往前的游標逐筆讀取一段期間 (以訂單日期為準) 的訂單明細，依訂單日期、訂單 ID 與明細 ID 排序。
+     * 呼叫端必須在交易中讀完並關閉 Stream，讀取期間會一直占用資料庫連線。
+     *
+     * @param from      訂單日期起 (含)
+     * @param to        訂單日期迄 (不含)
+     * @param fetchSize 每次從資料庫取回的列數
+     * @return 訂單明細匯出資料
+     */
+    Stream<OrderDetailExportDTO> streamForExport(LocalDateTime from, LocalDateTime to, int fetchSize);
+
     /**
      * 根據訂單明細 ID 刪除訂單明細資料。
      *
@@ -80,4 +103,13 @@ public interface OrderDetailsDAO {
      * 刪除所有訂單明細資料。
      */
     void deleteAll();
+
+    /**
+     * 批次保存多筆訂單明細。
+     * 搭配 hibernate.jdbc.batch_size，每累積一批才送出一次 JDBC 批次。
+     *
+     * @param orderDetailsList 要保存的訂單明細列表
+     * @return 保存後的訂單明細列表
+     */
+    List<OrderDetails> saveAll(List<OrderDetails> orderDetailsList);
 }
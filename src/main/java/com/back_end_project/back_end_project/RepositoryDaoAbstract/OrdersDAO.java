@@ -2,10 +2,15 @@ package com.back_end_project.back_end_project.RepositoryDaoAbstract;
 
 import org.springframework.stereotype.Repository;
 
+import com.back_end_project.back_end_project.RepositoryDTO.OrderExportDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSearchDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSummaryDTO;
 import com.back_end_project.back_end_project.database.Orders;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * OrdersDAO 介面，用於操作 Orders 表的數據。
@@ -53,6 +58,28 @@ public interface OrdersDAO {
      */
     List<Orders> findByIsCancelled(Boolean isCancelled);
 
+    /**
+     * 依條件搜尋訂單摘要，以 (排序欄位, 訂單 ID) 做游標 (keyset) 分頁，排序欄位為 null 的訂單視為最小值。
+     *
+     * @param search     篩選條件與排序 (sort 須已確認為 orderDate、totalAmount 或 ordersId)
+     * @param afterValue 上一頁最後一筆的排序欄位值 (可能為 null)
+     * @param afterId    上一頁最後一筆的訂單 ID，第一頁傳 null
+     * @param limit      最多取回的筆數
+     * @return 訂單摘要列表
+     */
+    List<OrderSummaryDTO> search(OrderSearchDTO search, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * 以唯讀、只能往前的游標逐筆讀取一段期間的訂單，依訂單日期與訂單 ID 排序。
+     * 呼叫端必須在交易中讀完並關閉 Stream，讀取期間會一直占用資料庫連線。
+     *
+     * @param from      訂單日期起 (含)
+     * @param to        訂單日期迄 (不含)
+     * @param fetchSize 每次從資料庫取回的列數
+     * @return 訂單匯出資料
+     */
+    Stream<OrderExportDTO> streamForExport(LocalDateTime from, LocalDateTime to, int fetchSize);
+
     /**
      * 根據訂單 ID 刪除訂單資料。
      *
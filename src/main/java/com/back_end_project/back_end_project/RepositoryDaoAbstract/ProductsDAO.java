@@ -1,9 +1,14 @@
 package com.back_end_project.back_end_project.RepositoryDaoAbstract;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportRowDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSummaryDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
 import com.back_end_project.back_end_project.database.Products;
 
 /**
@@ -42,6 +47,15 @@ public interface ProductsDAO {
      */
     List<Products> findAll();
 
+    /**
+     * 以游標 (keyset) 方式分頁查詢產品摘要，依產品 ID 遞增排序，不讀取圖片欄位。
+     *
+     * @param afterProductsId 上一頁最後一筆的產品 ID，第一頁傳 null
+     * @param limit           最多取回的筆數
+     * @return 產品摘要列表
+     */
+    List<ProductSummaryDTO> findSummariesAfter(Integer afterProductsId, int limit);
+
     /**
      * 根據分類 ID 查詢該分類下的所有產品。
      *
@@ -77,4 +91,71 @@ public interface ProductsDAO {
      * 刪除所有產品資料。
      */
     void deleteAll();
+
+    /**
+     * 讀取舊版存放在 Products 表 image 欄位中的圖片，供搬移至 ImageStore 使用。
+     *
+     * @param productsId 產品 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    Optional<byte[]> findLegacyImage(Integer productsId);
+
+    /**
+     * 清除舊版 image 欄位內容 (圖片已搬移至 ImageStore 後呼叫)。
+     *
+     * @param productsId 產品 ID
+     */
+    void clearLegacyImage(Integer productsId);
+
+    /**
+     * 以單一 JDBC 批次對多個產品執行條件式扣庫存：
+     * UPDATE ... SET quantityInStock = quantityInStock - ? WHERE productsId = ? AND quantityInStock >= ?。
+     *
+     * @param lines 扣庫存明細 (同一產品只應出現一次)
+     * @return 每一行的更新筆數，0 代表庫存不足
+     */
+    int[] decrementStock(List<StockLineDTO> lines);
+
+    /**
+     * 對單一產品執行條件式扣庫存。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   扣除數量
+     * @return 更新筆數，0 代表庫存不足或產品不存在
+     */
+    int decrementStock(Integer productsId, int quantity);
+
+    /**
+     * 增加產品庫存 (退回預留或取消訂單時使用)。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   增加數量
+     * @return 更新筆數
+     */
+    int incrementStock(Integer productsId, int quantity);
+
+    /**
+     * 直接設定產品庫存數量 (補貨或盤點)，以單一 UPDATE 完成，不經讀取後寫回。
+     *
+     * @param productsId 產品 ID
+     * @param newStock   新的庫存數量
+     * @return 更新筆數，0 代表產品不存在
+     */
+    int updateStock(Integer productsId, int newStock);
+
+    /**
+     * 查詢已存在的產品編號。
+     *
+     * @param skus 產品編號 (一次不超過 2000 個，受 SQL Server 參數上限限制)
+     * @return 其中已存在於 Products 表的產品編號
+     */
+    Set<String> findExistingSkus(Collection<String> skus);
+
+    /**
+     * 以產品編號 (sku) 為鍵批次 MERGE 產品：已存在則更新，不存在則新增，每一列只需一個 MERGE 敘述。
+     * 既有產品的選填欄位為 null 時保留原值，庫存數量只用於新產品。
+     *
+     * @param rows 匯入的產品 (需已驗證，categoriesId 已查得，同一產品編號只應出現一次)
+     */
+    void upsertBySku(List<ProductImportRowDTO> rows);
 }
@@ -0,0 +1,79 @@
+package com.back_end_project.back_end_project.RepositoryDaoAbstract;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CategorySalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.SalesBucketDTO;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SalesRollupDAO 介面，用於重算與查詢 SalesRollup 銷售彙總表。
+ */
+@Repository
+public interface SalesRollupDAO {
+
+    /**
+     * 重算一個小時的彙總：刪除該時段原有的彙總列，再依該時段 (以訂單日期為準) 未取消訂單的明細重新加總。
+     * 只讀取該小時內的訂單，重複執行結果相同。
+     *
+     * @param hour 時段開始時間 (整點)
+     * @return 寫入的彙總列數
+     */
+    int rebuildHour(LocalDateTime hour);
+
+    /**
+     * 查詢訂單的訂單日期，用來找出需要重算的時段。
+     *
+     * @param ordersIds 訂單 ID
+     * @return 訂單日期 (不含 null)
+     */
+    List<LocalDateTime> findOrderDates(Collection<Integer> ordersIds);
+
+    /**
+     * 查詢彙總表中已有資料的時段，用於大量刪除訂單或明細後找出需要重算的時段。
+     *
+     * @return 時段開始時間 (整點)
+     */
+    List<LocalDateTime> findRollupHours();
+
+    /**
+     * 依日期加總銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 每日銷售，依日期排序
+     */
+    List<SalesBucketDTO> findDailySales(LocalDate from, LocalDate to);
+
+    /**
+     * 依日期與小時加總銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 每小時銷售，依日期與小時排序
+     */
+    List<SalesBucketDTO> findHourlySales(LocalDate from, LocalDate to);
+
+    /**
+     * 依營收排序的熱銷產品。
+     *
+     * @param from  起日 (含)
+     * @param to    迄日 (含)
+     * @param limit 最多筆數
+     * @return 產品銷售，營收由高到低
+     */
+    List<ProductSalesDTO> findTopProducts(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * 依分類加總銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 分類銷售，營收由高到低
+     */
+    List<CategorySalesDTO> findCategorySales(LocalDate from, LocalDate to);
+}
@@ -1,8 +1,11 @@
 package com.back_end_project.back_end_project.RepositoryDaoAbstract;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import com.back_end_project.back_end_project.RepositoryDTO.StaleCartLineDTO;
 import com.back_end_project.back_end_project.database.ShoppingCart;
 
 /**
@@ -74,4 +77,92 @@ public interface ShoppingCartDAO {
      * 刪除所有購物車項目。
      */
     void deleteAll();
+
+    /**
+     * 批次保存多筆購物車項目。
+     * 搭配 hibernate.jdbc.batch_size，每累積一批才送出一次 JDBC 批次。
+     *
+     * @param shoppingCartList 要保存的購物車項目列表
+     * @return 保存後的購物車項目列表
+     */
+    List<ShoppingCart> saveAll(List<ShoppingCart> shoppingCartList);
+
+    /**
+     * 從 ShoppingCart_SEQ 預先配置主鍵 (經由 Hibernate 的 pooled optimizer，每 50 個才會真正存取一次序列)。
+     * 需在交易中呼叫。
+     *
+     * @param count 需要的主鍵數量
+     * @return 配置好的主鍵
+     */
+    List<Integer> allocateIds(int count);
+
+    /**
+     * 以 JDBC 批次新增已配置好主鍵的購物車項目 (只使用 customer / product 的 ID)。
+     *
+     * @param shoppingCartList 要新增的購物車項目
+     */
+    void insertBatch(List<ShoppingCart> shoppingCartList);
+
+    /**
+     * 以 JDBC 批次更新購物車項目的產品、數量、加入時間、付款狀態與備註。
+     *
+     * @param shoppingCartList 要更新的購物車項目
+     */
+    void updateBatch(List<ShoppingCart> shoppingCartList);
+
+    /**
+     * 依主鍵批次刪除購物車項目。
+     *
+     * @param shoppingCartIds 購物車 ID 列表
+     * @return 實際刪除的筆數 (已被其他交易刪除的項目不計)
+     */
+    int deleteByIds(List<Integer> shoppingCartIds);
+
+    /**
+     * 以 (customerId, productsId) 為鍵批次 MERGE 購物車項目：已存在則累加或覆蓋數量，不存在則新增。
+     *
+     * @param shoppingCartList 購物車項目 (需有預先配置的 shoppingCartId、customer 與 product 的 ID、數量)
+     * @param accumulate       true 時累加數量，false 時覆蓋數量
+     */
+    void mergeQuantities(List<ShoppingCart> shoppingCartList, boolean accumulate);
+
+    /**
+     * 刪除某位客戶購物車中不在指定產品清單內的項目。
+     *
+     * @param customerId  客戶 ID
+     * @param productsIds 要保留的產品 ID
+     */
+    void deleteByCustomerIdExcept(Integer customerId, Collection<Integer> productsIds);
+
+    /**
+     * 以 shoppingCartId 做 keyset 分頁，查詢加入時間早於指定時間且尚未付款的購物車項目。
+     *
+     * @param before  加入時間早於此時間才算逾期
+     * @param afterId 只查詢 shoppingCartId 大於此值的項目
+     * @param limit   最多筆數
+     * @return 依 shoppingCartId 排序的逾期項目
+     */
+    List<StaleCartLineDTO> findStaleLines(LocalDateTime before, Integer afterId, int limit);
+
+    /**
+     * 把 shoppingCartId 介於 fromId 與 toId 之間 (含) 的逾期未付款項目複製到 ShoppingCartArchive。
+     *
+     * @param fromId              範圍起點
+     * @param toId                範圍終點
+     * @param before              加入時間早於此時間才算逾期
+     * @param excludedCustomerIds 略過的客戶 ID (以 NOT IN 參數傳入，呼叫端應控制在 2000 個以內)
+     * @return 複製的筆數
+     */
+    int archiveStaleRange(Integer fromId, Integer toId, LocalDateTime before, Collection<Integer> excludedCustomerIds);
+
+    /**
+     * 刪除 shoppingCartId 介於 fromId 與 toId 之間 (含) 的逾期未付款項目。
+     *
+     * @param fromId              範圍起點
+     * @param toId                範圍終點
+     * @param before              加入時間早於此時間才算逾期
+     * @param excludedCustomerIds 略過的客戶 ID (以 NOT IN 參數傳入，呼叫端應控制在 2000 個以內)
+     * @return 刪除的筆數
+     */
+    int deleteStaleRange(Integer fromId, Integer toId, LocalDateTime before, Collection<Integer> excludedCustomerIds);
 }
@@ -128,4 +128,32 @@ public class CustomerDAOImpl implements CustomerDAO {
         String jpql = "DELETE FROM Customer";
         entityManager.createQuery(jpql).executeUpdate(); // 刪除所有客戶資料
     }
+
+    /**
+     * 讀取舊版存放在 Customer 表 image 欄位中的圖片，供搬移至 ImageStore 使用。
+     *
+     * @param customerId 客戶 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    @Override
+    public Optional<byte[]> findLegacyImage(Integer customerId) {
+        String sql = "SELECT image FROM Customer WHERE customerId = :customerId AND image IS NOT NULL";
+        List<?> rows = entityManager.createNativeQuery(sql)
+                .setParameter("customerId", customerId)
+                .getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of((byte[]) rows.get(0));
+    }
+
+    /**
+     * 清除舊版 image 欄位內容 (圖片已搬移至 ImageStore 後呼叫)。
+     *
+     * @param customerId 客戶 ID
+     */
+    @Override
+    public void clearLegacyImage(Integer customerId) {
+        String sql = "UPDATE Customer SET image = NULL WHERE customerId = :customerId";
+        entityManager.createNativeQuery(sql)
+                .setParameter("customerId", customerId)
+                .executeUpdate();
+    }
 }
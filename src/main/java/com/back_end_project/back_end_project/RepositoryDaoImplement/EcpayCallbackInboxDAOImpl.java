@@ -0,0 +1,85 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.EcpayCallbackInboxDAO;
+import com.back_end_project.back_end_project.database.EcpayCallbackInbox;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * EcpayCallbackInboxDAOImpl 類，實現 EcpayCallbackInboxDAO 介面，用於操作 EcpayCallbackInbox 表的數據。
+ */
+@Repository
+public class EcpayCallbackInboxDAOImpl implements EcpayCallbackInboxDAO {
+
+    @PersistenceContext
+    private EntityManager entityManager; // 使用 JPA 的 EntityManager 操作資料庫
+
+    /**
+     * 保存或更新一筆付款通知。
+     * inboxId 為 null 時新增，MerchantTradeNo 重複時由唯一索引擋下。
+     */
+    @Override
+    public EcpayCallbackInbox save(EcpayCallbackInbox inbox) {
+        if (inbox.getInboxId() == null) {
+            entityManager.persist(inbox);
+            return inbox;
+        } else {
+            return entityManager.merge(inbox);
+        }
+    }
+
+    /**
+     * 檢查該特店交易編號是否已經收過。
+     */
+    @Override
+    public boolean existsByMerchantTradeNo(String merchantTradeNo) {
+        String jpql = "SELECT COUNT(i) FROM EcpayCallbackInbox i WHERE i.merchantTradeNo = :merchantTradeNo";
+        return entityManager.createQuery(jpql, Long.class)
+                .setParameter("merchantTradeNo", merchantTradeNo)
+                .getSingleResult() > 0;
+    }
+
+    /**
+     * 依收件順序取出某個分區內尚未處理的通知。
+     */
+    @Override
+    public List<EcpayCallbackInbox> findPending(int partition, int partitions, long afterId, int limit) {
+        String jpql = "SELECT i FROM EcpayCallbackInbox i WHERE i.status = :status "
+                + "AND MOD(i.inboxId, :partitions) = :partition AND i.inboxId > :afterId ORDER BY i.inboxId";
+        return entityManager.createQuery(jpql, EcpayCallbackInbox.class)
+                .setParameter("status", EcpayCallbackInbox.STATUS_PENDING)
+                .setParameter("partitions", (long) partitions)
+                .setParameter("partition", (long) partition)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 計算尚未處理的通知數量。
+     */
+    @Override
+    public long countPending() {
+        String jpql = "SELECT COUNT(i) FROM EcpayCallbackInbox i WHERE i.status = :status";
+        return entityManager.createQuery(jpql, Long.class)
+                .setParameter("status", EcpayCallbackInbox.STATUS_PENDING)
+                .getSingleResult();
+    }
+
+    /**
+     * 查詢最早一筆尚未處理通知的收件時間。
+     */
+    @Override
+    public Optional<LocalDateTime> findOldestPendingReceivedDate() {
+        String jpql = "SELECT MIN(i.receivedDate) FROM EcpayCallbackInbox i WHERE i.status = :status";
+        return Optional.ofNullable(entityManager.createQuery(jpql, LocalDateTime.class)
+                .setParameter("status", EcpayCallbackInbox.STATUS_PENDING)
+                .getSingleResult());
+    }
+}
@@ -1,16 +1,27 @@
 package com.back_end_project.back_end_project.RepositoryDaoImplement;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_FETCH_GRAPH;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailExportDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
 import com.back_end_project.back_end_project.database.OrderDetails;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * OrderDetailsDAOImpl 類，實現 OrderDetailsDAO 介面，用於操作 OrderDetails 表的數據。
@@ -21,6 +32,9 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
     @PersistenceContext
     private EntityManager entityManager; // 使用 JPA 的 EntityManager 操作資料庫
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize; // JDBC 批次大小
+
     @Override
     public List<OrderDetailDTO> findOrderDetailsByOrderId(Integer orderId) {
         String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO( " +
@@ -58,7 +72,8 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
      */
     @Override
     public Optional<OrderDetails> findById(Integer orderDetailsId) {
-        OrderDetails orderDetails = entityManager.find(OrderDetails.class, orderDetailsId);
+        OrderDetails orderDetails = entityManager.find(OrderDetails.class, orderDetailsId,
+                Map.of(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("OrderDetails.withProduct")));
         return Optional.ofNullable(orderDetails);
     }
 
@@ -71,6 +86,7 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
     public List<OrderDetails> findAll() {
         String jpql = "SELECT od FROM OrderDetails od";
         TypedQuery<OrderDetails> query = entityManager.createQuery(jpql, OrderDetails.class);
+        query.setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("OrderDetails.withProduct"));
         return query.getResultList();
     }
 
@@ -91,6 +107,21 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
         return query.getResultList();
     }
 
+    /**
+     * 查詢某訂單各產品的購買數量，用於取消訂單時退回庫存。
+     *
+     * @param ordersId 訂單 ID
+     * @return 扣庫存明細
+     */
+    @Override
+    public List<StockLineDTO> findStockLinesByOrderId(Integer ordersId) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO( " +
+                "od.product.productsId, od.quantity) FROM OrderDetails od WHERE od.order.ordersId = :ordersId";
+        return entityManager.createQuery(jpql, StockLineDTO.class)
+                .setParameter("ordersId", ordersId)
+                .getResultList();
+    }
+
     /**
      * 根據產品 ID 查詢該產品的所有訂單明細。
      *
@@ -101,10 +132,36 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
     public List<OrderDetails> findByProductsId(Integer productsId) {
         String jpql = "SELECT od FROM OrderDetails od WHERE od.product.productsId = :productsId";
         TypedQuery<OrderDetails> query = entityManager.createQuery(jpql, OrderDetails.class);
+        query.setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("OrderDetails.withProduct"));
         query.setParameter("productsId", productsId);
         return query.getResultList();
     }
 
+    /**
+     * 以唯讀、只能往前的游標逐筆讀取訂單明細匯出資料。
+     * 投影成 DTO，不建立受管理的實體，持久化內容不會隨列數增加；訂單以 IX_Orders_orderDate 篩選，明細以 IX_OrderDetails_ordersId 取得。
+     *
+     * @param from      訂單日期起 (含)
+     * @param to        訂單日期迄 (不含)
+     * @param fetchSize 每次從資料庫取回的列數
+     * @return 訂單明細匯出資料
+     */
+    @Override
+    public Stream<OrderDetailExportDTO> streamForExport(LocalDateTime from, LocalDateTime to, int fetchSize) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.OrderDetailExportDTO(" +
+                "od.orderDetailsId, o.ordersId, o.orderDate, o.paymentStatus, o.isCancelled, " +
+                "p.productsId, p.sku, p.productName, od.quantity, od.unitPrice, od.discount) " +
+                "FROM OrderDetails od JOIN od.order o LEFT JOIN od.product p " +
+                "WHERE o.orderDate >= :from AND o.orderDate < :to " +
+                "ORDER BY o.orderDate, o.ordersId, od.orderDetailsId";
+        return entityManager.createQuery(jpql, OrderDetailExportDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
     /**
      * 根據訂單明細 ID 刪除訂單明細資料。
      *
@@ -139,4 +196,24 @@ public class OrderDetailsDAOImpl implements OrderDetailsDAO {
         String jpql = "DELETE FROM OrderDetails";
         entityManager.createQuery(jpql).executeUpdate(); // 刪除所有訂單明細
     }
+
+    /**
+     * 批次保存多筆訂單明細。
+     * 搭配 hibernate.jdbc.batch_size，每累積一批才送出一次 JDBC 批次。
+     *
+     * @param orderDetailsList 要保存的訂單明細列表
+     * @return 保存後的訂單明細列表
+     */
+    @Override
+    public List<OrderDetails> saveAll(List<OrderDetails> orderDetailsList) {
+        List<OrderDetails> saved = new ArrayList<>(orderDetailsList.size());
+        for (int i = 0; i < orderDetailsList.size(); i++) {
+            saved.add(save(orderDetailsList.get(i)));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush(); // 每滿一批送出一次
+            }
+        }
+        entityManager.flush();
+        return saved;
+    }
 }
@@ -1,16 +1,34 @@
 package com.back_end_project.back_end_project.RepositoryDaoImplement;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_FETCH_GRAPH;
+
 import org.springframework.stereotype.Repository;
 
+import com.back_end_project.back_end_project.RepositoryDTO.OrderExportDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSearchDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSummaryDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.database.Customer;
 import com.back_end_project.back_end_project.database.Orders;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * OrdersDAOImpl 類，實現 OrdersDAO 介面，用於操作 Orders 表的數據。
@@ -46,7 +64,8 @@ public class OrdersDAOImpl implements OrdersDAO {
      */
     @Override
     public Optional<Orders> findById(Integer ordersId) {
-        Orders order = entityManager.find(Orders.class, ordersId);
+        Orders order = entityManager.find(Orders.class, ordersId,
+                Map.of(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Orders.withCustomer")));
         return Optional.ofNullable(order);
     }
 
@@ -90,6 +109,105 @@ public class OrdersDAOImpl implements OrdersDAO {
         return query.getResultList();
     }
 
+    /**
+     * 依條件搜尋訂單摘要，以 Criteria API 只組合有提供的條件，並以 (排序欄位, 訂單 ID) 做游標分頁。
+     * SQL Server 與 H2 都把 NULL 排在最小，所以排序欄位為 null 的訂單在遞增時最先、遞減時最後出現。
+     *
+     * @param search     篩選條件與排序 (sort 須已確認為 orderDate、totalAmount 或 ordersId)
+     * @param afterValue 上一頁最後一筆的排序欄位值 (可能為 null)
+     * @param afterId    上一頁最後一筆的訂單 ID，第一頁傳 null
+     * @param limit      最多取回的筆數
+     * @return 訂單摘要列表
+     */
+    @Override
+    public List<OrderSummaryDTO> search(OrderSearchDTO search, Object afterValue, Integer afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryDTO> query = cb.createQuery(OrderSummaryDTO.class);
+        Root<Orders> o = query.from(Orders.class);
+        Join<Orders, Customer> c = o.join("customer");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (search.getOrderDateFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(o.get("orderDate"), search.getOrderDateFrom().atStartOfDay()));
+        }
+        if (search.getOrderDateTo() != null) {
+            predicates.add(cb.lessThan(o.get("orderDate"), search.getOrderDateTo().plusDays(1).atStartOfDay()));
+        }
+        if (search.getPaymentStatus() != null) {
+            predicates.add(cb.equal(o.get("paymentStatus"), search.getPaymentStatus()));
+        }
+        if (search.getShippingStatus() != null) {
+            predicates.add(cb.equal(o.get("shippingStatus"), search.getShippingStatus()));
+        }
+        if (search.getCustomerId() != null) {
+            predicates.add(cb.equal(o.get("customer").get("customerId"), search.getCustomerId()));
+        }
+        if (search.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(o.get("totalAmount"), search.getMinAmount()));
+        }
+        if (search.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(o.get("totalAmount"), search.getMaxAmount()));
+        }
+
+        boolean ascending = "asc".equalsIgnoreCase(search.getDirection());
+        Path<Integer> id = o.get("ordersId");
+        Path<Comparable<Object>> sortKey = o.get(search.getSort());
+        if (afterId != null) {
+            Predicate tieBreak = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            predicates.add("ordersId".equals(search.getSort())
+                    ? tieBreak
+                    : after(cb, sortKey, afterValue, tieBreak, ascending));
+        }
+
+        query.select(cb.construct(OrderSummaryDTO.class,
+                        id, c.get("customerId"), c.get("name"), o.get("orderDate"), o.get("totalAmount"),
+                        o.get("paymentStatus"), o.get("shippingStatus"), o.get("isCancelled")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending ? cb.asc(sortKey) : cb.desc(sortKey), ascending ? cb.asc(id) : cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 以唯讀、只能往前的游標逐筆讀取訂單匯出資料。
+     * 投影成 DTO，不建立受管理的實體，持久化內容不會隨列數增加；範圍條件與排序都落在 IX_Orders_orderDate 上。
+     *
+     * @param from      訂單日期起 (含)
+     * @param to        訂單日期迄 (不含)
+     * @param fetchSize 每次從資料庫取回的列數
+     * @return 訂單匯出資料
+     */
+    @Override
+    public Stream<OrderExportDTO> streamForExport(LocalDateTime from, LocalDateTime to, int fetchSize) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.OrderExportDTO(" +
+                "o.ordersId, o.orderDate, c.customerId, c.name, o.totalAmount, o.paymentMethod, " +
+                "o.paymentStatus, o.shippingStatus, o.isCancelled, o.cancellationDate) " +
+                "FROM Orders o LEFT JOIN o.customer c " +
+                "WHERE o.orderDate >= :from AND o.orderDate < :to " +
+                "ORDER BY o.orderDate, o.ordersId";
+        return entityManager.createQuery(jpql, OrderExportDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // 排在游標 (value, id) 之後的條件，tieBreak 為同值時比較訂單 ID；NULL 視為最小值
+    @SuppressWarnings("unchecked")
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable<Object>> sortKey, Object value,
+            Predicate tieBreak, boolean ascending) {
+        if (value == null) {
+            Predicate sameNull = cb.and(cb.isNull(sortKey), tieBreak);
+            return ascending ? cb.or(sameNull, cb.isNotNull(sortKey)) : sameNull;
+        }
+        Comparable<Object> key = (Comparable<Object>) value;
+        Predicate beyond = ascending ? cb.greaterThan(sortKey, key) : cb.lessThan(sortKey, key);
+        Predicate sameValue = cb.and(cb.equal(sortKey, key), tieBreak);
+        return ascending ? cb.or(beyond, sameValue) : cb.or(beyond, sameValue, cb.isNull(sortKey));
+    }
+
     /**
      * 根據訂單 ID 刪除訂單資料。
      *
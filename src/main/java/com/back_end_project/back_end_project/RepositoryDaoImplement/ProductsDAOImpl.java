@@ -1,16 +1,30 @@
 package com.back_end_project.back_end_project.RepositoryDaoImplement;
 
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_FETCH_GRAPH;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportRowDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSummaryDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
 import com.back_end_project.back_end_project.database.Products;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * ProductsDAOImpl 類，實現 ProductsDAO 介面，用於操作 Products 表的數據。
@@ -46,7 +60,8 @@ public class ProductsDAOImpl implements ProductsDAO {
      */
     @Override
     public Optional<Products> findById(Integer productsId) {
-        Products product = entityManager.find(Products.class, productsId);
+        Products product = entityManager.find(Products.class, productsId,
+                Map.of(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory")));
         return Optional.ofNullable(product);
     }
 
@@ -61,6 +76,7 @@ public class ProductsDAOImpl implements ProductsDAO {
         String jpql = "SELECT p FROM Products p WHERE p.productName = :productName";
         try {
             Products product = entityManager.createQuery(jpql, Products.class)
+                    .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory"))
                     .setParameter("productName", productName)
                     .getSingleResult();
             return Optional.of(product);
@@ -77,7 +93,29 @@ public class ProductsDAOImpl implements ProductsDAO {
     @Override
     public List<Products> findAll() {
         String jpql = "SELECT p FROM Products p";
-        return entityManager.createQuery(jpql, Products.class).getResultList();
+        return entityManager.createQuery(jpql, Products.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory"))
+                .getResultList();
+    }
+
+    /**
+     * 以游標 (keyset) 方式分頁查詢產品摘要，依產品 ID 遞增排序，不讀取圖片欄位。
+     *
+     * @param afterProductsId 上一頁最後一筆的產品 ID，第一頁傳 null
+     * @param limit           最多取回的筆數
+     * @return 產品摘要列表
+     */
+    @Override
+    public List<ProductSummaryDTO> findSummariesAfter(Integer afterProductsId, int limit) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.ProductSummaryDTO( " +
+                "p.productsId, p.productName, p.sku, p.price, p.discountRate, p.quantityInStock, " +
+                "p.isFeatured, p.rating, p.reviewsCount, c.categoriesId, c.categoriesName) " +
+                "FROM Products p JOIN p.category c " +
+                "WHERE p.productsId > :afterProductsId ORDER BY p.productsId";
+        return entityManager.createQuery(jpql, ProductSummaryDTO.class)
+                .setParameter("afterProductsId", afterProductsId == null ? 0 : afterProductsId)
+                .setMaxResults(limit)
+                .getResultList();
     }
 
     /**
@@ -90,6 +128,7 @@ public class ProductsDAOImpl implements ProductsDAO {
     public List<Products> findByCategoryId(Integer categoriesId) {
         String jpql = "SELECT p FROM Products p WHERE p.category.categoriesId = :categoriesId";
         return entityManager.createQuery(jpql, Products.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory"))
                 .setParameter("categoriesId", categoriesId)
                 .getResultList();
     }
@@ -105,6 +144,7 @@ public class ProductsDAOImpl implements ProductsDAO {
     public List<Products> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         String jpql = "SELECT p FROM Products p WHERE p.price BETWEEN :minPrice AND :maxPrice";
         return entityManager.createQuery(jpql, Products.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory"))
                 .setParameter("minPrice", minPrice)
                 .setParameter("maxPrice", maxPrice)
                 .getResultList();
@@ -118,7 +158,9 @@ public class ProductsDAOImpl implements ProductsDAO {
     @Override
     public List<Products> findFeaturedProducts() {
         String jpql = "SELECT p FROM Products p WHERE p.isFeatured = true";
-        return entityManager.createQuery(jpql, Products.class).getResultList();
+        return entityManager.createQuery(jpql, Products.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("Products.withCategory"))
+                .getResultList();
     }
 
     /**
@@ -142,4 +184,177 @@ public class ProductsDAOImpl implements ProductsDAO {
         String jpql = "DELETE FROM Products";
         entityManager.createQuery(jpql).executeUpdate(); // 刪除所有產品資料
     }
+
+    /**
+     * 讀取舊版存放在 Products 表 image 欄位中的圖片，供搬移至 ImageStore 使用。
+     *
+     * @param productsId 產品 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    @Override
+    public Optional<byte[]> findLegacyImage(Integer productsId) {
+        String sql = "SELECT image FROM Products WHERE productsId = :productsId AND image IS NOT NULL";
+        List<?> rows = entityManager.createNativeQuery(sql)
+                .setParameter("productsId", productsId)
+                .getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of((byte[]) rows.get(0));
+    }
+
+    /**
+     * 清除舊版 image 欄位內容 (圖片已搬移至 ImageStore 後呼叫)。
+     *
+     * @param productsId 產品 ID
+     */
+    @Override
+    public void clearLegacyImage(Integer productsId) {
+        String sql = "UPDATE Products SET image = NULL WHERE productsId = :productsId";
+        entityManager.createNativeQuery(sql)
+                .setParameter("productsId", productsId)
+                .executeUpdate();
+    }
+
+    /**
+     * 以單一 JDBC 批次對多個產品執行條件式扣庫存。
+     *
+     * @param lines 扣庫存明細 (同一產品只應出現一次)
+     * @return 每一行的更新筆數，0 代表庫存不足
+     */
+    @Override
+    public int[] decrementStock(List<StockLineDTO> lines) {
+        String sql = "UPDATE Products SET quantityInStock = quantityInStock - ?, updatedDate = ? " +
+                "WHERE productsId = ? AND quantityInStock >= ?";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (StockLineDTO line : lines) {
+                    statement.setInt(1, line.getQuantity());
+                    statement.setTimestamp(2, now);
+                    statement.setInt(3, line.getProductsId());
+                    statement.setInt(4, line.getQuantity());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * 對單一產品執行條件式扣庫存。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   扣除數量
+     * @return 更新筆數，0 代表庫存不足或產品不存在
+     */
+    @Override
+    public int decrementStock(Integer productsId, int quantity) {
+        String jpql = "UPDATE Products p SET p.quantityInStock = p.quantityInStock - :quantity, " +
+                "p.updatedDate = :now WHERE p.productsId = :productsId AND p.quantityInStock >= :quantity";
+        return entityManager.createQuery(jpql)
+                .setParameter("quantity", quantity)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("productsId", productsId)
+                .executeUpdate();
+    }
+
+    /**
+     * 增加產品庫存。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   增加數量
+     * @return 更新筆數
+     */
+    @Override
+    public int incrementStock(Integer productsId, int quantity) {
+        String jpql = "UPDATE Products p SET p.quantityInStock = p.quantityInStock + :quantity, " +
+                "p.updatedDate = :now WHERE p.productsId = :productsId";
+        return entityManager.createQuery(jpql)
+                .setParameter("quantity", quantity)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("productsId", productsId)
+                .executeUpdate();
+    }
+
+    /**
+     * 直接設定產品庫存數量。
+     *
+     * @param productsId 產品 ID
+     * @param newStock   新的庫存數量
+     * @return 更新筆數，0 代表產品不存在
+     */
+    @Override
+    public int updateStock(Integer productsId, int newStock) {
+        String jpql = "UPDATE Products p SET p.quantityInStock = :newStock, p.updatedDate = :now " +
+                "WHERE p.productsId = :productsId";
+        return entityManager.createQuery(jpql)
+                .setParameter("newStock", newStock)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("productsId", productsId)
+                .executeUpdate();
+    }
+
+    /**
+     * 查詢已存在的產品編號 (使用 sku 的唯一索引)。
+     *
+     * @param skus 產品編號
+     * @return 其中已存在的產品編號
+     */
+    @Override
+    public Set<String> findExistingSkus(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return new HashSet<>();
+        }
+        String jpql = "SELECT p.sku FROM Products p WHERE p.sku IN :skus";
+        return new HashSet<>(entityManager.createQuery(jpql, String.class)
+                .setParameter("skus", skus)
+                .getResultList());
+    }
+
+    /**
+     * 以產品編號為鍵批次 MERGE 產品，整批以一個 JDBC 批次送出，不經過持久化內容，也不需要逐筆取回 IDENTITY 值。
+     * SQL Server 上加 HOLDLOCK，避免兩個匯入同時判斷為「不存在」而違反 sku 的唯一索引。
+     * description 是 TEXT 欄位，不能直接放進 COALESCE，先轉成 VARCHAR(MAX)。
+     *
+     * @param rows 匯入的產品
+     */
+    @Override
+    public void upsertBySku(List<ProductImportRowDTO> rows) {
+        String sql = "MERGE INTO Products" + SqlServerHints.holdLock(entityManager) + " AS t " +
+                "USING (SELECT CAST(? AS VARCHAR(50)) AS sku, CAST(? AS VARCHAR(255)) AS productName, " +
+                "CAST(? AS INT) AS categoriesId, CAST(? AS NUMERIC(18,2)) AS price, CAST(? AS INT) AS quantityInStock, " +
+                "CAST(? AS REAL) AS discountRate, CAST(? AS INT) AS thresholdLevel, " +
+                "CAST(? AS VARCHAR(255)) AS warehouseLocation, CAST(? AS VARCHAR(MAX)) AS description, " +
+                "CAST(? AS BIT) AS isFeatured, CAST(? AS DATETIME2) AS now) AS s " +
+                "ON t.sku = s.sku " +
+                "WHEN MATCHED THEN UPDATE SET productName = s.productName, categoriesId = s.categoriesId, price = s.price, " +
+                "discountRate = COALESCE(s.discountRate, t.discountRate), " +
+                "thresholdLevel = COALESCE(s.thresholdLevel, t.thresholdLevel), " +
+                "warehouseLocation = COALESCE(s.warehouseLocation, t.warehouseLocation), " +
+                "description = COALESCE(s.description, CAST(t.description AS VARCHAR(MAX))), " +
+                "isFeatured = COALESCE(s.isFeatured, t.isFeatured), updatedDate = s.now " +
+                "WHEN NOT MATCHED THEN INSERT (sku, productName, categoriesId, price, quantityInStock, discountRate, " +
+                "thresholdLevel, warehouseLocation, description, isFeatured, rating, reviewsCount, createdDate, updatedDate) " +
+                "VALUES (s.sku, s.productName, s.categoriesId, s.price, COALESCE(s.quantityInStock, 0), " +
+                "COALESCE(s.discountRate, 0), COALESCE(s.thresholdLevel, 10), s.warehouseLocation, s.description, " +
+                "COALESCE(s.isFeatured, 0), 0, 0, s.now, s.now);";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ProductImportRowDTO row : rows) {
+                    statement.setString(1, row.getSku());
+                    statement.setString(2, row.getProductName());
+                    statement.setInt(3, row.getCategoriesId());
+                    statement.setBigDecimal(4, row.getPrice());
+                    statement.setObject(5, row.getQuantityInStock(), Types.INTEGER);
+                    statement.setObject(6, row.getDiscountRate(), Types.REAL);
+                    statement.setObject(7, row.getThresholdLevel(), Types.INTEGER);
+                    statement.setString(8, row.getWarehouseLocation());
+                    statement.setString(9, row.getDescription());
+                    statement.setObject(10, row.getIsFeatured(), Types.BIT);
+                    statement.setTimestamp(11, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
 }
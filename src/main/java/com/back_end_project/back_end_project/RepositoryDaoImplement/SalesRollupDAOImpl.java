@@ -0,0 +1,188 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CategorySalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.SalesBucketDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.SalesRollupDAO;
+import com.back_end_project.back_end_project.database.SalesRollup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SalesRollupDAOImpl 類，實現 SalesRollupDAO 介面，用於重算與查詢 SalesRollup 表。
+ */
+@Repository
+public class SalesRollupDAOImpl implements SalesRollupDAO {
+
+    @PersistenceContext
+    private EntityManager entityManager; // 使用 JPA 的 EntityManager 操作資料庫
+
+    /**
+     * 重算一個小時的彙總。營收為 數量 × (單價 - 折扣)，已付款營收只計付款狀態為 Paid 的訂單。
+     * 範圍條件落在 IX_Orders_orderDate 上，明細以 IX_OrderDetails_ordersId 取得，不掃描整個 OrderDetails。
+     *
+     * @param hour 時段開始時間 (整點)
+     * @return 寫入的彙總列數
+     */
+    @Override
+    public int rebuildHour(LocalDateTime hour) {
+        LocalDate bucketDate = hour.toLocalDate();
+        int bucketHour = hour.getHour();
+        entityManager.createQuery("DELETE FROM SalesRollup r WHERE r.bucketDate = :bucketDate AND r.bucketHour = :bucketHour")
+                .setParameter("bucketDate", bucketDate)
+                .setParameter("bucketHour", bucketHour)
+                .executeUpdate();
+
+        String jpql = "SELECT p.productsId, c.categoriesId, SUM(od.quantity), " +
+                "SUM(od.quantity * (od.unitPrice - COALESCE(od.discount, 0))), " +
+                "SUM(CASE WHEN o.paymentStatus = 'Paid' THEN od.quantity * (od.unitPrice - COALESCE(od.discount, 0)) ELSE 0 END) " +
+                "FROM OrderDetails od JOIN od.order o JOIN od.product p LEFT JOIN p.category c " +
+                "WHERE o.orderDate >= :from AND o.orderDate < :to " +
+                "AND (o.isCancelled = false OR o.isCancelled IS NULL) " +
+                "GROUP BY p.productsId, c.categoriesId";
+        List<Object[]> rows = entityManager.createQuery(jpql, Object[].class)
+                .setParameter("from", hour)
+                .setParameter("to", hour.plusHours(1))
+                .getResultList();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : rows) {
+            SalesRollup rollup = new SalesRollup();
+            rollup.setBucketDate(bucketDate);
+            rollup.setBucketHour(bucketHour);
+            rollup.setProductsId((Integer) row[0]);
+            rollup.setCategoriesId((Integer) row[1]);
+            rollup.setQuantity(((Number) row[2]).longValue());
+            rollup.setRevenue(toAmount(row[3]));
+            rollup.setPaidRevenue(toAmount(row[4]));
+            rollup.setUpdatedDate(now);
+            entityManager.persist(rollup);
+        }
+        return rows.size();
+    }
+
+    private static BigDecimal toAmount(Object value) {
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 查詢訂單的訂單日期。
+     *
+     * @param ordersIds 訂單 ID
+     * @return 訂單日期 (不含 null)
+     */
+    @Override
+    public List<LocalDateTime> findOrderDates(Collection<Integer> ordersIds) {
+        if (ordersIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT DISTINCT o.orderDate FROM Orders o WHERE o.ordersId IN :ids AND o.orderDate IS NOT NULL",
+                        LocalDateTime.class)
+                .setParameter("ids", ordersIds)
+                .getResultList();
+    }
+
+    /**
+     * 查詢彙總表中已有資料的時段。
+     *
+     * @return 時段開始時間 (整點)
+     */
+    @Override
+    public List<LocalDateTime> findRollupHours() {
+        return entityManager.createQuery("SELECT DISTINCT r.bucketDate, r.bucketHour FROM SalesRollup r", Object[].class)
+                .getResultList()
+                .stream()
+                .map(row -> ((LocalDate) row[0]).atTime((Integer) row[1], 0))
+                .toList();
+    }
+
+    /**
+     * 依日期加總銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 每日銷售，依日期排序
+     */
+    @Override
+    public List<SalesBucketDTO> findDailySales(LocalDate from, LocalDate to) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.SalesBucketDTO( " +
+                "r.bucketDate, SUM(r.quantity), SUM(r.revenue), SUM(r.paidRevenue)) " +
+                "FROM SalesRollup r WHERE r.bucketDate BETWEEN :from AND :to " +
+                "GROUP BY r.bucketDate ORDER BY r.bucketDate";
+        return entityManager.createQuery(jpql, SalesBucketDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * 依日期與小時加總銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 每小時銷售，依日期與小時排序
+     */
+    @Override
+    public List<SalesBucketDTO> findHourlySales(LocalDate from, LocalDate to) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.SalesBucketDTO( " +
+                "r.bucketDate, r.bucketHour, SUM(r.quantity), SUM(r.revenue), SUM(r.paidRevenue)) " +
+                "FROM SalesRollup r WHERE r.bucketDate BETWEEN :from AND :to " +
+                "GROUP BY r.bucketDate, r.bucketHour ORDER BY r.bucketDate, r.bucketHour";
+        return entityManager.createQuery(jpql, SalesBucketDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * 依營收排序的熱銷產品，產品名稱取自目前的 Products (已刪除的產品名稱為 null)。
+     *
+     * @param from  起日 (含)
+     * @param to    迄日 (含)
+     * @param limit 最多筆數
+     * @return 產品銷售，營收由高到低
+     */
+    @Override
+    public List<ProductSalesDTO> findTopProducts(LocalDate from, LocalDate to, int limit) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.ProductSalesDTO( " +
+                "r.productsId, p.productName, SUM(r.quantity), SUM(r.revenue), SUM(r.paidRevenue)) " +
+                "FROM SalesRollup r LEFT JOIN Products p ON p.productsId = r.productsId " +
+                "WHERE r.bucketDate BETWEEN :from AND :to " +
+                "GROUP BY r.productsId, p.productName ORDER BY SUM(r.revenue) DESC, r.productsId";
+        return entityManager.createQuery(jpql, ProductSalesDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 依分類加總銷售，分類名稱取自目前的 Categories。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 分類銷售，營收由高到低
+     */
+    @Override
+    public List<CategorySalesDTO> findCategorySales(LocalDate from, LocalDate to) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.CategorySalesDTO( " +
+                "r.categoriesId, c.categoriesName, SUM(r.quantity), SUM(r.revenue), SUM(r.paidRevenue)) " +
+                "FROM SalesRollup r LEFT JOIN Categories c ON c.categoriesId = r.categoriesId " +
+                "WHERE r.bucketDate BETWEEN :from AND :to " +
+                "GROUP BY r.categoriesId, c.categoriesName ORDER BY SUM(r.revenue) DESC";
+        return entityManager.createQuery(jpql, CategorySalesDTO.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+}
@@ -1,13 +1,29 @@
 package com.back_end_project.back_end_project.RepositoryDaoImplement;
 
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_FETCH_GRAPH;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.back_end_project.back_end_project.RepositoryDTO.StaleCartLineDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
 import com.back_end_project.back_end_project.database.ShoppingCart;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,6 +35,9 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
     @PersistenceContext
     private EntityManager entityManager; // 使用 JPA 的 EntityManager 操作資料庫
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize; // JDBC 批次大小
+
     /**
      * 保存或更新購物車項目。
      * 如果購物車 ID 為 null，則執行新增操作；否則執行更新操作。
@@ -44,7 +63,8 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
      */
     @Override
     public Optional<ShoppingCart> findById(Integer shoppingCartId) {
-        ShoppingCart shoppingCart = entityManager.find(ShoppingCart.class, shoppingCartId);
+        ShoppingCart shoppingCart = entityManager.find(ShoppingCart.class, shoppingCartId,
+                Map.of(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("ShoppingCart.withProduct")));
         return Optional.ofNullable(shoppingCart);
     }
 
@@ -58,6 +78,7 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
     public List<ShoppingCart> findByCustomerId(Integer customerId) {
         String jpql = "SELECT sc FROM ShoppingCart sc WHERE sc.customer.customerId = :customerId";
         return entityManager.createQuery(jpql, ShoppingCart.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("ShoppingCart.withProduct"))
                 .setParameter("customerId", customerId)
                 .getResultList();
     }
@@ -72,6 +93,7 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
     public List<ShoppingCart> findByProductsId(Integer productsId) {
         String jpql = "SELECT sc FROM ShoppingCart sc WHERE sc.product.productsId = :productsId";
         return entityManager.createQuery(jpql, ShoppingCart.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("ShoppingCart.withProduct"))
                 .setParameter("productsId", productsId)
                 .getResultList();
     }
@@ -84,7 +106,9 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
     @Override
     public List<ShoppingCart> findAll() {
         String jpql = "SELECT sc FROM ShoppingCart sc";
-        return entityManager.createQuery(jpql, ShoppingCart.class).getResultList();
+        return entityManager.createQuery(jpql, ShoppingCart.class)
+                .setHint(HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph("ShoppingCart.withProduct"))
+                .getResultList();
     }
 
     /**
@@ -134,4 +158,240 @@ public class ShoppingCartDAOImpl implements ShoppingCartDAO {
         String jpql = "DELETE FROM ShoppingCart";
         entityManager.createQuery(jpql).executeUpdate(); // 刪除所有購物車項目
     }
+
+    /**
+     * 批次保存多筆購物車項目。
+     * 搭配 hibernate.jdbc.batch_size，每累積一批才送出一次 JDBC 批次。
+     *
+     * @param shoppingCartList 要保存的購物車項目列表
+     * @return 保存後的購物車項目列表
+     */
+    @Override
+    public List<ShoppingCart> saveAll(List<ShoppingCart> shoppingCartList) {
+        List<ShoppingCart> saved = new ArrayList<>(shoppingCartList.size());
+        for (int i = 0; i < shoppingCartList.size(); i++) {
+            saved.add(save(shoppingCartList.get(i)));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush(); // 每滿一批送出一次
+            }
+        }
+        entityManager.flush();
+        return saved;
+    }
+
+    /**
+     * 從 ShoppingCart_SEQ 預先配置主鍵。
+     * 直接呼叫實體的 Hibernate 主鍵產生器，與 persist 共用同一個 pooled optimizer，不會配出重複的主鍵。
+     *
+     * @param count 需要的主鍵數量
+     * @return 配置好的主鍵
+     */
+    @Override
+    public List<Integer> allocateIds(int count) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(ShoppingCart.class).getGenerator();
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(((Number) generator.generate(session, null, null, EventType.INSERT)).intValue());
+        }
+        return ids;
+    }
+
+    /**
+     * 以 JDBC 批次新增已配置好主鍵的購物車項目。
+     *
+     * @param shoppingCartList 要新增的購物車項目
+     */
+    @Override
+    public void insertBatch(List<ShoppingCart> shoppingCartList) {
+        String sql = "INSERT INTO ShoppingCart (shoppingCartId, customerId, productsId, quantity, dateAdded, accountPaid, notes) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ShoppingCart cart : shoppingCartList) {
+                    statement.setInt(1, cart.getShoppingCartId());
+                    statement.setInt(2, cart.getCustomer().getCustomerId());
+                    bindLine(statement, 3, cart);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * 以 JDBC 批次更新購物車項目。
+     *
+     * @param shoppingCartList 要更新的購物車項目
+     */
+    @Override
+    public void updateBatch(List<ShoppingCart> shoppingCartList) {
+        String sql = "UPDATE ShoppingCart SET productsId = ?, quantity = ?, dateAdded = ?, accountPaid = ?, notes = ? " +
+                "WHERE shoppingCartId = ?";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ShoppingCart cart : shoppingCartList) {
+                    bindLine(statement, 1, cart);
+                    statement.setInt(6, cart.getShoppingCartId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    // 依序綁定 productsId、quantity、dateAdded、accountPaid、notes
+    private static void bindLine(PreparedStatement statement, int index, ShoppingCart cart) throws SQLException {
+        statement.setInt(index, cart.getProduct().getProductsId());
+        statement.setInt(index + 1, cart.getQuantity());
+        statement.setTimestamp(index + 2, cart.getDateAdded() == null ? null : Timestamp.valueOf(cart.getDateAdded()));
+        statement.setBoolean(index + 3, Boolean.TRUE.equals(cart.getAccountPaid()));
+        statement.setString(index + 4, cart.getNotes());
+    }
+
+    /**
+     * 依主鍵批次刪除購物車項目。
+     *
+     * @param shoppingCartIds 購物車 ID 列表
+     * @return 實際刪除的筆數
+     */
+    @Override
+    public int deleteByIds(List<Integer> shoppingCartIds) {
+        String jpql = "DELETE FROM ShoppingCart sc WHERE sc.shoppingCartId IN :ids";
+        int deleted = 0;
+        for (int from = 0; from < shoppingCartIds.size(); from += batchSize) { // SQL Server 參數上限 2100，分批刪除
+            deleted += entityManager.createQuery(jpql)
+                    .setParameter("ids", shoppingCartIds.subList(from, Math.min(from + batchSize, shoppingCartIds.size())))
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * 以 (customerId, productsId) 為鍵批次 MERGE 購物車項目，每一項只需一個 MERGE 敘述。
+     * 已存在的項目累加或覆蓋數量，不存在則以預先配置的 shoppingCartId 新增。
+     * SQL Server 上加 HOLDLOCK，避免兩個請求同時判斷為「不存在」而違反唯一索引。
+     *
+     * @param shoppingCartList 購物車項目 (需有 shoppingCartId、customer 與 product 的 ID、數量)
+     * @param accumulate       true 時累加數量，false 時覆蓋數量
+     */
+    @Override
+    public void mergeQuantities(List<ShoppingCart> shoppingCartList, boolean accumulate) {
+        String sql = "MERGE INTO ShoppingCart" + SqlServerHints.holdLock(entityManager) + " AS t " +
+                "USING (SELECT CAST(? AS INT) AS shoppingCartId, CAST(? AS INT) AS customerId, CAST(? AS INT) AS productsId, " +
+                "CAST(? AS INT) AS quantity, CAST(? AS DATETIME2) AS dateAdded) AS s " +
+                "ON t.customerId = s.customerId AND t.productsId = s.productsId " +
+                "WHEN MATCHED THEN UPDATE SET quantity = " + (accumulate ? "t.quantity + s.quantity" : "s.quantity") +
+                ", dateAdded = s.dateAdded " +
+                "WHEN NOT MATCHED THEN INSERT (shoppingCartId, customerId, productsId, quantity, dateAdded, accountPaid) " +
+                "VALUES (s.shoppingCartId, s.customerId, s.productsId, s.quantity, s.dateAdded, 0);";
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (ShoppingCart cart : shoppingCartList) {
+                    statement.setInt(1, cart.getShoppingCartId());
+                    statement.setInt(2, cart.getCustomer().getCustomerId());
+                    statement.setInt(3, cart.getProduct().getProductsId());
+                    statement.setInt(4, cart.getQuantity());
+                    statement.setTimestamp(5, Timestamp.valueOf(cart.getDateAdded()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * 刪除某位客戶購物車中不在指定產品清單內的項目。
+     *
+     * @param customerId  客戶 ID
+     * @param productsIds 要保留的產品 ID
+     */
+    @Override
+    public void deleteByCustomerIdExcept(Integer customerId, Collection<Integer> productsIds) {
+        if (productsIds.isEmpty()) {
+            deleteByCustomerId(customerId);
+            return;
+        }
+        String jpql = "DELETE FROM ShoppingCart sc WHERE sc.customer.customerId = :customerId " +
+                "AND sc.product.productsId NOT IN :productsIds";
+        entityManager.createQuery(jpql)
+                .setParameter("customerId", customerId)
+                .setParameter("productsIds", productsIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 以 shoppingCartId 做 keyset 分頁，查詢逾期未付款的購物車項目 (只取 ID 與客戶 ID)。
+     *
+     * @param before  加入時間早於此時間才算逾期
+     * @param afterId 只查詢 shoppingCartId 大於此值的項目
+     * @param limit   最多筆數
+     * @return 依 shoppingCartId 排序的逾期項目
+     */
+    @Override
+    public List<StaleCartLineDTO> findStaleLines(LocalDateTime before, Integer afterId, int limit) {
+        String jpql = "SELECT new com.back_end_project.back_end_project.RepositoryDTO.StaleCartLineDTO(" +
+                "sc.shoppingCartId, sc.customer.customerId) FROM ShoppingCart sc " +
+                "WHERE sc.shoppingCartId > :afterId AND sc.accountPaid = false AND sc.dateAdded < :before " +
+                "ORDER BY sc.shoppingCartId";
+        return entityManager.createQuery(jpql, StaleCartLineDTO.class)
+                .setParameter("afterId", afterId)
+                .setParameter("before", before)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 以 INSERT ... SELECT 把一段範圍內的逾期未付款項目複製到 ShoppingCartArchive，資料不經過應用程式。
+     *
+     * @param fromId              範圍起點
+     * @param toId                範圍終點
+     * @param before              加入時間早於此時間才算逾期
+     * @param excludedCustomerIds 略過的客戶 ID
+     * @return 複製的筆數
+     */
+    @Override
+    public int archiveStaleRange(Integer fromId, Integer toId, LocalDateTime before, Collection<Integer> excludedCustomerIds) {
+        String hql = "INSERT INTO ShoppingCartArchive " +
+                "(shoppingCartId, customerId, productsId, quantity, dateAdded, notes, archivedDate) " +
+                "SELECT sc.shoppingCartId, sc.customer.customerId, sc.product.productsId, sc.quantity, sc.dateAdded, " +
+                "sc.notes, :archivedDate FROM ShoppingCart sc WHERE " + staleRangePredicate(excludedCustomerIds);
+        return bindStaleRange(entityManager.createQuery(hql), fromId, toId, before, excludedCustomerIds)
+                .setParameter("archivedDate", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    /**
+     * 刪除一段範圍內的逾期未付款項目。
+     *
+     * @param fromId              範圍起點
+     * @param toId                範圍終點
+     * @param before              加入時間早於此時間才算逾期
+     * @param excludedCustomerIds 略過的客戶 ID
+     * @return 刪除的筆數
+     */
+    @Override
+    public int deleteStaleRange(Integer fromId, Integer toId, LocalDateTime before, Collection<Integer> excludedCustomerIds) {
+        String jpql = "DELETE FROM ShoppingCart sc WHERE " + staleRangePredicate(excludedCustomerIds);
+        return bindStaleRange(entityManager.createQuery(jpql), fromId, toId, before, excludedCustomerIds)
+                .executeUpdate();
+    }
+
+    // 以主鍵範圍限定每段的列數，只有少數參數，不受 SQL Server 2100 個參數的上限影響
+    private static String staleRangePredicate(Collection<Integer> excludedCustomerIds) {
+        return "sc.shoppingCartId BETWEEN :fromId AND :toId AND sc.accountPaid = false AND sc.dateAdded < :before" +
+                (excludedCustomerIds.isEmpty() ? "" : " AND sc.customer.customerId NOT IN :excluded");
+    }
+
+    private static Query bindStaleRange(Query query, Integer fromId, Integer toId,
+            LocalDateTime before, Collection<Integer> excludedCustomerIds) {
+        query.setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("before", before);
+        if (!excludedCustomerIds.isEmpty()) {
+            query.setParameter("excluded", excludedCustomerIds);
+        }
+        return query;
+    }
 }
@@ -0,0 +1,26 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 原生 SQL 使用的 SQL Server 專用提示，其他資料庫 (例如測試用的 H2) 不支援時回傳空字串。
+ */
+final class SqlServerHints {
+
+    private SqlServerHints() {
+    }
+
+    /**
+     * MERGE 目標表的 HOLDLOCK 提示：只有 SQL Server 支援 (也需要)，避免兩個 MERGE 同時判斷為「不存在」而重複新增。
+     *
+     * @param entityManager 用來判斷目前的資料庫方言
+     * @return " WITH (HOLDLOCK)" 或空字串
+     */
+    static String holdLock(EntityManager entityManager) {
+        SessionFactoryImplementor factory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return factory.getJdbcServices().getDialect() instanceof SQLServerDialect ? " WITH (HOLDLOCK)" : "";
+    }
+}
@@ -5,7 +5,17 @@ import com.back_end_project.back_end_project.controllerComponentJWT.model.LoginR
 import com.back_end_project.back_end_project.controllerComponentJWT.model.LoginResponse;
 import com.back_end_project.back_end_project.controllerComponentJWT.service.CustomerService;
 import com.back_end_project.back_end_project.controllerComponentJWT.service.JwtTokenService;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.LoginThrottle;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,25 +30,57 @@ public class AuthController {
     @Autowired
     private JwtTokenService jwtTokenService; // JWT 生成與驗證服務
 
+    @Autowired
+    private LoginThrottle loginThrottle; // 每個 Email / IP 的登入頻率限制
+
     /**
      * 登入 API
+     * 同一個 Email 或 IP 短時間內嘗試太多次會回 429；密碼比對在專用的雜湊執行緒池上非同步執行，
+     * 雜湊佇列已滿時回 503，請求執行緒不會被 bcrypt 卡住。
      * 
      * @param loginRequest 包含帳號與密碼的登入請求
+     * @param request      用於取得來源 IP
      * @return 如果成功，返回 JWT Token；否則返回錯誤訊息
      */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest) {
-        // 驗證帳號與密碼
-        Customer customer = customerService.validateCustomer(loginRequest.getEmail(), loginRequest.getPassword());
-        if (customer == null) {
-            return ResponseEntity.badRequest().body(new LoginResponse("登入失敗，帳號或密碼錯誤！"));
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        if (!loginThrottle.tryAcquire(loginRequest.getEmail(), request.getRemoteAddr())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(new LoginResponse("登入嘗試次數過多，請稍後再試！")));
         }
 
-        // 生成 JWT Token
-        String token = jwtTokenService.generateToken(customer);
+        try {
+            // 驗證帳號與密碼
+            return customerService.validateCustomer(loginRequest.getEmail(), loginRequest.getPassword())
+                    .thenApply(customer -> {
+                        if (customer == null) {
+                            return ResponseEntity.badRequest().body(new LoginResponse("登入失敗，帳號或密碼錯誤！"));
+                        }
+
+                        // 生成 JWT Token
+                        String token = jwtTokenService.generateToken(customer);
+
+                        // 返回 Token 和客戶資訊
+                        return ResponseEntity.ok(new LoginResponse("登入成功", token, customer));
+                    })
+                    .exceptionally(e -> {
+                        // 非同步階段中被雜湊佇列拒絕，同樣回 503
+                        if (e instanceof CompletionException && e.getCause() instanceof RejectedExecutionException) {
+                            return serviceBusy();
+                        }
+                        throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
+    }
 
-        // 返回 Token 和客戶資訊
-        LoginResponse response = new LoginResponse("登入成功", token, customer);
-        return ResponseEntity.ok(response);
+    // 雜湊佇列已滿時返回 503，請前端稍後重試
+    private static ResponseEntity<LoginResponse> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new LoginResponse("系統忙碌中，請稍後再試！"));
     }
 }
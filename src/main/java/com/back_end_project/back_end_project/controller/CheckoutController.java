@@ -0,0 +1,49 @@
+package com.back_end_project.back_end_project.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutRequestDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutResultDTO;
+import com.back_end_project.back_end_project.controllerComponentCart.CartFlushException;
+import com.back_end_project.back_end_project.service.CartAlreadyCheckedOutException;
+import com.back_end_project.back_end_project.service.CheckoutService;
+import com.back_end_project.back_end_project.service.InsufficientStockException;
+
+/**
+ * CheckoutController 類，處理結帳請求。
+ * 取代前端依序呼叫訂單、訂單明細、付款與購物車 API 的流程。
+ */
+@RestController
+@RequestMapping("/api/checkout")
+@CrossOrigin(origins = "http://localhost:5173") // 指定允許的前端域名
+public class CheckoutController {
+
+    @Autowired
+    private CheckoutService checkoutService; // 注入 CheckoutService，處理結帳流程
+
+    /**
+     * 將客戶購物車轉為訂單。
+     *
+     * @param request 結帳請求
+     * @return 成功返回 201 與訂單、付款 ID；購物車為空返回 400；庫存不足或重複結帳返回 409；購物車無法寫回返回 503。
+     */
+    @PostMapping
+    public ResponseEntity<?> checkout(@RequestBody CheckoutRequestDTO request) {
+        try {
+            CheckoutResultDTO result = checkoutService.checkout(request);
+            return new ResponseEntity<>(result, HttpStatus.CREATED);
+        } catch (InsufficientStockException | CartAlreadyCheckedOutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (CartFlushException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package com.back_end_project.back_end_project.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.back_end_project.back_end_project.controllerComponentImage.ImageResponseWriter;
+import com.back_end_project.back_end_project.controllerComponentImage.StoredImage;
 import com.back_end_project.back_end_project.database.Customer;
 import com.back_end_project.back_end_project.service.CustomerService;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * CustomerController 類，用於處理與客戶相關的 HTTP 請求。
@@ -22,12 +32,15 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService; // 注入 CustomerService 處理業務邏輯
 
+    @Autowired
+    private ImageResponseWriter imageResponseWriter; // 輸出圖片 (支援 Range 與 ETag)
+
     /**
      * 根據客戶 ID 更新客戶資料。
      *
      * @param customerId 客戶 ID
      * @param customer   包含更新數據的客戶物件
-     * @return 更新後的客戶物件
+     * @return 更新後的客戶物件；密碼雜湊忙碌時返回 503
      */
     @PutMapping("/{customerId}")
     public ResponseEntity<Customer> updateCustomer(
@@ -58,21 +71,35 @@ public class CustomerController {
         existingCustomer.setUpdatedDate(LocalDateTime.now()); // 更新時間為當前時間
 
         // 保存更新後的客戶
-        Customer updatedCustomer = customerService.saveCustomer(existingCustomer);
-
-        return ResponseEntity.ok(updatedCustomer); // 返回更新後的客戶
+        try {
+            Customer updatedCustomer = customerService.saveCustomer(existingCustomer);
+            return ResponseEntity.ok(updatedCustomer); // 返回更新後的客戶
+        } catch (RejectedExecutionException | CompletionException e) {
+            return serviceBusy(); // 密碼雜湊忙碌中
+        }
     }
 
     /**
      * 保存或更新客戶資料。
      *
      * @param customer 客戶物件
-     * @return 保存或更新後的客戶物件
+     * @return 保存或更新後的客戶物件；密碼雜湊忙碌時返回 503
      */
     @PostMapping
     public ResponseEntity<Customer> saveCustomer(@RequestBody Customer customer) {
-        Customer savedCustomer = customerService.saveCustomer(customer);
-        return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
+        try {
+            Customer savedCustomer = customerService.saveCustomer(customer);
+            return new ResponseEntity<>(savedCustomer, HttpStatus.CREATED);
+        } catch (RejectedExecutionException | CompletionException e) {
+            return serviceBusy();
+        }
+    }
+
+    // 密碼雜湊佇列已滿或雜湊失敗時返回 503，與登入相同，請前端稍後重試
+    private ResponseEntity<Customer> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
     }
 
     /**
@@ -118,6 +145,25 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * 取得客戶圖片，支援 Range、ETag 與 If-None-Match。
+     *
+     * @param customerId 客戶 ID
+     * @param request  HTTP 請求
+     * @param response HTTP 回應
+     * @throws IOException 輸出失敗時
+     */
+    @GetMapping("/{customerId}/image")
+    public void getCustomerImage(@PathVariable Integer customerId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<StoredImage> image = customerService.findCustomerImage(customerId);
+        if (image.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        imageResponseWriter.write(image.get(), request, response);
+    }
+
     /**
      * 根據客戶名稱查詢客戶資料。
      *
@@ -1,80 +1,95 @@
 package com.back_end_project.back_end_project.controller;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.back_end_project.back_end_project.controllerComponentECPay.EcpayFunctions;
-import com.back_end_project.back_end_project.database.Orders;
-import com.back_end_project.back_end_project.service.OrdersService;
+import com.back_end_project.back_end_project.controllerComponentLogging.PaymentLogContext;
+import com.back_end_project.back_end_project.service.EcpayCallbackService;
 
 @Controller
 @RequestMapping("/pages/ecpay")
 @CrossOrigin(origins = "http://localhost:5173") // 指定允許的前端域名
 public class EcpayController {
 
+	private static final Logger log = LoggerFactory.getLogger(EcpayController.class);
+
 	@Autowired
 	private EcpayFunctions ecpayFunctions;
 
 	@Autowired
-	private OrdersService ordersService;
+	private EcpayCallbackService ecpayCallbackService;
+
+	@Autowired
+	private PaymentLogContext paymentLogContext;
 
 	/**
-	 * 處理 ECPay 的返回請求
-	 * 
-	 * @param body 接收到的返回請求內容
-	 * @return 空字串
+	 * 處理 ECPay 的付款結果通知 (綠界以 application/x-www-form-urlencoded 送出)。
+	 * 驗證 CheckMacValue 後寫入收件匣就立即回覆 1|OK，訂單狀態由 EcpayInboxWorker 在背景更新；
+	 * 綠界重送同一個 MerchantTradeNo 時同樣回覆 1|OK，但不會再處理一次。
+	 *
+	 * @param params 綠界送來的參數
+	 * @return 1|OK 表示已收到；0|錯誤訊息 會讓綠界稍後重送
 	 */
-	@PostMapping("/return")
-	public String ecpayReturn(@RequestBody String body) {
-		System.out.println("【ECPay Return API 被呼叫】");
-		System.out.println("接收到的時間：" + System.currentTimeMillis());
-		System.out.println("接收到的請求內容：" + body);
+	@PostMapping(value = "/return", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+	@ResponseBody
+	public ResponseEntity<String> ecpayReturn(@RequestParam Map<String, String> params) {
+		return receive(params);
+	}
 
+	/**
+	 * 以 JSON 轉送的付款結果通知，欄位與表單版本相同。
+	 *
+	 * @param body 綠界參數組成的 JSON
+	 * @return 1|OK 表示已收到
+	 */
+	@PostMapping(value = "/return", consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public ResponseEntity<String> ecpayReturnJson(@RequestBody String body) {
 		JSONObject jsonObject = new JSONObject(body);
-		String orderId = jsonObject.getString("MerchantTradeNo");
-		int rtnCode = jsonObject.getInt("RtnCode");
-		String rtnMsg = jsonObject.getString("RtnMsg");
+		Map<String, String> params = new HashMap<>();
+		for (String key : jsonObject.keySet()) {
+			params.put(key, String.valueOf(jsonObject.get(key)));
+		}
+		return receive(params);
+	}
 
-		try {
-			// 取得 "ID" 後的數字
-			int index = orderId.indexOf("ID");
-			if (index != -1) {
-				orderId = orderId.substring(index + 2); // 取得 "ID" 後的數字部分
+	private ResponseEntity<String> receive(Map<String, String> params) {
+		String merchantTradeNo = params.get("MerchantTradeNo");
+		try (MDC.MDCCloseable correlation = PaymentLogContext.correlate(merchantTradeNo)) {
+			paymentLogContext.logPayload(log, "綠界付款通知", merchantTradeNo, params);
+			if (!ecpayFunctions.verifyCallback(params)) {
+				log.warn("綠界付款通知 CheckMacValue 驗證失敗");
+				return ResponseEntity.badRequest().body("0|CheckMacValue Error");
 			}
-
-			// 轉換成 Integer
-			int orderIdInt = Integer.parseInt(orderId);
-
-			if (rtnCode == 1) {
-				System.out.println("✅ 訂單 " + orderIdInt + " 付款成功！");
-
-				// ** 使用 `ordersService` 查詢訂單 **
-				Orders order = ordersService.findOrderById(orderIdInt);
-				if (order != null) {
-					order.setPaymentStatus("Paid");
-
-					// ** 使用 `ordersService` 更新訂單 **
-					ordersService.saveOrder(order);
-					System.out.println("📝 訂單 " + orderIdInt + " 狀態已更新為已付款！");
-				} else {
-					System.out.println("⚠️ 找不到訂單 " + orderIdInt);
-				}
-			} else {
-				System.out.println("❌ 訂單 " + orderIdInt + " 付款失敗：" + rtnMsg);
-				// **刪除該筆未付款訂單**
-				ordersService.deleteOrderById(orderIdInt);
+			try {
+				boolean received = ecpayCallbackService.receive(params);
+				log.info("綠界付款通知 RtnCode={} {}", params.get("RtnCode"), received ? "已寫入收件匣" : "重複通知，略過");
+			} catch (DataIntegrityViolationException e) {
+				// 同一筆通知同時重送兩次，另一個請求已經寫入收件匣
+				log.info("綠界付款通知重複，另一個請求已寫入收件匣");
+			} catch (IllegalArgumentException e) {
+				log.warn("綠界付款通知內容不正確：{}", e.getMessage());
+				return ResponseEntity.badRequest().body("0|" + e.getMessage());
 			}
-		} catch (NumberFormatException e) {
-			System.out.println("❌ 訂單 ID 轉換失敗：" + orderId);
+			return ResponseEntity.ok("1|OK");
 		}
-
-		return "OK";
 	}
 
 	/**
@@ -87,18 +102,7 @@ public class EcpayController {
 	@ResponseBody
 	@CrossOrigin
 	public String send(@RequestBody String body) {
-		// 日誌：檢查接收到的請求 body
-		System.out.println("【ECPay Send API 被呼叫】");
-		System.out.println("接收到的時間：" + System.currentTimeMillis());
-		System.out.println("接收到的請求內容：" + body);
-
-		// 呼叫 ECPay 功能類生成支付表單
-		String form = ecpayFunctions.buildEcpayForm(body);
-
-		// 日誌：生成的表單內容
-		System.out.println("生成的支付表單內容：");
-		System.out.println(form);
-
-		return form;
+		// 呼叫 ECPay 功能類生成支付表單 (表單內容依 payment.logging.payload-sample-rate 取樣記錄)
+		return ecpayFunctions.buildEcpayForm(body);
 	}
 }
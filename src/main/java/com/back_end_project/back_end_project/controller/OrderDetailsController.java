@@ -1,14 +1,21 @@
 package com.back_end_project.back_end_project.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.back_end_project.back_end_project.controllerComponentExport.ExportWriter;
 import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.service.ExportService;
 import com.back_end_project.back_end_project.service.OrderDetailsService;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -22,6 +29,9 @@ public class OrderDetailsController {
     @Autowired
     private OrderDetailsService orderDetailsService; // 注入 OrderDetailsService，負責處理業務邏輯
 
+    @Autowired
+    private ExportService exportService; // 串流匯出
+
     /**
      * 根據訂單明細 ID 更新訂單明細資料。
      *
@@ -95,6 +105,30 @@ public class OrderDetailsController {
         return ResponseEntity.ok(orderDetailsList);
     }
 
+    /**
+     * 以串流匯出一段期間 (以訂單日期為準) 的訂單明細 (會計對帳用)，
+     * 例如 /api/order-details/export?from=2024-01-01&to=2024-01-31&format=ndjson。
+     * 逐筆從資料庫讀取並寫出，記憶體用量與筆數無關；大量資料請用這裡，不要用查詢所有訂單明細。
+     *
+     * @param from   訂單日期起 (含)
+     * @param to     訂單日期迄 (含)
+     * @param format csv (預設) 或 ndjson
+     * @return 匯出檔案；參數不正確時返回 400 與錯誤訊息。
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrderDetails(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            DataFormat exportFormat = DataFormat.of(format);
+            StreamingResponseBody body = exportService.exportOrderDetails(from, to, exportFormat);
+            return ResponseEntity.ok().headers(exportFormat.headers("order-details-" + from + "_" + to)).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ExportWriter.message(e.getMessage()));
+        }
+    }
+
     /**
      * 根據訂單 ID 查詢該訂單的所有明細。
      *
@@ -1,17 +1,31 @@
 package com.back_end_project.back_end_project.controller;
 
+import com.back_end_project.back_end_project.RepositoryDTO.KeysetPageDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSearchDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSummaryDTO;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.back_end_project.back_end_project.controllerComponentExport.ExportWriter;
 import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.service.ExportService;
 import com.back_end_project.back_end_project.service.OrdersService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * OrdersController 類，用於處理與訂單相關的 HTTP 請求。
+ *
+ * 回應中的 customer 欄位：查詢單筆訂單 (GET /api/orders/{ordersId}) 為完整的客戶資料；
+ * 訂單列表 (所有訂單、依客戶、依取消狀態) 不載入客戶，只輸出 {"customerId": N}，
+ * 需要客戶資料時請以 /api/customers/{customerId} 查詢。
  */
 @RestController
 @RequestMapping("/api/orders")
@@ -21,6 +35,9 @@ public class OrdersController {
     @Autowired
     private OrdersService ordersService; // 注入 OrdersService，負責處理業務邏輯
 
+    @Autowired
+    private ExportService exportService; // 串流匯出
+
     /**
      * 根據訂單 ID 更新訂單資料。
      *
@@ -120,7 +137,7 @@ public class OrdersController {
     /**
      * 查詢所有訂單。
      *
-     * @return 訂單列表
+     * @return 訂單列表 (customer 只有 customerId)
      */
     @GetMapping
     public ResponseEntity<List<Orders>> getAllOrders() {
@@ -128,11 +145,52 @@ public class OrdersController {
         return ResponseEntity.ok(ordersList);
     }
 
+    /**
+     * 依條件搜尋訂單，回傳訂單摘要與下一頁游標，篩選、排序與分頁都在資料庫完成。
+     * 例如 /api/orders/search?orderDateFrom=2024-01-01&paymentStatus=Paid&sort=totalAmount&direction=desc&size=50，
+     * 下一頁再加上 cursor=上一頁的 next。
+     *
+     * @param search 搜尋條件 (欄位說明見 OrderSearchDTO)
+     * @return 訂單摘要分頁結果；條件不正確時返回 400。
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchOrders(@ModelAttribute OrderSearchDTO search) {
+        try {
+            KeysetPageDTO<OrderSummaryDTO> page = ordersService.searchOrders(search);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 以串流匯出一段期間的訂單 (會計對帳用)，例如 /api/orders/export?from=2024-01-01&to=2024-01-31&format=csv。
+     * 逐筆從資料庫讀取並寫出，記憶體用量與筆數無關；大量資料請用這裡，不要用查詢所有訂單。
+     *
+     * @param from   訂單日期起 (含)
+     * @param to     訂單日期迄 (含)
+     * @param format csv (預設) 或 ndjson
+     * @return 匯出檔案；參數不正確時返回 400 與錯誤訊息。
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        try {
+            DataFormat exportFormat = DataFormat.of(format);
+            StreamingResponseBody body = exportService.exportOrders(from, to, exportFormat);
+            return ResponseEntity.ok().headers(exportFormat.headers("orders-" + from + "_" + to)).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ExportWriter.message(e.getMessage()));
+        }
+    }
+
     /**
      * 根據客戶 ID 查詢該客戶的所有訂單。
      *
      * @param customerId 客戶 ID
-     * @return 該客戶的訂單列表
+     * @return 該客戶的訂單列表 (customer 只有 customerId)
      */
     @GetMapping("/customer/{customerId}")
     public ResponseEntity<List<Orders>> getOrdersByCustomerId(@PathVariable Integer customerId) {
@@ -144,7 +202,7 @@ public class OrdersController {
      * 根據訂單是否取消的狀態查詢訂單。
      *
      * @param isCancelled 是否取消
-     * @return 符合條件的訂單列表
+     * @return 符合條件的訂單列表 (customer 只有 customerId)
      */
     @GetMapping("/status/cancelled/{isCancelled}")
     public ResponseEntity<List<Orders>> getOrdersByIsCancelled(@PathVariable Boolean isCancelled) {
@@ -5,12 +5,27 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.back_end_project.back_end_project.RepositoryDTO.KeysetPageDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSummaryDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.back_end_project.back_end_project.controllerComponentImage.ImageResponseWriter;
+import com.back_end_project.back_end_project.controllerComponentImage.StoredImage;
 import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.service.InsufficientStockException;
+import com.back_end_project.back_end_project.service.ProductImportService;
 import com.back_end_project.back_end_project.service.ProductsService;
+import com.back_end_project.back_end_project.service.StockReservationService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * ProductsController 類，處理與產品相關的 HTTP 請求。
@@ -23,6 +38,15 @@ public class ProductsController {
     @Autowired
     private ProductsService productsService; // 注入 ProductsService，處理業務邏輯
 
+    @Autowired
+    private StockReservationService stockReservationService; // 扣庫存與退回
+
+    @Autowired
+    private ImageResponseWriter imageResponseWriter; // 輸出圖片 (支援 Range 與 ETag)
+
+    @Autowired
+    private ProductImportService productImportService; // 批次匯入產品
+
     /**
      * 更新產品庫存數量
      *
@@ -35,20 +59,47 @@ public class ProductsController {
             @PathVariable Integer productsId,
             @RequestBody Integer newStock) {
 
-        // 查找產品是否存在
-        Products existingProduct = productsService.findProductById(productsId);
-        if (existingProduct == null) {
+        // 以單一 UPDATE 設定庫存，不做讀取後寫回
+        Products updatedProduct = productsService.updateStock(productsId, newStock);
+        if (updatedProduct == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        // 更新庫存數量
-        existingProduct.setQuantityInStock(newStock);
-        existingProduct.setUpdatedDate(LocalDateTime.now()); // 記錄更新時間
+        return ResponseEntity.ok(updatedProduct);
+    }
 
-        // 保存更新後的產品
-        Products updatedProduct = productsService.saveProduct(existingProduct);
+    /**
+     * 預留 (扣除) 多個產品的庫存，全部成功或全部失敗。
+     *
+     * @param lines 扣庫存明細
+     * @return 成功返回 204，庫存不足返回 409 與產品 ID
+     */
+    @PostMapping("/stock/reservations")
+    public ResponseEntity<?> reserveStock(@RequestBody List<StockLineDTO> lines) {
+        try {
+            stockReservationService.reserve(lines);
+            return ResponseEntity.noContent().build();
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-        return ResponseEntity.ok(updatedProduct);
+    /**
+     * 退回多個產品的庫存 (例如取消訂單)。
+     *
+     * @param lines 退回明細
+     * @return 返回 204 無內容
+     */
+    @PostMapping("/stock/releases")
+    public ResponseEntity<?> releaseStock(@RequestBody List<StockLineDTO> lines) {
+        try {
+            stockReservationService.release(lines);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -64,7 +115,7 @@ public class ProductsController {
             @RequestBody Products product) {
 
         // 查詢是否存在該產品
-        Products existingProduct = productsService.findProductById(productsId);
+        Products existingProduct = productsService.findProductByIdForUpdate(productsId);
         if (existingProduct == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // 如果產品不存在，返回 404
         }
@@ -102,6 +153,25 @@ public class ProductsController {
         return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
     }
 
+    /**
+     * 批次匯入產品 (CSV 或 NDJSON)，以產品編號 (sku) 比對：已存在則更新，不存在則新增。
+     * 上傳內容直接放在請求本體，例如 curl --data-binary @menu.csv -H "Content-Type: text/csv" /api/products/import。
+     * CSV 第一列為標題，欄位見 ProductImportRowDTO；必填欄位為 sku、productName、categoriesName、price。
+     *
+     * @param format csv (預設) 或 ndjson
+     * @param body   上傳內容 (UTF-8)
+     * @return 匯入結果與逐列的錯誤報告 (部分列失敗仍返回 200)；格式或 CSV 標題列不正確時返回 400。
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(@RequestParam(defaultValue = "csv") String format, InputStream body)
+            throws IOException {
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(body, DataFormat.of(format)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * 透過 POST 方法更新產品資料，支援 Base64 格式圖片
      *
@@ -115,7 +185,7 @@ public class ProductsController {
             @RequestBody Products product) {
 
         // 查詢是否存在該產品
-        Products existingProduct = productsService.findProductById(productsId);
+        Products existingProduct = productsService.findProductByIdForUpdate(productsId);
         if (existingProduct == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -161,6 +231,25 @@ public class ProductsController {
         }
     }
 
+    /**
+     * 取得產品圖片，支援 Range、ETag 與 If-None-Match。
+     *
+     * @param productsId 產品 ID
+     * @param request  HTTP 請求
+     * @param response HTTP 回應
+     * @throws IOException 輸出失敗時
+     */
+    @GetMapping("/{productsId}/image")
+    public void getProductImage(@PathVariable Integer productsId, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<StoredImage> image = productsService.findProductImage(productsId);
+        if (image.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        imageResponseWriter.write(image.get(), request, response);
+    }
+
     /**
      * 根據產品名稱查詢產品資料。
      *
@@ -188,6 +277,21 @@ public class ProductsController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * 以游標分頁查詢產品摘要 (不含圖片)。
+     * 帶有 size 參數時使用此模式，例如 /api/products?size=50&cursor=120。
+     *
+     * @param size   每頁筆數
+     * @param cursor 上一頁回傳的 next 游標，第一頁省略
+     * @return 產品摘要與下一頁游標
+     */
+    @GetMapping(params = "size")
+    public ResponseEntity<KeysetPageDTO<ProductSummaryDTO>> getProductPage(
+            @RequestParam int size,
+            @RequestParam(required = false) Integer cursor) {
+        return ResponseEntity.ok(productsService.findProductSummaries(cursor, size));
+    }
+
     /**
      * 根據分類 ID 查詢該分類下的所有產品。
      *
@@ -0,0 +1,99 @@
+package com.back_end_project.back_end_project.controller;
+
+import com.back_end_project.back_end_project.service.ReportsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+/**
+ * ReportsController 類，提供銷售報表 (每日 / 每小時營收、熱銷產品、分類銷售)。
+ * 資料來自預先彙總的 SalesRollup 表，日期參數格式為 yyyy-MM-dd，起訖日皆包含。
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "http://localhost:5173") // 指定允許的前端域名
+public class ReportsController {
+
+    @Autowired
+    private ReportsService reportsService; // 注入 ReportsService，負責處理業務邏輯
+
+    /**
+     * 查詢營收，例如 /api/reports/revenue?from=2024-01-01&to=2024-01-31&granularity=day。
+     *
+     * @param from        起日
+     * @param to          迄日
+     * @param granularity day (預設) 或 hour
+     * @return 時間區段銷售；參數不正確時返回 400。
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        try {
+            return ResponseEntity.ok(reportsService.findRevenue(from, to, granularity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 查詢熱銷產品 (依營收排序)。
+     *
+     * @param from  起日
+     * @param to    迄日
+     * @param limit 筆數，預設 10
+     * @return 產品銷售；參數不正確時返回 400。
+     */
+    @GetMapping("/best-sellers")
+    public ResponseEntity<?> getBestSellers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(reportsService.findBestSellers(from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 查詢分類銷售。
+     *
+     * @param from 起日
+     * @param to   迄日
+     * @return 分類銷售；參數不正確時返回 400。
+     */
+    @GetMapping("/category-sales")
+    public ResponseEntity<?> getCategorySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(reportsService.findCategorySales(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 在背景重算一段日期的彙總，用於上線後補建歷史資料或手動對帳。
+     *
+     * @param from 起日
+     * @param to   迄日
+     * @return 已排入背景重算時返回 202 (完成與否見日誌)；參數不正確時返回 400。
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            reportsService.rebuild(from, to);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.back_end_project.back_end_project.RepositoryDTO.CartLineDTO;
 import com.back_end_project.back_end_project.database.ShoppingCart;
 import com.back_end_project.back_end_project.service.ShoppingCartService;
 
@@ -12,6 +13,9 @@ import java.util.List;
 
 /**
  * ShoppingCartController 類，用於處理與購物車相關的 HTTP 請求。
+ *
+ * 回應中購物車項目的 customer 欄位一律只有 {"customerId": N}，不再包含完整的客戶資料
+ * (需要時請以 /api/customers/{customerId} 查詢)；product 仍為完整的產品資料 (含分類)。
  */
 @RestController
 @RequestMapping("/api/shopping-carts") // 使用複數形式，符合 RESTful 規範
@@ -26,28 +30,22 @@ public class ShoppingCartController {
      *
      * @param shoppingCartId 購物車項目 ID
      * @param shoppingCart   要更新的購物車資料
-     * @return 更新後的購物車物件，或者 404 如果項目不存在。
+     * @return 更新後的購物車物件，404 如果項目不存在，400 如果客戶或產品不存在。
      */
     @PutMapping("/{shoppingCartId}")
-    public ResponseEntity<ShoppingCart> updateShoppingCart(
+    public ResponseEntity<?> updateShoppingCart(
             @PathVariable Integer shoppingCartId,
             @RequestBody ShoppingCart shoppingCart) {
 
-        // 檢查購物車項目是否存在
-        ShoppingCart existingCart = shoppingCartService.findShoppingCartById(shoppingCartId);
-        if (existingCart == null) {
+        ShoppingCart updatedCart;
+        try {
+            updatedCart = shoppingCartService.updateShoppingCart(shoppingCartId, shoppingCart);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 客戶或產品不存在
+        }
+        if (updatedCart == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // 如果不存在，返回 404
         }
-
-        // 更新購物車項目的相關資料
-        existingCart.setCustomer(shoppingCart.getCustomer());
-        existingCart.setProduct(shoppingCart.getProduct());
-        existingCart.setQuantity(shoppingCart.getQuantity());
-        existingCart.setDateAdded(shoppingCart.getDateAdded());
-
-        // 保存更新後的購物車項目
-        ShoppingCart updatedCart = shoppingCartService.saveShoppingCart(existingCart);
-
         return ResponseEntity.ok(updatedCart); // 返回更新後的購物車物件
     }
 
@@ -66,8 +64,44 @@ public class ShoppingCartController {
         if (shoppingCart.getProduct() == null || shoppingCart.getProduct().getProductsId() == null) {
             return ResponseEntity.badRequest().body("Invalid product ID");
         }
-        ShoppingCart savedCart = shoppingCartService.saveShoppingCart(shoppingCart);
-        return new ResponseEntity<>(savedCart, HttpStatus.CREATED);
+        try {
+            ShoppingCart savedCart = shoppingCartService.saveShoppingCart(shoppingCart);
+            return new ResponseEntity<>(savedCart, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 客戶或產品不存在
+        }
+    }
+
+    /**
+     * 把多個項目合併進客戶的購物車：已有的產品累加數量，沒有的新增 (例如登入時合併訪客購物車)。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      要合併的產品與數量
+     * @return 合併後的購物車項目列表，400 如果客戶、產品或數量無效。
+     */
+    @PostMapping("/customer/{customerId}/merge")
+    public ResponseEntity<?> mergeShoppingCart(@PathVariable Integer customerId, @RequestBody List<CartLineDTO> lines) {
+        try {
+            return ResponseEntity.ok(shoppingCartService.mergeShoppingCart(customerId, lines));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 以指定的項目整批取代客戶的購物車。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      新的產品與數量 (空清單代表清空購物車)
+     * @return 取代後的購物車項目列表，400 如果客戶、產品或數量無效。
+     */
+    @PutMapping("/customer/{customerId}")
+    public ResponseEntity<?> replaceShoppingCart(@PathVariable Integer customerId, @RequestBody List<CartLineDTO> lines) {
+        try {
+            return ResponseEntity.ok(shoppingCartService.replaceShoppingCart(customerId, lines));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -0,0 +1,137 @@
+package com.back_end_project.back_end_project.controllerComponentCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.back_end_project.back_end_project.database.Products;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 產品目錄的程序內快取，位於 ProductsDAO 之前。
+ * 使用 Caffeine (W-TinyLFU 淘汰策略)，有容量上限與存活時間，命中率透過 Micrometer 輸出
+ * (cache.gets / cache.evictions，tag cache=products.byId 與 products.lists)。
+ * 清除動作會立即執行一次，並在交易提交後再執行一次，避免提交前被其他請求重新載入舊資料。
+ * 快取內的物件為多執行緒共用，呼叫端不可修改；要修改請透過 ProductsService.findProductByIdForUpdate 取得新物件。
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String ALL = "all";
+    private static final String FEATURED = "featured";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    private final Cache<Integer, Optional<Products>> byId; // 單一產品 (含查無結果)
+    private final Cache<String, List<Products>> lists; // 產品列表：all、featured、category:{id}
+
+    public ProductCatalogCache(
+            @Value("${catalog-cache.maximum-size}") long maximumSize,
+            @Value("${catalog-cache.expire-after-write}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(Math.max(16, maximumSize / 100))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "products.lists");
+    }
+
+    public Optional<Products> getById(Integer productsId, Supplier<Optional<Products>> loader) {
+        return byId.get(productsId, key -> loader.get());
+    }
+
+    public List<Products> getAll(Supplier<List<Products>> loader) {
+        return getList(ALL, loader);
+    }
+
+    public List<Products> getFeatured(Supplier<List<Products>> loader) {
+        return getList(FEATURED, loader);
+    }
+
+    public List<Products> getByCategory(Integer categoriesId, Supplier<List<Products>> loader) {
+        return getList(CATEGORY_PREFIX + categoriesId, loader);
+    }
+
+    private List<Products> getList(String key, Supplier<List<Products>> loader) {
+        return lists.get(key, k -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * 產品新增、修改或刪除後呼叫。
+     * 清除該產品本身、總表、特色商品，以及目前包含此產品或其新分類的分類列表。
+     *
+     * @param productsId   產品 ID
+     * @param categoriesId 產品目前 (修改後) 的分類 ID，刪除時可傳 null
+     */
+    public void invalidateProduct(Integer productsId, Integer categoriesId) {
+        runNowAndAfterCommit(() -> evictProduct(productsId, categoriesId));
+    }
+
+    private void evictProduct(Integer productsId, Integer categoriesId) {
+        byId.invalidate(productsId);
+        lists.invalidate(ALL);
+        lists.invalidate(FEATURED);
+        if (categoriesId != null) {
+            lists.invalidate(CATEGORY_PREFIX + categoriesId);
+        }
+        // 產品可能從舊分類移出，舊分類列表中若含有此產品也一併清除
+        lists.asMap().entrySet().removeIf(entry -> entry.getKey().startsWith(CATEGORY_PREFIX)
+                && entry.getValue().stream().anyMatch(p -> productsId.equals(p.getProductsId())));
+    }
+
+    /**
+     * 分類修改或刪除後呼叫。產品內嵌分類資料，因此清除屬於此分類的產品與相關列表。
+     *
+     * @param categoriesId 分類 ID
+     */
+    public void invalidateCategory(Integer categoriesId) {
+        runNowAndAfterCommit(() -> evictCategory(categoriesId));
+    }
+
+    private void evictCategory(Integer categoriesId) {
+        byId.asMap().values().removeIf(product -> product.isPresent()
+                && product.get().getCategory() != null
+                && categoriesId.equals(product.get().getCategory().getCategoriesId()));
+        lists.invalidate(ALL);
+        lists.invalidate(FEATURED);
+        lists.invalidate(CATEGORY_PREFIX + categoriesId);
+    }
+
+    /**
+     * 清除全部快取 (例如刪除全部產品或分類時)。
+     */
+    public void invalidateAll() {
+        runNowAndAfterCommit(() -> {
+            byId.invalidateAll();
+            lists.invalidateAll();
+        });
+    }
+
+    private static void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,889 @@
+package com.back_end_project.back_end_project.controllerComponentCart;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CartLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.CustomerDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+import com.back_end_project.back_end_project.service.ProductsService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 購物車引擎：活躍中的購物車保存在記憶體 (以 customerId 為鍵)，加入、修改、移除都只改記憶體，
+ * 變更會合併後由排程每隔 cart.flush-interval 批次寫回 ShoppingCart 表 (write-behind)。
+ *
+ * - 某位客戶的購物車第一次被存取時才從資料表載入，所以重新啟動後會自動從資料表復原。
+ * - 新項目的 shoppingCartId 先從 ShoppingCart_SEQ 預先配置 (pooled，每 50 個才存取一次序列)，
+ *   回應中立即就有 ID，原本以 shoppingCartId 操作的 API 照常可用。
+ * - 每台購物車一把鎖，不同客戶互不影響；寫回時另有一把 flushLock，同一台購物車的寫回不會交錯。
+ * - 直接操作資料表的程式 (例如結帳) 必須在自己的交易開始前呼叫 flush (寫回使用獨立交易，在交易內呼叫會同時佔用兩條連線)，
+ *   並在交易提交後 (TransactionSynchronization.afterCommit) 才呼叫 evict 或 forgetLines。
+ * - 寫回違反資料表限制 (例如產品已被刪除) 時丟棄該購物車的變更；其他失敗 (例如連線中斷) 保留變更，下次寫回重試。
+ * - 閒置超過 cart.idle-timeout 且已寫回的購物車會從記憶體移除。
+ *
+ * 指標：cart.engine.active (記憶體中的購物車數)、cart.engine.flushed (寫回的項目數)、
+ * cart.engine.flush.failures (寫回失敗次數)。
+ */
+@Component
+public class CartEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CartEngine.class);
+
+    private static final int ID_BLOCK_SIZE = 50; // 與 ShoppingCart_SEQ 的 allocationSize 一致
+
+    private final ShoppingCartDAO shoppingCartDAO;
+    private final CustomerDAO customerDAO;
+    private final ProductsService productsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration idleTimeout;
+
+    private final ConcurrentHashMap<Integer, Cart> carts = new ConcurrentHashMap<>(); // customerId → 購物車
+    private final ConcurrentHashMap<Integer, Integer> owners = new ConcurrentHashMap<>(); // shoppingCartId → customerId
+    private final ArrayDeque<Integer> idPool = new ArrayDeque<>(); // 預先配置好的主鍵
+    private final ReentrantLock idPoolLock = new ReentrantLock();
+
+    private final Counter flushed;
+    private final Counter flushFailures;
+
+    public CartEngine(
+            ShoppingCartDAO shoppingCartDAO,
+            CustomerDAO customerDAO,
+            ProductsService productsService,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.idle-timeout}") Duration idleTimeout,
+            MeterRegistry meterRegistry) {
+        this.shoppingCartDAO = shoppingCartDAO;
+        this.customerDAO = customerDAO;
+        this.productsService = productsService;
+        // 寫回一律使用獨立交易：即使呼叫端 (例如結帳) 之後回滾，已寫回的購物車仍與記憶體一致
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleTimeout = idleTimeout;
+        Gauge.builder("cart.engine.active", carts, Map::size)
+                .description("記憶體中的購物車數")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("cart.engine.flushed")
+                .description("寫回資料表的購物車項目數 (新增、修改與刪除)")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("cart.engine.flush.failures")
+                .description("購物車寫回失敗次數")
+                .register(meterRegistry);
+    }
+
+    // ===== 查詢 =====
+
+    /**
+     * 查詢某位客戶的購物車。
+     *
+     * @param customerId 客戶 ID
+     * @return 購物車項目 (依加入順序)
+     */
+    public List<ShoppingCart> getCart(Integer customerId) {
+        return withCart(customerId, cart -> {
+            List<ShoppingCart> result = new ArrayList<>(cart.lines.size());
+            for (Line line : cart.lines.values()) {
+                result.add(toShoppingCart(customerId, line));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 依 shoppingCartId 查詢購物車項目。
+     *
+     * @param shoppingCartId 購物車 ID
+     * @return 購物車項目，若不存在則為 Optional.empty()
+     */
+    public Optional<ShoppingCart> findLine(Integer shoppingCartId) {
+        Integer customerId = ownerOf(shoppingCartId);
+        if (customerId == null) {
+            return Optional.empty();
+        }
+        return withCart(customerId, cart -> {
+            Line line = cart.lines.get(shoppingCartId);
+            return line == null ? Optional.<ShoppingCart>empty() : Optional.of(toShoppingCart(customerId, line));
+        });
+    }
+
+    // ===== 修改 =====
+
+    /**
+     * 新增或更新購物車項目。
+     * 帶有 shoppingCartId 時更新該項目；否則若購物車中已有同一產品，改為設定該項目的數量，沒有才新增。
+     *
+     * @param item 購物車項目 (customer 與 product 只需要 ID)
+     * @return 新增或更新後的購物車項目
+     * @throws IllegalArgumentException 客戶或產品不存在時
+     */
+    public ShoppingCart save(ShoppingCart item) {
+        Integer customerId = item.getCustomer().getCustomerId();
+        Integer productsId = item.getProduct().getProductsId();
+        if (item.getShoppingCartId() != null && ownerOf(item.getShoppingCartId()) != null) {
+            ShoppingCart updated = update(item.getShoppingCartId(), item);
+            if (updated != null) {
+                return updated;
+            }
+        }
+        requireProduct(productsId);
+        Integer newId = nextId(); // 在鎖外配置，避免持有購物車鎖時存取資料庫
+        ShoppingCart saved = withCart(customerId, cart -> {
+            if (!cart.customerExists) {
+                throw new IllegalArgumentException("Invalid customer ID");
+            }
+            Line line = findByProduct(cart, productsId);
+            if (line == null) {
+                line = new Line(newId, productsId);
+                line.dateAdded = item.getDateAdded() != null ? item.getDateAdded() : LocalDateTime.now();
+                cart.lines.put(newId, line);
+                owners.put(newId, customerId);
+            } else if (item.getDateAdded() != null) {
+                line.dateAdded = item.getDateAdded();
+            }
+            line.quantity = item.getQuantity() != null ? item.getQuantity() : 1;
+            line.accountPaid = item.getAccountPaid();
+            line.notes = item.getNotes();
+            cart.dirty.add(line.shoppingCartId);
+            return toShoppingCart(customerId, line);
+        });
+        if (!newId.equals(saved.getShoppingCartId())) {
+            releaseId(newId);
+        }
+        return saved;
+    }
+
+    /**
+     * 更新指定的購物車項目。
+     * 若換了客戶，會從原客戶的購物車移除，再加入新客戶的購物車。
+     *
+     * @param shoppingCartId 購物車 ID
+     * @param changes        新的內容 (customer 與 product 只需要 ID)
+     * @return 更新後的購物車項目，若項目不存在則為 null
+     * @throws IllegalArgumentException 客戶或產品不存在時
+     */
+    public ShoppingCart update(Integer shoppingCartId, ShoppingCart changes) {
+        Integer customerId = ownerOf(shoppingCartId);
+        if (customerId == null) {
+            return null;
+        }
+        Integer newCustomerId = changes.getCustomer() != null && changes.getCustomer().getCustomerId() != null
+                ? changes.getCustomer().getCustomerId() : customerId;
+        Integer productsId = changes.getProduct() != null ? changes.getProduct().getProductsId() : null;
+        if (productsId != null) {
+            requireProduct(productsId);
+        }
+        if (!newCustomerId.equals(customerId)) {
+            ShoppingCart existing = findLine(shoppingCartId).orElse(null);
+            if (existing == null || !removeLine(shoppingCartId)) {
+                return null;
+            }
+            ShoppingCart moved = new ShoppingCart();
+            moved.setCustomer(changes.getCustomer());
+            moved.setProduct(productsId != null ? changes.getProduct() : existing.getProduct());
+            moved.setQuantity(changes.getQuantity());
+            moved.setDateAdded(changes.getDateAdded());
+            moved.setAccountPaid(changes.getAccountPaid());
+            moved.setNotes(changes.getNotes());
+            return save(moved);
+        }
+        return withCart(customerId, cart -> {
+            Line line = cart.lines.get(shoppingCartId);
+            if (line == null) {
+                return null;
+            }
+            if (productsId != null && !productsId.equals(line.productsId)) {
+                if (findByProduct(cart, productsId) != null) {
+                    throw new IllegalArgumentException("Product already in cart");
+                }
+                line.productsId = productsId;
+            }
+            if (changes.getQuantity() != null) {
+                line.quantity = changes.getQuantity();
+            }
+            if (changes.getDateAdded() != null) {
+                line.dateAdded = changes.getDateAdded();
+            }
+            if (changes.getAccountPaid() != null) {
+                line.accountPaid = changes.getAccountPaid();
+            }
+            line.notes = changes.getNotes() != null ? changes.getNotes() : line.notes;
+            cart.dirty.add(shoppingCartId);
+            return toShoppingCart(customerId, line);
+        });
+    }
+
+    /**
+     * 移除購物車項目。
+     *
+     * @param shoppingCartId 購物車 ID
+     * @return 若項目存在並已移除則為 true
+     */
+    public boolean removeLine(Integer shoppingCartId) {
+        Integer customerId = ownerOf(shoppingCartId);
+        if (customerId == null) {
+            return false;
+        }
+        return withCart(customerId, cart -> {
+            Line line = cart.lines.remove(shoppingCartId);
+            if (line == null) {
+                return false;
+            }
+            owners.remove(shoppingCartId);
+            cart.dirty.remove(shoppingCartId);
+            if (line.persisted) {
+                cart.deleted.add(shoppingCartId);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * 清空某位客戶的購物車。
+     *
+     * @param customerId 客戶 ID
+     */
+    public void clear(Integer customerId) {
+        withCart(customerId, cart -> {
+            for (Line line : cart.lines.values()) {
+                owners.remove(line.shoppingCartId);
+                if (line.persisted) {
+                    cart.deleted.add(line.shoppingCartId);
+                }
+            }
+            cart.lines.clear();
+            cart.dirty.clear();
+            return null;
+        });
+    }
+
+    // ===== 直接寫入資料表的整批操作 =====
+
+    /**
+     * 把多個項目合併進某位客戶的購物車：已有的產品累加數量，沒有的新增。
+     * 每個項目在資料表上只是一個 MERGE 敘述 (整批以 JDBC 批次送出)，適合例如登入時合併訪客購物車。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      要合併的產品與數量 (同一產品出現多次時數量相加)
+     * @return 合併後的購物車
+     * @throws IllegalArgumentException 客戶或產品不存在、數量不是正數時
+     */
+    public List<ShoppingCart> merge(Integer customerId, List<CartLineDTO> lines) {
+        return writeThrough(customerId, lines, true);
+    }
+
+    /**
+     * 以指定的項目整批取代某位客戶的購物車：不在清單中的項目刪除，其餘以批次 MERGE 設定數量。
+     * 記憶體中尚未寫回的變更會被這次取代覆蓋。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      新的產品與數量 (同一產品出現多次時數量相加)
+     * @return 取代後的購物車
+     * @throws IllegalArgumentException 客戶或產品不存在、數量不是正數時
+     */
+    public List<ShoppingCart> replace(Integer customerId, List<CartLineDTO> lines) {
+        return writeThrough(customerId, lines, false);
+    }
+
+    private List<ShoppingCart> writeThrough(Integer customerId, List<CartLineDTO> lines, boolean accumulate) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (CartLineDTO line : lines) {
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity");
+            }
+            requireProduct(line.getProductsId());
+            quantities.merge(line.getProductsId(), line.getQuantity(), Integer::sum);
+        }
+        List<ShoppingCart> rows = new ArrayList<>(quantities.size());
+        LocalDateTime now = LocalDateTime.now();
+        quantities.forEach((productsId, quantity) -> {
+            Line line = new Line(nextId(), productsId); // 只有新增時會用到，合併到既有項目時就是序列的空號
+            line.quantity = quantity;
+            line.dateAdded = now;
+            rows.add(toRow(customerId, line));
+        });
+
+        while (true) {
+            Cart cart = cartOf(customerId);
+            cart.flushLock.lock(); // 與排程寫回相同的鎖順序：先 flushLock 再 lock
+            try {
+                cart.lock.lock();
+                try {
+                    if (cart.evicted) {
+                        continue;
+                    }
+                    if (!cart.customerExists) {
+                        throw new IllegalArgumentException("Invalid customer ID");
+                    }
+                    Pending pending = cart.drain();
+                    try {
+                        if (pending != null && accumulate) {
+                            write(List.of(pending)); // 合併前先寫回，累加的基準才正確
+                        }
+                        transactionTemplate.executeWithoutResult(status -> {
+                            if (!accumulate) {
+                                shoppingCartDAO.deleteByCustomerIdExcept(customerId, quantities.keySet());
+                            }
+                            if (!rows.isEmpty()) {
+                                shoppingCartDAO.mergeQuantities(rows, accumulate);
+                            }
+                        });
+                    } finally {
+                        detach(cart); // 資料表已是最新狀態，下次存取重新載入
+                    }
+                } finally {
+                    cart.lock.unlock();
+                }
+            } finally {
+                cart.flushLock.unlock();
+            }
+            return getCart(customerId);
+        }
+    }
+
+    // ===== 寫回與快取管理 =====
+
+    /**
+     * 立即把某位客戶尚未寫回的變更寫入資料表 (結帳等需要讀取資料表的流程先呼叫)。
+     *
+     * @param customerId 客戶 ID
+     * @throws CartFlushException 寫回失敗時，資料表中的購物車不是最新狀態，呼叫端不應繼續
+     */
+    public void flush(Integer customerId) {
+        Cart cart = carts.get(customerId);
+        if (cart != null) {
+            throwIfFailed(flush(List.of(cart), true));
+        }
+    }
+
+    /**
+     * 把所有購物車尚未寫回的變更批次寫入資料表。
+     *
+     * @throws CartFlushException 任一台購物車寫回失敗時 (其餘購物車仍會寫回)
+     */
+    public void flushAll() {
+        throwIfFailed(flush(new ArrayList<>(carts.values()), true));
+    }
+
+    private static void throwIfFailed(Map<Integer, RuntimeException> failures) {
+        if (!failures.isEmpty()) {
+            Map.Entry<Integer, RuntimeException> first = failures.entrySet().iterator().next();
+            throw new CartFlushException(first.getKey(), first.getValue());
+        }
+    }
+
+    /**
+     * 丟棄某位客戶在記憶體中的購物車 (不寫回)，下次存取時重新從資料表載入。
+     * 用於資料表已被直接修改之後，例如整批刪除購物車；呼叫端應在修改資料表的交易提交後才呼叫。
+     * 會等待進行中的寫回完成，寫回不會在丟棄之後才把舊資料寫進資料表。
+     *
+     * @param customerId 客戶 ID
+     */
+    public void evict(Integer customerId) {
+        Cart cart = carts.get(customerId);
+        if (cart == null) {
+            return;
+        }
+        cart.flushLock.lock(); // 與寫回相同的鎖順序：先 flushLock 再 lock
+        try {
+            cart.lock.lock();
+            try {
+                detach(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        } finally {
+            cart.flushLock.unlock();
+        }
+    }
+
+    /**
+     * 從記憶體中的購物車移除已被直接刪除的項目 (例如已結帳的項目)，其餘項目與尚未寫回的變更保留。
+     * 呼叫端應在刪除的交易提交後才呼叫；購物車不在記憶體中時不做任何事。
+     *
+     * @param customerId      客戶 ID
+     * @param shoppingCartIds 已從資料表刪除的購物車 ID
+     */
+    public void forgetLines(Integer customerId, Collection<Integer> shoppingCartIds) {
+        Cart cart = carts.get(customerId);
+        if (cart == null) {
+            return;
+        }
+        cart.flushLock.lock(); // 與寫回相同的鎖順序：先 flushLock 再 lock
+        try {
+            cart.lock.lock();
+            try {
+                for (Integer id : shoppingCartIds) {
+                    if (cart.lines.remove(id) != null) {
+                        owners.remove(id);
+                    }
+                    cart.dirty.remove(id);
+                    cart.deleted.remove(id);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        } finally {
+            cart.flushLock.unlock();
+        }
+    }
+
+    /**
+     * 某位客戶的購物車目前是否在記憶體中。
+     *
+     * @param customerId 客戶 ID
+     * @return 在記憶體中則為 true
+     */
+    public boolean isActive(Integer customerId) {
+        return carts.containsKey(customerId);
+    }
+
+    /**
+     * 寫回某位客戶尚未寫回的變更後移出記憶體，下次存取時以資料表為準。
+     * 用於資料表被其他程式 (例如購物車清理排程) 修改之後。
+     *
+     * @param customerId 客戶 ID
+     */
+    public void refresh(Integer customerId) {
+        Cart cart = carts.get(customerId);
+        if (cart == null) {
+            return;
+        }
+        cart.flushLock.lock();
+        try {
+            cart.lock.lock(); // 寫回與移出之間不讓其他請求修改，避免遺失變更
+            try {
+                Pending pending = cart.drain();
+                try {
+                    if (pending != null) {
+                        write(List.of(pending));
+                    }
+                } finally {
+                    detach(cart);
+                }
+            } finally {
+                cart.lock.unlock();
+            }
+        } finally {
+            cart.flushLock.unlock();
+        }
+    }
+
+    /**
+     * 丟棄所有記憶體中的購物車 (不寫回)，逐台等待進行中的寫回完成。
+     */
+    public void evictAll() {
+        for (Integer customerId : new ArrayList<>(carts.keySet())) {
+            evict(customerId);
+        }
+    }
+
+    /**
+     * 定期寫回，並把閒置且沒有待寫回變更的購物車移出記憶體。
+     */
+    @Scheduled(fixedDelayString = "${cart.flush-interval}")
+    public void scheduledFlush() {
+        List<Cart> snapshot = new ArrayList<>(carts.values());
+        flush(snapshot, false);
+
+        long idleBefore = System.nanoTime() - idleTimeout.toNanos();
+        for (Cart cart : snapshot) {
+            // 正在寫回的購物車不移出：寫回失敗時變更會放回購物車重試
+            if (cart.lastAccess - idleBefore < 0 && cart.flushLock.tryLock()) {
+                try {
+                    if (cart.lock.tryLock()) {
+                        try {
+                            if (!cart.evicted && cart.dirty.isEmpty() && cart.deleted.isEmpty()) {
+                                detach(cart);
+                            }
+                        } finally {
+                            cart.lock.unlock();
+                        }
+                    }
+                } finally {
+                    cart.flushLock.unlock();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll(); // 關機前寫回所有變更
+    }
+
+    /**
+     * 寫回一組購物車：所有購物車的變更在同一個交易中以 JDBC 批次送出；
+     * 若整批失敗，改為逐台寫回，找出有問題的購物車，避免一台購物車卡住所有人。
+     *
+     * @param candidates 要寫回的購物車
+     * @param wait       true 時等待其他正在寫回的執行緒；false 時略過正在寫回的購物車
+     * @return 寫回失敗的購物車 (customerId → 失敗原因)
+     */
+    private Map<Integer, RuntimeException> flush(List<Cart> candidates, boolean wait) {
+        Map<Integer, RuntimeException> failures = new LinkedHashMap<>();
+        List<Cart> locked = new ArrayList<>();
+        try {
+            List<Pending> batch = new ArrayList<>();
+            for (Cart cart : candidates) {
+                if (wait) {
+                    cart.flushLock.lock();
+                } else if (!cart.flushLock.tryLock()) {
+                    continue;
+                }
+                locked.add(cart);
+                Pending pending = cart.drain();
+                if (pending != null) {
+                    batch.add(pending);
+                }
+            }
+            if (batch.isEmpty()) {
+                return failures;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    failed(batch.get(0), e);
+                    failures.put(batch.get(0).cart.customerId, e);
+                    return failures;
+                }
+                log.warn("購物車批次寫回失敗，改為逐台寫回", e);
+                for (Pending pending : batch) {
+                    try {
+                        write(List.of(pending));
+                    } catch (RuntimeException single) {
+                        failed(pending, single);
+                        failures.put(pending.cart.customerId, single);
+                    }
+                }
+            }
+            return failures;
+        } finally {
+            locked.forEach(cart -> cart.flushLock.unlock());
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<ShoppingCart> inserts = new ArrayList<>();
+        List<ShoppingCart> updates = new ArrayList<>();
+        List<Integer> deletes = new ArrayList<>();
+        for (Pending pending : batch) {
+            inserts.addAll(pending.inserts);
+            updates.addAll(pending.updates);
+            deletes.addAll(pending.deletes);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // 依刪除、更新、新增的順序，避免暫時違反 (customerId, productsId) 唯一索引
+            if (!deletes.isEmpty()) {
+                shoppingCartDAO.deleteByIds(deletes);
+            }
+            if (!updates.isEmpty()) {
+                shoppingCartDAO.updateBatch(updates);
+            }
+            if (!inserts.isEmpty()) {
+                shoppingCartDAO.insertBatch(inserts);
+            }
+        });
+        flushed.increment(inserts.size() + updates.size() + deletes.size());
+    }
+
+    /**
+     * 寫回失敗的購物車 (呼叫端需持有 flushLock)：
+     * 違反資料表限制 (例如產品已被刪除) 時重試也不會成功，丟棄記憶體中的版本，下次存取時以資料表為準；
+     * 其他失敗 (例如連線中斷、死結) 把變更放回待寫回清單，下次寫回重試。
+     */
+    private void failed(Pending pending, RuntimeException e) {
+        flushFailures.increment();
+        Cart cart = pending.cart;
+        cart.lock.lock();
+        try {
+            if (isConstraintViolation(e)) {
+                log.error("購物車 (customerId={}) 寫回失敗，已丟棄尚未寫回的變更", cart.customerId, e);
+                detach(cart);
+                return;
+            }
+            log.warn("購物車 (customerId={}) 寫回失敗，保留變更待下次寫回", cart.customerId, e);
+            if (cart.evicted) {
+                return;
+            }
+            for (ShoppingCart row : pending.inserts) {
+                Line line = cart.lines.get(row.getShoppingCartId());
+                if (line != null) {
+                    line.persisted = false; // drain 時已先標記為已寫入，改回來下次才會以 INSERT 寫回
+                    cart.dirty.add(line.shoppingCartId);
+                } else {
+                    cart.deleted.remove(row.getShoppingCartId()); // 寫回期間已被移除，資料表中本來就沒有這一列
+                }
+            }
+            for (ShoppingCart row : pending.updates) {
+                if (cart.lines.containsKey(row.getShoppingCartId())) {
+                    cart.dirty.add(row.getShoppingCartId());
+                }
+            }
+            cart.deleted.addAll(pending.deletes);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException
+                    || cause instanceof ConstraintViolationException
+                    || cause instanceof SQLIntegrityConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===== 內部工具 =====
+
+    /**
+     * 在購物車鎖內執行 action；購物車不在記憶體時先從資料表載入。
+     * 若取得的購物車剛好被移出記憶體，重新載入後再試一次。
+     */
+    private <T> T withCart(Integer customerId, Function<Cart, T> action) {
+        while (true) {
+            Cart cart = cartOf(customerId);
+            cart.lock.lock();
+            try {
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.nanoTime();
+                return action.apply(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    private Cart cartOf(Integer customerId) {
+        Cart cart = carts.get(customerId);
+        if (cart == null) {
+            Cart loaded = load(customerId);
+            cart = carts.putIfAbsent(customerId, loaded);
+            if (cart == null) {
+                cart = loaded;
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * 把購物車移出記憶體 (呼叫端需持有 lock)，之後的存取會重新從資料表載入。
+     */
+    private void detach(Cart cart) {
+        cart.evicted = true;
+        carts.remove(cart.customerId, cart);
+        cart.lines.keySet().forEach(owners::remove);
+    }
+
+    private Cart load(Integer customerId) {
+        Cart cart = new Cart(customerId);
+        cart.customerExists = customerDAO.findById(customerId).isPresent();
+        for (ShoppingCart row : shoppingCartDAO.findByCustomerId(customerId)) {
+            Line line = new Line(row.getShoppingCartId(), row.getProduct().getProductsId());
+            line.quantity = row.getQuantity();
+            line.dateAdded = row.getDateAdded();
+            line.accountPaid = row.getAccountPaid();
+            line.notes = row.getNotes();
+            line.persisted = true;
+            cart.lines.put(line.shoppingCartId, line);
+            owners.put(line.shoppingCartId, customerId);
+        }
+        return cart;
+    }
+
+    private Integer ownerOf(Integer shoppingCartId) {
+        Integer customerId = owners.get(shoppingCartId);
+        if (customerId == null) {
+            // 不在記憶體中的項目：查資料表找出擁有者，接著整台購物車會被載入
+            customerId = shoppingCartDAO.findById(shoppingCartId)
+                    .map(row -> row.getCustomer().getCustomerId())
+                    .orElse(null);
+        }
+        return customerId;
+    }
+
+    private static Line findByProduct(Cart cart, Integer productsId) {
+        for (Line line : cart.lines.values()) {
+            if (line.productsId.equals(productsId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private void requireProduct(Integer productsId) {
+        if (productsId == null || productsService.findProductById(productsId) == null) {
+            throw new IllegalArgumentException("Invalid product ID");
+        }
+    }
+
+    private Integer nextId() {
+        idPoolLock.lock();
+        try {
+            if (idPool.isEmpty()) {
+                idPool.addAll(transactionTemplate.execute(status -> shoppingCartDAO.allocateIds(ID_BLOCK_SIZE)));
+            }
+            return idPool.poll();
+        } finally {
+            idPoolLock.unlock();
+        }
+    }
+
+    private void releaseId(Integer id) {
+        idPoolLock.lock();
+        try {
+            idPool.push(id);
+        } finally {
+            idPoolLock.unlock();
+        }
+    }
+
+    private ShoppingCart toShoppingCart(Integer customerId, Line line) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        Products product = productsService.findProductById(line.productsId); // 來自產品目錄快取
+
+        ShoppingCart result = new ShoppingCart();
+        result.setShoppingCartId(line.shoppingCartId);
+        result.setCustomer(customer);
+        result.setProduct(product);
+        result.setQuantity(line.quantity);
+        result.setDateAdded(line.dateAdded);
+        result.setAccountPaid(line.accountPaid);
+        result.setNotes(line.notes);
+        return result;
+    }
+
+    // 寫回資料表用的列：customer 與 product 只帶 ID
+    private static ShoppingCart toRow(Integer customerId, Line line) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        Products product = new Products();
+        product.setProductsId(line.productsId);
+
+        ShoppingCart row = new ShoppingCart();
+        row.setShoppingCartId(line.shoppingCartId);
+        row.setCustomer(customer);
+        row.setProduct(product);
+        row.setQuantity(line.quantity);
+        row.setDateAdded(line.dateAdded);
+        row.setAccountPaid(line.accountPaid);
+        row.setNotes(line.notes);
+        return row;
+    }
+
+    /**
+     * 記憶體中的一台購物車。lines / dirty / deleted 只能在 lock 內存取。
+     */
+    private final class Cart {
+        private final Integer customerId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private final Map<Integer, Line> lines = new LinkedHashMap<>(); // shoppingCartId → 項目
+        private final Set<Integer> dirty = new HashSet<>(); // 需要新增或更新的項目
+        private final Set<Integer> deleted = new HashSet<>(); // 需要從資料表刪除的項目
+        private boolean customerExists;
+        private boolean evicted;
+        private volatile long lastAccess = System.nanoTime();
+
+        Cart(Integer customerId) {
+            this.customerId = customerId;
+        }
+
+        /**
+         * 取出目前所有待寫回的變更並清空待寫回清單 (呼叫端需持有 flushLock)。
+         * 要新增的項目會先標記為已寫入，寫回期間若再被修改，下次會以 UPDATE 寫回而不是重複 INSERT。
+         */
+        Pending drain() {
+            lock.lock();
+            try {
+                if (evicted || (dirty.isEmpty() && deleted.isEmpty())) {
+                    return null;
+                }
+                Pending pending = new Pending(this);
+                for (Integer id : dirty) {
+                    Line line = lines.get(id);
+                    if (line == null) {
+                        continue;
+                    }
+                    (line.persisted ? pending.updates : pending.inserts).add(toRow(customerId, line));
+                    line.persisted = true;
+                }
+                pending.deletes.addAll(deleted);
+                dirty.clear();
+                deleted.clear();
+                return pending;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 購物車中的一個項目。
+     */
+    private static final class Line {
+        private final Integer shoppingCartId;
+        private Integer productsId;
+        private int quantity = 1;
+        private LocalDateTime dateAdded;
+        private Boolean accountPaid = false;
+        private String notes;
+        private boolean persisted; // 資料表中是否已有這一列
+
+        Line(Integer shoppingCartId, Integer productsId) {
+            this.shoppingCartId = shoppingCartId;
+            this.productsId = productsId;
+        }
+    }
+
+    /**
+     * 一台購物車一次寫回的內容。
+     */
+    private static final class Pending {
+        private final Cart cart;
+        private final List<ShoppingCart> inserts = new ArrayList<>();
+        private final List<ShoppingCart> updates = new ArrayList<>();
+        private final List<Integer> deletes = new ArrayList<>();
+
+        Pending(Cart cart) {
+            this.cart = cart;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.back_end_project.back_end_project.controllerComponentCart;
+
+/**
+ * 購物車寫回資料表失敗所拋出的例外：資料表中的購物車不是記憶體中的最新狀態，讀取資料表的流程 (例如結帳) 不應繼續。
+ */
+public class CartFlushException extends RuntimeException {
+
+    public CartFlushException(Integer customerId, Throwable cause) {
+        super("客戶 " + customerId + " 的購物車寫回失敗，請稍後再試", cause);
+    }
+}
@@ -0,0 +1,190 @@
+package com.back_end_project.back_end_project.controllerComponentECPay;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 綠界 CheckMacValue 簽章元件。
+ *
+ * 規則與綠界文件相同：參數名稱不分大小寫排序，組成
+ * {@code HashKey=...&k1=v1&...&HashIV=...}，做 URL 編碼 (.NET 風格，
+ * 保留 {@code - _ . ! * ( )})、轉小寫後取 SHA-256，輸出大寫十六進位。
+ *
+ * 與舊版字串串接 + replaceAll 的寫法不同，這裡一次掃過所有字元，
+ * 直接把編碼後的位元組寫進每個執行緒共用的緩衝區再餵給 MessageDigest，
+ * 不產生中間字串。
+ */
+@Component
+public class CheckMacValueSigner {
+
+    public static final String CHECK_MAC_VALUE = "CheckMacValue";
+
+    private static final byte[] HEX_LOWER = "0123456789abcdef".getBytes();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final byte[] HASH_KEY_PREFIX = "hashkey%3d".getBytes();
+    private static final byte[] HASH_IV_PREFIX = "%26hashiv%3d".getBytes();
+    private static final byte[] AMPERSAND = "%26".getBytes();
+    private static final byte[] EQUALS = "%3d".getBytes();
+
+    // 每個執行緒各自持有 MessageDigest 與編碼緩衝區，避免每次簽章都重新建立
+    private static final ThreadLocal<SignerState> STATE = ThreadLocal.withInitial(SignerState::new);
+
+    /**
+     * 產生 CheckMacValue。
+     * 若傳入的是以 {@link String#CASE_INSENSITIVE_ORDER} 排序的 SortedMap，直接沿用其順序，不再另外排序。
+     *
+     * @param params  要簽章的參數 (若含 CheckMacValue 會被略過)
+     * @param hashKey 特店 HashKey
+     * @param hashIV  特店 HashIV
+     * @return 64 個字元的大寫十六進位 SHA-256
+     */
+    public String sign(Map<String, String> params, String hashKey, String hashIV) {
+        SignerState state = STATE.get();
+        state.reset();
+        state.append(HASH_KEY_PREFIX);
+        state.encode(hashKey);
+
+        for (String key : orderedKeys(params)) {
+            if (CHECK_MAC_VALUE.equals(key)) {
+                continue;
+            }
+            state.append(AMPERSAND);
+            state.encode(key);
+            state.append(EQUALS);
+            state.encode(params.get(key));
+        }
+
+        state.append(HASH_IV_PREFIX);
+        state.encode(hashIV);
+        return state.digestHex();
+    }
+
+    /**
+     * 比對綠界回傳的 CheckMacValue 是否正確 (不分大小寫，固定時間比較)。
+     */
+    public boolean verify(Map<String, String> params, String hashKey, String hashIV) {
+        String received = params.get(CHECK_MAC_VALUE);
+        if (received == null) {
+            return false;
+        }
+        String expected = sign(params, hashKey, hashIV);
+        return MessageDigest.isEqual(expected.getBytes(), received.toUpperCase().getBytes());
+    }
+
+    private static Iterable<String> orderedKeys(Map<String, String> params) {
+        if (params instanceof SortedMap<String, String> sorted && isCaseInsensitive(sorted.comparator())) {
+            return sorted.keySet();
+        }
+        String[] keys = params.keySet().toArray(new String[0]);
+        Arrays.sort(keys, String.CASE_INSENSITIVE_ORDER);
+        return Arrays.asList(keys);
+    }
+
+    private static boolean isCaseInsensitive(Comparator<? super String> comparator) {
+        return comparator == String.CASE_INSENSITIVE_ORDER;
+    }
+
+    /**
+     * 單一執行緒的簽章狀態：可重複使用的位元組緩衝區與 SHA-256 摘要器。
+     */
+    private static final class SignerState {
+
+        private final MessageDigest digest;
+        private final char[] hex = new char[64];
+        private byte[] buffer = new byte[512];
+        private int length;
+
+        SignerState() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("JVM 不支援 SHA-256", e);
+            }
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        void append(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        /**
+         * 等同 URLEncoder.encode(value, UTF-8).toLowerCase() 再把 %21 %28 %29 還原成 ! ( )。
+         */
+        void encode(String value) {
+            if (value == null) {
+                value = "null"; // 與舊版字串串接的結果一致
+            }
+            // 每個字元最多輸出 4 個 UTF-8 位元組，每個位元組最多 3 個字元
+            ensureCapacity(value.length() * 12);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    encodeAscii(c);
+                } else if (c < 0x800) {
+                    percent(0xC0 | (c >> 6));
+                    percent(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    percent(0xF0 | (codePoint >> 18));
+                    percent(0x80 | ((codePoint >> 12) & 0x3F));
+                    percent(0x80 | ((codePoint >> 6) & 0x3F));
+                    percent(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    percent('?'); // 落單的代理字元，URLEncoder 會以 ? 取代
+                } else {
+                    percent(0xE0 | (c >> 12));
+                    percent(0x80 | ((c >> 6) & 0x3F));
+                    percent(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void encodeAscii(char c) {
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                buffer[length++] = (byte) c;
+            } else if (c >= 'A' && c <= 'Z') {
+                buffer[length++] = (byte) (c + ('a' - 'A'));
+            } else if (c == '-' || c == '_' || c == '.' || c == '*' || c == '!' || c == '(' || c == ')') {
+                buffer[length++] = (byte) c;
+            } else if (c == ' ') {
+                buffer[length++] = '+';
+            } else {
+                percent(c);
+            }
+        }
+
+        private void percent(int b) {
+            buffer[length++] = '%';
+            buffer[length++] = HEX_LOWER[(b >> 4) & 0x0F];
+            buffer[length++] = HEX_LOWER[b & 0x0F];
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        String digestHex() {
+            digest.update(buffer, 0, length);
+            byte[] hash = digest.digest();
+            for (int i = 0; i < hash.length; i++) {
+                hex[i * 2] = HEX_UPPER[(hash[i] >> 4) & 0x0F];
+                hex[i * 2 + 1] = HEX_UPPER[hash[i] & 0x0F];
+            }
+            return new String(hex);
+        }
+    }
+}
@@ -1,25 +1,33 @@
 package com.back_end_project.back_end_project.controllerComponentECPay;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.back_end_project.back_end_project.controllerComponentLogging.PaymentLogContext;
+
 @Component
 public class EcpayFunctions {
+    private static final Logger log = LoggerFactory.getLogger(EcpayFunctions.class);
+
     private static final String ACTION_URL = "https://payment-stage.ecpay.com.tw/Cashier/AioCheckOut/V5";
     private static final String RETURN_URL = "https://f9d4-1-160-6-252.ngrok-free.app/pages/ecpay/return";
     private static final String MERCHANT_ID = "2000132";
     private static final String HASH_KEY = "5294y06JbISpM5x9";
     private static final String HASH_IV = "v77hoKGq4kWxNNIS";
 
+    @Autowired
+    private CheckMacValueSigner checkMacValueSigner;
+
+    @Autowired
+    private PaymentLogContext paymentLogContext;
+
     public String buildEcpayForm(String body) {
         JSONObject obj = new JSONObject(body);
         String id = obj.isNull("id") ? "test" + System.currentTimeMillis() : obj.getString("id");
@@ -28,26 +36,31 @@ public class EcpayFunctions {
         String desc = obj.isNull("desc") ? "test" + System.currentTimeMillis() : obj.getString("desc");
         String date = obj.isNull("date") ? "test" + System.currentTimeMillis() : obj.getString("date");
 
-        Map<String, String> parameters = this.createEcpayData(id, name, total, desc, date);
-
-        StringBuilder builder = new StringBuilder();
-        builder = builder.append("<form id='payForm' target='_blank' action='" + ACTION_URL + "' method='POST'>");
+        try (MDC.MDCCloseable correlation = PaymentLogContext.correlate(id)) {
+            String form = buildForm(this.createEcpayData(id, name, total, desc, date));
+            log.info("產生綠界付款表單，金額 {}", total);
+            paymentLogContext.logPayload(log, "綠界付款表單", id, form);
+            return form;
+        }
+    }
 
-        Set<String> keys = parameters.keySet();
-        for (String key : keys) {
-            String value = parameters.get(key);
-            builder = builder.append("<input type='hidden' name='")
-                    .append(key).append("' value='")
-                    .append(value).append("'/>");
+    private String buildForm(Map<String, String> parameters) {
+        StringBuilder builder = new StringBuilder(1024);
+        builder.append("<form id='payForm' target='_blank' action='").append(ACTION_URL).append("' method='POST'>");
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            builder.append("<input type='hidden' name='")
+                    .append(parameter.getKey()).append("' value='")
+                    .append(parameter.getValue()).append("'/>");
         }
-        builder = builder.append("<script>payForm.submit()</script>");
-        builder = builder.append("</form>");
+        builder.append("<script>payForm.submit()</script>");
+        builder.append("</form>");
 
         return builder.toString();
     }
 
     private Map<String, String> createEcpayData(String id, String name, String total, String desc, String date) {
-        Map<String, String> parameters = new HashMap<>();
+        // 依綠界規則預先以不分大小寫的鍵排序，簽章時不必再排序一次
+        Map<String, String> parameters = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         parameters.put("MerchantID", MERCHANT_ID);
         parameters.put("MerchantTradeNo", id);
         parameters.put("ItemName", name);
@@ -64,56 +77,20 @@ public class EcpayFunctions {
         return parameters;
     }
 
-    private String genCheckMacValue(Map<String, String> params, String hashKey, String hashIV) {
-        Set<String> keySet = params.keySet();
-        TreeSet<String> treeSet = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
-        treeSet.addAll(keySet);
-        String name[] = treeSet.toArray(new String[treeSet.size()]);
-        String paramStr = "";
-        for (int i = 0; i < name.length; i++) {
-            if (!name[i].equals("CheckMacValue")) {
-                paramStr += "&" + name[i] + "=" + params.get(name[i]);
-            }
-        }
-
-        String urlEncode = urlEncode("Hashkey=" + hashKey + paramStr + "&HashIV=" + hashIV).toLowerCase();
-        urlEncode = urlEncode.replaceAll("%21", "\\!").replaceAll("%28", "\\(").replaceAll("%29", "\\)");
-
-        return hash(urlEncode.getBytes(), "SHA-256");
-    }
-
-    private static String urlEncode(String data) {
-        String result = "";
-        try {
-            result = URLEncoder.encode(data, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            e.printStackTrace();
-        }
-        return result;
+    /**
+     * 依綠界規則產生 CheckMacValue (參數依名稱排序、URL 編碼轉小寫後取 SHA-256)。
+     */
+    public String genCheckMacValue(Map<String, String> params, String hashKey, String hashIV) {
+        return checkMacValueSigner.sign(params, hashKey, hashIV);
     }
 
-    private String hash(byte data[], String mode) {
-        MessageDigest md = null;
-        try {
-            if (mode == "MD5") {
-                md = MessageDigest.getInstance("MD5");
-            } else if (mode == "SHA-256") {
-                md = MessageDigest.getInstance("SHA-256");
-            }
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
-        return bytesToHex(md.digest(data));
-    }
-
-    private String bytesToHex(byte[] bytes) {
-        final char[] hexArray = "0123456789ABCDEF".toCharArray();
-        char[] hexChars = new char[bytes.length * 2];
-        for (int j = 0; j < bytes.length; j++) {
-            int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
-        }
-        return new String(hexChars);
+    /**
+     * 驗證綠界付款通知的 CheckMacValue。
+     *
+     * @param params 綠界送來的參數 (含 CheckMacValue)
+     * @return 簽章正確則為 true
+     */
+    public boolean verifyCallback(Map<String, String> params) {
+        return checkMacValueSigner.verify(params, HASH_KEY, HASH_IV);
     }
 }
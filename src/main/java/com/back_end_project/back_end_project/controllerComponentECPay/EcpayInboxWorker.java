@@ -0,0 +1,142 @@
+package com.back_end_project.back_end_project.controllerComponentECPay;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.EcpayCallbackInboxDAO;
+import com.back_end_project.back_end_project.database.EcpayCallbackInbox;
+import com.back_end_project.back_end_project.service.EcpayCallbackService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 綠界付款通知收件匣的背景處理。
+ * 定期輪詢 EcpayCallbackInbox，以 inboxId 取餘數分成 workers 個分區，
+ * 每個分區由執行緒池中的一條執行緒依序分批套用 (每筆通知一個交易)，分區之間互不重疊所以不必鎖資料列。
+ * 套用失敗、仍待重試的通知在同一輪中不會再取出，留到下次輪詢。
+ *
+ * 指標：
+ * ecpay.inbox.depth 尚未處理的通知數、ecpay.inbox.lag 最舊一筆待處理通知等了幾秒、
+ * ecpay.inbox.processed 已套用的通知數。
+ */
+@Component
+public class EcpayInboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(EcpayInboxWorker.class);
+
+    private final EcpayCallbackInboxDAO ecpayCallbackInboxDAO;
+    private final EcpayCallbackService ecpayCallbackService;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter processed;
+
+    public EcpayInboxWorker(
+            EcpayCallbackInboxDAO ecpayCallbackInboxDAO,
+            EcpayCallbackService ecpayCallbackService,
+            @Value("${ecpay.inbox.enabled}") boolean enabled,
+            @Value("${ecpay.inbox.workers}") int workers,
+            @Value("${ecpay.inbox.batch-size}") int batchSize,
+            MeterRegistry meterRegistry) {
+        this.ecpayCallbackInboxDAO = ecpayCallbackInboxDAO;
+        this.ecpayCallbackService = ecpayCallbackService;
+        this.enabled = enabled;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "ecpay-inbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("ecpay.inbox.depth", depth, AtomicLong::get)
+                .description("尚未處理的綠界付款通知數")
+                .register(meterRegistry);
+        Gauge.builder("ecpay.inbox.lag", lagSeconds, AtomicLong::get)
+                .description("最舊一筆待處理綠界付款通知的等待時間")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.processed = Counter.builder("ecpay.inbox.processed")
+                .description("已套用的綠界付款通知數")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ecpay.inbox.poll-interval}")
+    public void poll() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * 處理目前收件匣中所有待處理的通知，並更新佇列深度與延遲指標。
+     *
+     * @return 本次套用的通知數
+     */
+    public int drain() {
+        List<Callable<Integer>> tasks = new ArrayList<>(workers);
+        for (int partition = 0; partition < workers; partition++) {
+            int p = partition;
+            tasks.add(() -> drainPartition(p));
+        }
+
+        int total = 0;
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                total += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("綠界付款通知處理失敗，下次輪詢會重試", e);
+        }
+        refreshGauges();
+        return total;
+    }
+
+    private int drainPartition(int partition) {
+        int count = 0;
+        long afterId = 0;
+        List<EcpayCallbackInbox> batch;
+        do {
+            batch = ecpayCallbackInboxDAO.findPending(partition, workers, afterId, batchSize);
+            if (!batch.isEmpty()) {
+                int applied = ecpayCallbackService.applyBatch(batch);
+                processed.increment(applied);
+                count += applied;
+                afterId = batch.get(batch.size() - 1).getInboxId();
+            }
+        } while (batch.size() == batchSize);
+        return count;
+    }
+
+    private void refreshGauges() {
+        depth.set(ecpayCallbackInboxDAO.countPending());
+        lagSeconds.set(ecpayCallbackInboxDAO.findOldestPendingReceivedDate()
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()))
+                .orElse(0L));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,141 @@
+package com.back_end_project.back_end_project.controllerComponentExport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 逐列寫出匯出資料。每一列寫入緩衝區後即可丟棄，記憶體用量只有緩衝區大小，與總列數無關；
+ * 緩衝區滿了就送出給客戶端，大型匯出不會等到查詢結束才開始下載。
+ *
+ * CSV 第一列為標題，欄位依 RFC 4180 加上引號，開頭為 = + - @ 的文字欄位前加上 ' 避免被試算表當成公式。
+ * NDJSON 每一列以 ObjectMapper 序列化成一行 JSON。
+ *
+ * @param <T> 列的型別
+ */
+public class ExportWriter<T> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final Function<T, List<Object>> columns;
+    private long rows;
+
+    /**
+     * @param format       匯出格式
+     * @param outputStream 回應的輸出串流 (不會被關閉)
+     * @param objectMapper NDJSON 使用的 ObjectMapper
+     * @param header       CSV 標題列
+     * @param columns      CSV 每一列的欄位值，順序與標題相同
+     */
+    public ExportWriter(DataFormat format, OutputStream outputStream, ObjectMapper objectMapper,
+            List<String> header, Function<T, List<Object>> columns) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+        if (format == DataFormat.CSV) {
+            writeCsvLine(List.copyOf(header));
+        }
+    }
+
+    /**
+     * 寫出一列。
+     *
+     * @param row 資料列
+     * @throws UncheckedIOException 客戶端中斷連線等寫入錯誤
+     */
+    public void write(T row) {
+        try {
+            if (format == DataFormat.CSV) {
+                writeCsvLine(columns.apply(row));
+            } else {
+                writer.write(toJson(row));
+                writer.write('\n');
+            }
+            rows++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 送出緩衝區中剩餘的資料。
+     *
+     * @return 寫出的資料列數 (不含標題)
+     */
+    public long finish() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /**
+     * 只含一段文字的回應本體，用於匯出參數錯誤時回傳錯誤訊息
+     * (回傳 StreamingResponseBody 的端點，錯誤回應也必須是 StreamingResponseBody)。
+     *
+     * @param message 訊息
+     * @return 回應本體
+     */
+    public static StreamingResponseBody message(String message) {
+        return outputStream -> outputStream.write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toJson(T row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize export row", e);
+        }
+    }
+
+    private void writeCsvLine(List<?> values) {
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(values.get(i));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+            return;
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            text = '"' + text.replace("\"", "\"\"") + '"';
+        }
+        writer.write(text);
+    }
+}
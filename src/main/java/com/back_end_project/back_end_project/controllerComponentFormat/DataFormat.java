@@ -0,0 +1,61 @@
+package com.back_end_project.back_end_project.controllerComponentFormat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * 匯出與匯入共用的資料格式：CSV (含標題列，可直接以 Excel 開啟) 或 NDJSON (每行一個 JSON 物件)。
+ */
+public enum DataFormat {
+
+    CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+    NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    DataFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 下載用的回應標頭：內容類型與附件檔名。
+     *
+     * @param baseName 檔名 (不含副檔名)
+     * @return 回應標頭
+     */
+    public HttpHeaders headers(String baseName) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(baseName + "." + extension).build());
+        return headers;
+    }
+
+    /**
+     * 依名稱 (不分大小寫) 取得格式。
+     *
+     * @param name csv 或 ndjson
+     * @return 格式
+     * @throws IllegalArgumentException 不支援的格式
+     */
+    public static DataFormat of(String name) {
+        for (DataFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + name);
+    }
+}
@@ -0,0 +1,36 @@
+package com.back_end_project.back_end_project.controllerComponentImage;
+
+import java.util.Optional;
+
+/**
+ * 圖片儲存介面，將產品與客戶圖片從資料庫表中分離。
+ * namespace 用來區分圖片種類 (例如 products、customers)，id 為對應實體的主鍵。
+ */
+public interface ImageStore {
+
+    /**
+     * 保存或覆寫圖片。
+     *
+     * @param namespace 圖片種類
+     * @param id        實體 ID
+     * @param data      圖片內容
+     */
+    void save(String namespace, Integer id, byte[] data);
+
+    /**
+     * 查詢圖片。
+     *
+     * @param namespace 圖片種類
+     * @param id        實體 ID
+     * @return 包含圖片的 Optional 物件，若不存在則為 Optional.empty()
+     */
+    Optional<StoredImage> find(String namespace, Integer id);
+
+    /**
+     * 刪除圖片，不存在時不做任何事。
+     *
+     * @param namespace 圖片種類
+     * @param id        實體 ID
+     */
+    void delete(String namespace, Integer id);
+}
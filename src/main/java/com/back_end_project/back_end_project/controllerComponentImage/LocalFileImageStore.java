@@ -0,0 +1,145 @@
+package com.back_end_project.back_end_project.controllerComponentImage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 以本機檔案系統實作的圖片儲存，檔案路徑為 {root}/{namespace}/{id}.img。
+ * 讀取時使用 FileChannel.transferTo，避免整張圖片載入 heap。
+ */
+@Component
+public class LocalFileImageStore implements ImageStore {
+
+    private final Path root;
+
+    public LocalFileImageStore(@Value("${image-store.root-directory}") String rootDirectory) {
+        this.root = Paths.get(rootDirectory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void save(String namespace, Integer id, byte[] data) {
+        Path target = resolve(namespace, id);
+        try {
+            Files.createDirectories(target.getParent());
+            // 先寫入暫存檔再原子搬移，避免讀取端看到寫到一半的檔案
+            Path temp = Files.createTempFile(target.getParent(), id + "-", ".tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法保存圖片：" + target, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> find(String namespace, Integer id) {
+        Path file = resolve(namespace, id);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(new LocalStoredImage(file, attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), sniffContentType(file)));
+        } catch (java.nio.file.NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法讀取圖片：" + file, e);
+        }
+    }
+
+    @Override
+    public void delete(String namespace, Integer id) {
+        try {
+            Files.deleteIfExists(resolve(namespace, id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法刪除圖片", e);
+        }
+    }
+
+    private Path resolve(String namespace, Integer id) {
+        return root.resolve(namespace).resolve(id + ".img");
+    }
+
+    /**
+     * 依檔頭 magic number 判斷圖片格式，無法判斷時回傳 application/octet-stream。
+     */
+    private static String sniffContentType(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F') {
+            return "image/gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    private static final class LocalStoredImage implements StoredImage {
+        private final Path file;
+        private final long size;
+        private final String etag;
+        private final String contentType;
+
+        LocalStoredImage(Path file, long size, long lastModified, String contentType) {
+            this.file = file;
+            this.size = size;
+            this.etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            this.contentType = contentType;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String getETag() {
+            return etag;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public Optional<Path> getPath() {
+            return Optional.of(file);
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long sent = 0;
+                while (sent < count) {
+                    long n = channel.transferTo(position + sent, count - sent, target);
+                    if (n <= 0) {
+                        break;
+                    }
+                    sent += n;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.back_end_project.back_end_project.controllerComponentImage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 已儲存圖片的中繼資料與讀取方式。
+ */
+public interface StoredImage {
+
+    /**
+     * @return 圖片大小 (bytes)
+     */
+    long getSize();
+
+    /**
+     * @return 強 ETag (含雙引號)
+     */
+    String getETag();
+
+    /**
+     * @return 依檔頭判斷的 Content-Type
+     */
+    String getContentType();
+
+    /**
+     * 若圖片位於本機檔案系統則回傳其路徑，供容器以 sendfile 直接傳送。
+     *
+     * @return 檔案路徑，非檔案型儲存則為 Optional.empty()
+     */
+    Optional<Path> getPath();
+
+    /**
+     * 將指定區段寫入目標通道。
+     *
+     * @param position 起始位置
+     * @param count    位元組數
+     * @param target   目標通道
+     * @throws IOException 讀寫失敗時
+     */
+    void transferTo(long position, long count, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,213 @@
+package com.back_end_project.back_end_project.controllerComponentImport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportRowDTO;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 逐列讀取產品匯入檔 (CSV 或 NDJSON)，一次只保留一列，上傳檔案不會整個載入記憶體。
+ *
+ * CSV 第一列為標題 (欄位名稱同 ProductImportRowDTO，不分大小寫、順序不限)，欄位可依 RFC 4180 加上引號 (可含逗號與換行)。
+ * NDJSON 每行一個 JSON 物件，空白行略過。檔案開頭的 UTF-8 BOM (Excel 另存 CSV 時會加上) 會被忽略。
+ * 無法解析的列以 Entry.error 回報，不會中斷讀取。
+ */
+public class ProductImportReader {
+
+    static final Set<String> REQUIRED_COLUMNS = Set.of("sku", "productname", "categoriesname", "price");
+    static final Set<String> COLUMNS = Set.of("sku", "productname", "categoriesname", "price", "quantityinstock",
+            "discountrate", "thresholdlevel", "warehouselocation", "description", "isfeatured");
+
+    /**
+     * 讀到的一列：行號 (從 1 開始，CSV 含標題列)、內容或錯誤原因。
+     */
+    public record Entry(long line, ProductImportRowDTO row, String error) {
+
+        // 錯誤報告使用的產品編號，讀不到時為 null
+        public String sku() {
+            return row == null ? null : row.getSku();
+        }
+    }
+
+    private final BufferedReader reader;
+    private final DataFormat format;
+    private final ObjectMapper objectMapper;
+    private final List<String> header = new ArrayList<>();
+    private long line; // 目前讀到的行號
+
+    /**
+     * @param inputStream  上傳的內容 (UTF-8)
+     * @param format       CSV 或 NDJSON
+     * @param objectMapper NDJSON 使用的 ObjectMapper
+     * @throws IllegalArgumentException CSV 缺少標題列、標題含未知欄位或缺少必填欄位時
+     */
+    public ProductImportReader(InputStream inputStream, DataFormat format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+        skipBom();
+        if (format == DataFormat.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * 讀取下一列。
+     *
+     * @return 下一列，已讀完時返回 null
+     */
+    public Entry next() throws IOException {
+        return format == DataFormat.CSV ? nextCsv() : nextNdjson();
+    }
+
+    private void skipBom() throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+    }
+
+    private void readHeader() throws IOException {
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("CSV header row is missing");
+        }
+        for (String name : names) {
+            String column = name.trim().toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name);
+            }
+            header.add(column);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!header.contains(required)) {
+                throw new IllegalArgumentException("Missing CSV column: " + required);
+            }
+        }
+    }
+
+    private Entry nextCsv() throws IOException {
+        List<String> values;
+        long start;
+        do {
+            start = line + 1;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank()); // 空白行
+
+        if (values.size() != header.size()) {
+            return new Entry(start, null, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i).trim();
+            fields.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        ProductImportRowDTO row = new ProductImportRowDTO();
+        row.setSku(fields.get("sku"));
+        try {
+            row.setProductName(fields.get("productname"));
+            row.setCategoriesName(fields.get("categoriesname"));
+            row.setPrice(fields.get("price") == null ? null : new BigDecimal(fields.get("price")));
+            row.setQuantityInStock(fields.get("quantityinstock") == null ? null : Integer.valueOf(fields.get("quantityinstock")));
+            row.setDiscountRate(fields.get("discountrate") == null ? null : Float.valueOf(fields.get("discountrate")));
+            row.setThresholdLevel(fields.get("thresholdlevel") == null ? null : Integer.valueOf(fields.get("thresholdlevel")));
+            row.setWarehouseLocation(fields.get("warehouselocation"));
+            row.setDescription(fields.get("description"));
+            row.setIsFeatured(parseBoolean(fields.get("isfeatured")));
+        } catch (IllegalArgumentException e) { // NumberFormatException 也是 IllegalArgumentException
+            return new Entry(start, row, "Invalid value: " + e.getMessage());
+        }
+        return new Entry(start, row, null);
+    }
+
+    private Entry nextNdjson() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+        try {
+            return new Entry(line, objectMapper.readValue(text, ProductImportRowDTO.class), null);
+        } catch (JsonProcessingException e) {
+            return new Entry(line, null, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "y", "yes" -> true;
+            case "false", "0", "n", "no" -> false;
+            default -> throw new IllegalArgumentException("isFeatured must be true or false: " + value);
+        };
+    }
+
+    // 讀一筆 CSV 紀錄 (引號中的換行屬於同一筆)，已讀完時返回 null
+    private List<String> readRecord() throws IOException {
+        String text = reader.readLine();
+        if (text == null) {
+            return null;
+        }
+        line++;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    values.add(value.toString());
+                    return values;
+                }
+                text = reader.readLine(); // 引號中的換行
+                if (text == null) {
+                    values.add(value.toString()); // 引號未結束就到檔案結尾，取到結尾為止
+                    return values;
+                }
+                line++;
+                value.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    value.append('"'); // 兩個引號代表一個引號
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.back_end_project.back_end_project.controllerComponentJWT.filter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.back_end_project.back_end_project.controllerComponentJWT.model.JwtPrincipal;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.JwtTokenService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 驗證 /api/** 請求的 Bearer Token (登入 /api/auth/** 除外)。
+ *
+ * 驗證成功的 Token → 使用者 對應會放進 Caffeine 快取，存活時間就是 Token 剩餘的有效期，
+ * 同一個使用者之後的請求不必再算一次 HMAC、也不必再解析 JSON。只有驗證成功的結果會被快取。
+ *
+ * jwt.filter.enforce=false 時只解析、不擋請求 (前端尚未全面帶 Token 前的過渡期)；
+ * 設為 true 後沒有或無效的 Token 一律回 401。
+ *
+ * 指標：jwt.verification (快取未命中時實際驗證的耗時，tag result=valid/invalid)、
+ * cache.gets (tag cache=jwt.principals，可算出命中率)。
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String PRINCIPAL_ATTRIBUTE = JwtPrincipal.class.getName();
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+    private final boolean enforce;
+    private final Cache<String, JwtPrincipal> principals;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public JwtAuthenticationFilter(
+            JwtTokenService jwtTokenService,
+            @Value("${jwt.filter.enforce}") boolean enforce,
+            @Value("${jwt.filter.cache-size}") long cacheSize,
+            MeterRegistry meterRegistry) {
+        this.jwtTokenService = jwtTokenService;
+        this.enforce = enforce;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new ExpireWithToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "jwt.principals");
+        this.validTimer = Timer.builder("jwt.verification").tag("result", "valid").register(meterRegistry);
+        this.invalidTimer = Timer.builder("jwt.verification").tag("result", "invalid").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/")
+                || path.startsWith("/api/auth/")
+                || HttpMethod.OPTIONS.matches(request.getMethod()); // CORS 預檢請求不帶 Token
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        JwtPrincipal principal = authenticate(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (principal != null) {
+            request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        } else if (enforce) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 取得 Authorization 標頭代表的使用者，先查快取，未命中才真正驗證。
+     *
+     * @param authorization Authorization 標頭
+     * @return 使用者，若沒有 Token 或 Token 無效則為 null
+     */
+    JwtPrincipal authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        JwtPrincipal cached = principals.getIfPresent(token);
+        if (cached != null && cached.getExpiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        try {
+            JwtPrincipal principal = jwtTokenService.parseToken(token);
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            principals.put(token, principal);
+            return principal;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
+    /**
+     * 快取項目在 Token 過期的那一刻失效。
+     */
+    private static final class ExpireWithToken implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, JwtPrincipal principal, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), principal.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
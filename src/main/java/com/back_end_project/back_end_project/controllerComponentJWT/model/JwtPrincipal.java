@@ -0,0 +1,36 @@
+package com.back_end_project.back_end_project.controllerComponentJWT.model;
+
+import java.time.Instant;
+
+/**
+ * 驗證通過的 JWT 所代表的使用者，放在 request attribute 供後續的 Controller 使用。
+ */
+public class JwtPrincipal {
+
+    private final String email; // Token 主體 (客戶 Email)
+    private final String role; // ADMIN 或 USER
+    private final Instant expiresAt; // Token 過期時間
+
+    public JwtPrincipal(String email, String role, Instant expiresAt) {
+        this.email = email;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
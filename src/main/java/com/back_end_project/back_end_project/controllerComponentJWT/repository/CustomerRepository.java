@@ -1,8 +1,27 @@
 package com.back_end_project.back_end_project.controllerComponentJWT.repository;
 
+import com.back_end_project.back_end_project.RepositoryDTO.CustomerCredentialsDTO;
 import com.back_end_project.back_end_project.database.Customer;
+
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     Customer findByEmail(String email); // 根據 Email 查找客戶
-}
\ No newline at end of file
+
+    // 登入只讀取驗證需要的欄位，不載入整個 Customer
+    @Query("SELECT new com.back_end_project.back_end_project.RepositoryDTO.CustomerCredentialsDTO("
+            + "c.customerId, c.email, c.passwordHash, c.isSuperAdmin) FROM Customer c WHERE c.email = :email")
+    Optional<CustomerCredentialsDTO> findCredentialsByEmail(@Param("email") String email);
+
+    // 舊版明碼密碼登入成功後改存成雜湊
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.passwordHash = :passwordHash WHERE c.customerId = :customerId")
+    int updatePasswordHash(@Param("customerId") Integer customerId, @Param("passwordHash") String passwordHash);
+}
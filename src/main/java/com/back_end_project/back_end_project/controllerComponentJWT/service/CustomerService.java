@@ -1,28 +1,64 @@
 package com.back_end_project.back_end_project.controllerComponentJWT.service;
 
+import com.back_end_project.back_end_project.RepositoryDTO.CustomerCredentialsDTO;
 import com.back_end_project.back_end_project.database.Customer;
 import com.back_end_project.back_end_project.controllerComponentJWT.repository.CustomerRepository;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.PasswordHashingService.Verification;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service("jwtCustomerService")
 public class CustomerService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomerService.class);
+
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     /**
      * 驗證使用者的 Email 和密碼
+     * 先以投影查詢只取出驗證需要的欄位，密碼比對在雜湊執行緒池上執行；
+     * 驗證成功且資料庫中仍是舊版明碼時，順便改存成 bcrypt 雜湊；雜湊佇列已滿時這次先不升級，登入照常成功，下次登入再升級。
      *
      * @param email    使用者的電子郵件
      * @param password 使用者的密碼
-     * @return 如果成功，返回 Customer；否則返回 null
+     * @return 如果成功，完成值為 Customer；否則完成值為 null
+     * @throws java.util.concurrent.RejectedExecutionException 雜湊佇列已滿時
      */
-    public Customer validateCustomer(String email, String password) {
-        Customer customer = customerRepository.findByEmail(email);
-        if (customer != null && customer.getPasswordHash().equals(password)) {
-            return customer; // 驗證成功
-        }
-        return null; // 驗證失敗
+    public CompletableFuture<Customer> validateCustomer(String email, String password) {
+        Optional<CustomerCredentialsDTO> credentials = customerRepository.findCredentialsByEmail(email);
+        String storedHash = credentials.map(CustomerCredentialsDTO::getPasswordHash).orElse(null);
+
+        return passwordHashingService.verify(password, storedHash).thenCompose(verification -> {
+            if (verification == Verification.MISMATCH) {
+                return CompletableFuture.completedFuture(null); // 驗證失敗
+            }
+            Integer customerId = credentials.get().getCustomerId();
+            if (verification == Verification.MATCH_NEEDS_UPGRADE) {
+                CompletableFuture<String> upgrade;
+                try {
+                    upgrade = passwordHashingService.encode(password);
+                } catch (RejectedExecutionException e) {
+                    log.warn("雜湊佇列已滿，客戶 {} 的密碼留待下次登入再升級", customerId);
+                    return CompletableFuture.completedFuture(customerRepository.findById(customerId).orElse(null));
+                }
+                return upgrade.thenApply(hash -> {
+                    customerRepository.updatePasswordHash(customerId, hash);
+                    return customerRepository.findById(customerId).orElse(null);
+                });
+            }
+            return CompletableFuture.completedFuture(customerRepository.findById(customerId).orElse(null)); // 驗證成功
+        });
     }
 }
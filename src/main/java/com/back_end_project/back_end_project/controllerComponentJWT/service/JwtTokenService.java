@@ -3,8 +3,12 @@ package com.back_end_project.back_end_project.controllerComponentJWT.service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.back_end_project.back_end_project.controllerComponentJWT.model.JwtPrincipal;
 import com.back_end_project.back_end_project.database.Customer;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
@@ -14,9 +18,11 @@ import java.util.Date;
 public class JwtTokenService {
 
     private final Key SECRET_KEY;
+    private final JwtParser parser; // 不可變且執行緒安全，所有請求共用同一個
 
     public JwtTokenService(@Value("${jwt.secret}") String secret) {
         this.SECRET_KEY = Keys.hmacShaKeyFor(secret.getBytes()); // 從配置中讀取密鑰並轉換為 Key
+        this.parser = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
     }
 
     private final long EXPIRATION_TIME = 86400000; // Token 有效期 (1 天)
@@ -36,4 +42,20 @@ public class JwtTokenService {
                 .signWith(SECRET_KEY) // 使用生成的密鑰進行簽名
                 .compact();
     }
+
+    /**
+     * 驗證 generateToken 簽發的 Token (簽章與有效期) 並取出使用者資訊。
+     *
+     * @param token JWT Token
+     * @return Token 代表的使用者
+     * @throws JwtException 簽章錯誤、格式錯誤或已過期時
+     */
+    public JwtPrincipal parseToken(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token 缺少過期時間");
+        }
+        return new JwtPrincipal(claims.getSubject(), claims.get("role", String.class),
+                claims.getExpiration().toInstant());
+    }
 }
@@ -0,0 +1,119 @@
+package com.back_end_project.back_end_project.controllerComponentJWT.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 登入節流：每個 Email 與每個來源 IP 各自一個 token bucket。
+ *
+ * 所有 bucket 依 key 的雜湊分散在多個分段 (stripe) 中，每段一把鎖與一個有上限的 LRU Map，
+ * 不同使用者的登入不會搶同一把鎖，記憶體用量也有上限 (最久沒用到的 bucket 會被淘汰，等同重新給滿額度)。
+ */
+@Component
+public class LoginThrottle {
+
+    private final Stripe[] stripes;
+    private final Limit emailLimit;
+    private final Limit ipLimit;
+    private final Counter throttled;
+
+    public LoginThrottle(
+            @Value("${auth.throttle.stripes}") int stripeCount,
+            @Value("${auth.throttle.max-keys-per-stripe}") int maxKeysPerStripe,
+            @Value("${auth.throttle.email.capacity}") int emailCapacity,
+            @Value("${auth.throttle.email.refill-per-minute}") int emailRefillPerMinute,
+            @Value("${auth.throttle.ip.capacity}") int ipCapacity,
+            @Value("${auth.throttle.ip.refill-per-minute}") int ipRefillPerMinute,
+            MeterRegistry meterRegistry) {
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1]; // 取 2 的次方
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+        this.emailLimit = new Limit(emailCapacity, emailRefillPerMinute);
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        this.throttled = Counter.builder("auth.login.throttled")
+                .description("因超過登入頻率而被拒絕的次數")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 嘗試取得一次登入機會，先扣 IP 的額度再扣 Email 的額度。
+     *
+     * @param email    登入的 Email
+     * @param remoteIp 來源 IP
+     * @return 可以登入則為 true；超過頻率則為 false
+     */
+    public boolean tryAcquire(String email, String remoteIp) {
+        boolean allowed = tryAcquire("ip:" + remoteIp, ipLimit)
+                && tryAcquire("email:" + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT)), emailLimit);
+        if (!allowed) {
+            throttled.increment();
+        }
+        return allowed;
+    }
+
+    private boolean tryAcquire(String key, Limit limit) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        long now = System.nanoTime();
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.computeIfAbsent(key, k -> new Bucket(limit.capacity, now));
+            bucket.refill(limit, now);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return true;
+            }
+            return false;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static final class Limit {
+        private final double capacity; // bucket 容量 (可連續嘗試的次數)
+        private final double tokensPerNano; // 每奈秒補充的額度
+
+        Limit(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        void refill(Limit limit, long now) {
+            tokens = Math.min(limit.capacity, tokens + (now - lastRefill) * limit.tokensPerNano);
+            lastRefill = now;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.back_end_project.back_end_project.controllerComponentJWT.service;
+
+import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 密碼雜湊 (bcrypt) 服務。
+ *
+ * bcrypt 刻意很耗 CPU，所以所有雜湊與比對都放在專用、有上限的執行緒池上跑：
+ * 執行緒數與佇列長度固定，佇列滿了直接拒絕 (RejectedExecutionException)，
+ * 大量登入請求不會把 Tomcat 的請求執行緒或整台機器的 CPU 吃光。
+ *
+ * 資料庫中仍有舊版的明碼密碼，比對時會以固定時間比較，並回報 MATCH_NEEDS_UPGRADE 讓呼叫端改存雜湊。
+ */
+@Service
+public class PasswordHashingService {
+
+    /**
+     * 密碼比對結果。
+     */
+    public enum Verification {
+        MATCH, MATCH_NEEDS_UPGRADE, MISMATCH
+    }
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final String dummyHash; // 查無帳號時也跑一次 bcrypt，避免從回應時間猜出帳號是否存在
+
+    public PasswordHashingService(
+            @Value("${auth.bcrypt-strength}") int strength,
+            @Value("${auth.hashing.threads}") int threads,
+            @Value("${auth.hashing.queue-capacity}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        this.dummyHash = encoder.encode("dummy-password");
+    }
+
+    /**
+     * 以 bcrypt 雜湊密碼 (在雜湊執行緒池上執行)。
+     *
+     * @param rawPassword 明碼密碼
+     * @return 雜湊結果
+     * @throws java.util.concurrent.RejectedExecutionException 雜湊佇列已滿時
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> encoder.encode(rawPassword), executor);
+    }
+
+    /**
+     * 比對密碼 (在雜湊執行緒池上執行)。
+     *
+     * @param rawPassword  使用者輸入的密碼
+     * @param storedHash   資料庫中的密碼，可能是 bcrypt 雜湊或舊版明碼；查無帳號時傳 null
+     * @return 比對結果
+     * @throws java.util.concurrent.RejectedExecutionException 雜湊佇列已滿時
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String storedHash) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (storedHash == null || rawPassword == null) {
+                encoder.matches("dummy-password", dummyHash);
+                return Verification.MISMATCH;
+            }
+            if (isHashed(storedHash)) {
+                return encoder.matches(rawPassword, storedHash) ? Verification.MATCH : Verification.MISMATCH;
+            }
+            boolean match = MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedHash.getBytes(StandardCharsets.UTF_8));
+            return match ? Verification.MATCH_NEEDS_UPGRADE : Verification.MISMATCH;
+        }, executor);
+    }
+
+    /**
+     * 判斷資料庫中的值是否已經是 bcrypt 雜湊 ($2a$、$2b$、$2y$ 開頭)。
+     */
+    public boolean isHashed(String storedHash) {
+        return storedHash != null && storedHash.length() == 60 && storedHash.startsWith("$2");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,23 @@
+package com.back_end_project.back_end_project.controllerComponentJackson;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+
+/**
+ * 讓 Jackson 認得 Hibernate 的延遲載入代理。
+ * 序列化時不會主動觸發延遲載入，尚未載入的關聯只輸出主鍵，
+ * 因此每支 API 讀取多少欄位完全由 DAO 的 entity graph 決定，不會在序列化階段產生 N+1 查詢。
+ */
+@Configuration
+public class JacksonHibernateConfig {
+
+    @Bean
+    public Hibernate6Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS); // 未載入的關聯輸出 {"xxxId": 1}
+        module.disable(Hibernate6Module.Feature.USE_TRANSIENT_ANNOTATION); // @Transient 欄位 (例如 image) 仍交由 Jackson 註解決定
+        return module;
+    }
+}
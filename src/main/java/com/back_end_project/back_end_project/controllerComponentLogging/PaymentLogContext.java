@@ -0,0 +1,68 @@
+package com.back_end_project.back_end_project.controllerComponentLogging;
+
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 付款流程的日誌輔助：以 MerchantTradeNo 作為關聯 ID 放進 MDC (JSON 日誌中的 merchantTradeNo 欄位)，
+ * 並對完整的表單 / 通知內容做取樣，只有 payment.logging.payload-sample-rate 比例的交易會記錄內容。
+ *
+ * 取樣依 MerchantTradeNo 的雜湊決定，同一筆交易的表單與通知不是都記錄就是都不記錄，方便追查。
+ */
+@Component
+public class PaymentLogContext {
+
+    /** MDC 中的關聯 ID 欄位名稱。 */
+    public static final String MDC_KEY = "merchantTradeNo";
+
+    private static final int BUCKETS = 10_000;
+
+    private final int sampledBuckets;
+
+    public PaymentLogContext(@Value("${payment.logging.payload-sample-rate}") double payloadSampleRate) {
+        double rate = Math.min(1.0, Math.max(0.0, payloadSampleRate));
+        this.sampledBuckets = (int) Math.round(rate * BUCKETS);
+    }
+
+    /**
+     * 把 MerchantTradeNo 放進 MDC，以 try-with-resources 使用，結束時移除。
+     *
+     * @param merchantTradeNo 綠界交易編號，null 時不設定
+     * @return 關閉時移除 MDC 欄位
+     */
+    public static MDC.MDCCloseable correlate(String merchantTradeNo) {
+        return MDC.putCloseable(MDC_KEY, merchantTradeNo == null ? "" : merchantTradeNo);
+    }
+
+    /**
+     * @param merchantTradeNo 綠界交易編號
+     * @return 這筆交易的內容是否要記錄
+     */
+    public boolean isSampled(String merchantTradeNo) {
+        if (sampledBuckets >= BUCKETS) {
+            return true;
+        }
+        if (sampledBuckets <= 0 || merchantTradeNo == null) {
+            return false;
+        }
+        return Math.floorMod(merchantTradeNo.hashCode(), BUCKETS) < sampledBuckets;
+    }
+
+    /**
+     * 取樣到的交易以 INFO 記錄內容，其餘交易只在 DEBUG 開啟時記錄。
+     *
+     * @param log 呼叫端的 Logger
+     * @param message 說明文字
+     * @param merchantTradeNo 綠界交易編號
+     * @param payload 表單或通知內容
+     */
+    public void logPayload(Logger log, String message, String merchantTradeNo, Object payload) {
+        if (isSampled(merchantTradeNo)) {
+            log.info("{}：{}", message, payload);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{}：{}", message, payload);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.back_end_project.back_end_project.controllerComponentMetrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 各層方法計時：控制器、@Service 與 DAO 的每個公開方法都記錄到 bakery.calls 計時器
+ * (次數、總耗時、最大值)，標籤為 layer (controller / service / dao)、entity (由類別名稱取得，例如 ProductsDAOImpl → Products)、
+ * operation (方法名稱) 與 exception (成功為 none)。
+ * 服務不限 service 套件 (例如 controllerComponentJWT 下的 @Service)；DAO 包含 EntityManager 實作與 Spring Data repository
+ * (entity 由 repository 介面名稱取得，例如 OrdersRepository → Orders)。
+ *
+ * 同一類別內部互相呼叫不經過代理，不會重複計時。HTTP 層另有 Spring Boot 內建的 http.server.requests。
+ */
+@Aspect
+@Component
+public class LayerTimingAspect {
+
+    private static final String METRIC = "bakery.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> successTimers = new ConcurrentHashMap<>(); // 成功路徑每次呼叫都會用到，先快取
+
+    // Spring Data repository 共用 CrudRepository 等介面的方法，快取需以實際類別區分
+    private record TimerKey(Class<?> type, Method method) {
+    }
+
+    public LayerTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Pointcut("within(com.back_end_project.back_end_project.controller..*)"
+            + " && (@within(org.springframework.web.bind.annotation.RestController)"
+            + " || @within(org.springframework.stereotype.Controller))")
+    void controllerMethods() {
+    }
+
+    @Pointcut("within(com.back_end_project.back_end_project..*)"
+            + " && @within(org.springframework.stereotype.Service)")
+    void serviceMethods() {
+    }
+
+    @Pointcut("within(com.back_end_project.back_end_project.RepositoryDaoImplement..*)"
+            + " && @within(org.springframework.stereotype.Repository)")
+    void daoMethods() {
+    }
+
+    @Pointcut("this(org.springframework.data.repository.Repository)")
+    void repositoryMethods() {
+    }
+
+    @Around("controllerMethods()")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "controller", "Controller");
+    }
+
+    @Around("serviceMethods()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service", "Service");
+    }
+
+    @Around("daoMethods()")
+    public Object timeDao(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "dao", "DAOImpl");
+    }
+
+    @Around("repositoryMethods()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "dao", "Repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer, String suffix) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> type = typeOf(joinPoint);
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimers.computeIfAbsent(new TimerKey(type, method), key -> timer(type, method, layer, suffix, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(type, method, layer, suffix, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    // Spring Data repository 的目標是共用的 SimpleJpaRepository，改用代理實作的 repository 介面
+    private static Class<?> typeOf(ProceedingJoinPoint joinPoint) {
+        if (joinPoint.getThis() instanceof Repository<?, ?> repository) {
+            for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(repository)) {
+                if (Repository.class.isAssignableFrom(type)) {
+                    return type;
+                }
+            }
+        }
+        return AopUtils.getTargetClass(joinPoint.getTarget());
+    }
+
+    private Timer timer(Class<?> type, Method method, String layer, String suffix, String exception) {
+        return Timer.builder(METRIC)
+                .description("控制器 / 服務 / DAO 方法的執行時間")
+                .tag("layer", layer)
+                .tag("entity", entityOf(type, suffix))
+                .tag("operation", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    // ProductsDAOImpl → Products、CheckoutService → Checkout、ShoppingCartController → ShoppingCart、OrdersRepository → Orders
+    private static String entityOf(Class<?> type, String suffix) {
+        String name = type.getSimpleName();
+        return name.endsWith(suffix) && name.length() > suffix.length()
+                ? name.substring(0, name.length() - suffix.length())
+                : name;
+    }
+}
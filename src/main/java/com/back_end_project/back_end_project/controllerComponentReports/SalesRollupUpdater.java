@@ -0,0 +1,261 @@
+package com.back_end_project.back_end_project.controllerComponentReports;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.SalesRollupDAO;
+import com.back_end_project.back_end_project.database.Orders;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 銷售彙總 (SalesRollup) 的增量更新。
+ *
+ * 寫入訂單、訂單明細或付款結果時，呼叫端以 orderChanged 標記受影響的時段 (交易提交後才標記)；
+ * 修改既有訂單前以 orderChanging 標記修改前的時段 (訂單日期可能改變)，大量刪除時以 allChanged 標記彙總表中的所有時段；
+ * 每 reports.rollup.flush-interval 把標記過的時段逐一重算，每個時段一個交易，只讀該小時內的訂單。
+ * 重算是「刪除後重新加總」，重複執行結果相同，所以漏標或多台伺服器同時更新時，
+ * 每晚的對帳 (reports.rollup.reconcile-cron) 重算最近 reports.rollup.reconcile-days 天即可修正。
+ *
+ * 手動補建 (rebuildAsync) 在單一背景執行緒上依序執行，不佔用請求執行緒。
+ *
+ * 指標：reports.rollup.rebuilt (重算的時段數)、reports.rollup.pending (等待重算的時段與訂單數)。
+ */
+@Component
+public class SalesRollupUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupUpdater.class);
+
+    private final SalesRollupDAO salesRollupDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reconcileEnabled;
+    private final int reconcileDays;
+
+    private final Set<LocalDateTime> dirtyHours = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyOrders = ConcurrentHashMap.newKeySet(); // 訂單日期未知，重算前再查詢
+    private final AtomicBoolean allDirty = new AtomicBoolean(); // 彙總表中的所有時段都要重算
+    private final ExecutorService rebuildExecutor; // 手動補建
+    private final ReentrantLock rebuildLock = new ReentrantLock(); // 同一時段不能同時重算 (刪除後新增會違反唯一索引)
+
+    private final Counter rebuilt;
+
+    public SalesRollupUpdater(
+            SalesRollupDAO salesRollupDAO,
+            PlatformTransactionManager transactionManager,
+            @Value("${reports.rollup.reconcile-enabled}") boolean reconcileEnabled,
+            @Value("${reports.rollup.reconcile-days}") int reconcileDays,
+            MeterRegistry meterRegistry) {
+        this.salesRollupDAO = salesRollupDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileEnabled = reconcileEnabled;
+        this.reconcileDays = Math.max(1, reconcileDays);
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rebuilt = Counter.builder("reports.rollup.rebuilt")
+                .description("重算的銷售彙總時段數")
+                .register(meterRegistry);
+        Gauge.builder("reports.rollup.pending", this, updater -> updater.dirtyHours.size() + updater.dirtyOrders.size())
+                .description("等待重算的銷售彙總時段與訂單數")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 標記訂單所在的時段需要重算；訂單日期未知時改以訂單 ID 標記。
+     *
+     * @param order 新增或修改後的訂單
+     */
+    public void orderChanged(Orders order) {
+        if (order.getOrderDate() != null) {
+            afterCommit(() -> dirtyHours.add(hourOf(order.getOrderDate())));
+        } else if (order.getOrdersId() != null) {
+            orderChanged(order.getOrdersId());
+        }
+    }
+
+    /**
+     * 以訂單 ID 標記需要重算，重算前才查詢訂單日期 (例如只知道訂單 ID 的明細修改)。
+     *
+     * @param ordersId 訂單 ID
+     */
+    public void orderChanged(Integer ordersId) {
+        if (ordersId != null) {
+            afterCommit(() -> dirtyOrders.add(ordersId));
+        }
+    }
+
+    /**
+     * 在修改既有訂單之前 (同一個交易內) 呼叫，標記訂單修改前所在的時段，
+     * 訂單日期被修改時舊時段的彙總才會一併重算。
+     *
+     * @param ordersId 訂單 ID，新訂單 (null) 時不做任何事
+     */
+    public void orderChanging(Integer ordersId) {
+        if (ordersId != null) {
+            List<LocalDateTime> previous = salesRollupDAO.findOrderDates(List.of(ordersId));
+            afterCommit(() -> previous.forEach(orderDate -> dirtyHours.add(hourOf(orderDate))));
+        }
+    }
+
+    /**
+     * 標記彙總表中的所有時段需要重算 (例如刪除所有訂單或明細)，重算時才查詢有哪些時段。
+     */
+    public void allChanged() {
+        afterCommit(() -> allDirty.set(true));
+    }
+
+    // 在交易中時等提交後才標記，避免重算讀到尚未提交 (或之後回滾) 的資料
+    private static void afterCommit(Runnable mark) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            mark.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mark.run();
+            }
+        });
+    }
+
+    /**
+     * 重算所有標記過的時段。失敗的時段會留待下次重試。
+     *
+     * @return 重算的時段數
+     */
+    @Scheduled(fixedDelayString = "${reports.rollup.flush-interval}")
+    public int flush() {
+        if (allDirty.getAndSet(false)) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        salesRollupDAO.findRollupHours().forEach(dirtyHours::add));
+            } catch (RuntimeException e) {
+                allDirty.set(true);
+                log.error("查詢彙總表中的時段失敗，下次重試", e);
+                return 0;
+            }
+        }
+        List<Integer> orders = drain(dirtyOrders);
+        if (!orders.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        salesRollupDAO.findOrderDates(orders).forEach(orderDate -> dirtyHours.add(hourOf(orderDate))));
+            } catch (RuntimeException e) {
+                dirtyOrders.addAll(orders);
+                log.error("查詢待重算訂單的日期失敗，下次重試", e);
+                return 0;
+            }
+        }
+        int count = 0;
+        for (LocalDateTime hour : drain(dirtyHours)) {
+            try {
+                rebuildHour(hour);
+                count++;
+            } catch (RuntimeException e) {
+                dirtyHours.add(hour);
+                log.error("銷售彙總 {} 重算失敗，下次重試", hour, e);
+            }
+        }
+        return count;
+    }
+
+    @Scheduled(cron = "${reports.rollup.reconcile-cron}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            LocalDate today = LocalDate.now();
+            int hours = rebuild(today.minusDays(reconcileDays - 1L), today);
+            log.info("銷售彙總對帳完成：重算最近 {} 天共 {} 個時段", reconcileDays, hours);
+        }
+    }
+
+    /**
+     * 重算一段日期內的所有時段 (對帳或補建歷史資料)，未來的時段略過。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 重算的時段數
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        int count = 0;
+        for (LocalDateTime hour = from.atStartOfDay(); !hour.isAfter(end) && hour.isBefore(to.plusDays(1).atStartOfDay());
+                hour = hour.plusHours(1)) {
+            rebuildHour(hour);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 在背景執行緒上重算一段日期 (手動補建)，多個請求依序執行。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 完成值為重算的時段數
+     */
+    public CompletableFuture<Integer> rebuildAsync(LocalDate from, LocalDate to) {
+        return CompletableFuture.supplyAsync(() -> {
+            int hours = rebuild(from, to);
+            log.info("銷售彙總補建完成：{} ~ {} 共 {} 個時段", from, to, hours);
+            return hours;
+        }, rebuildExecutor).whenComplete((hours, e) -> {
+            if (e != null) {
+                log.error("銷售彙總補建 {} ~ {} 失敗", from, to, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdown();
+    }
+
+    private void rebuildHour(LocalDateTime hour) {
+        rebuildLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> salesRollupDAO.rebuildHour(hour));
+            rebuilt.increment();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static LocalDateTime hourOf(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static <T> List<T> drain(Set<T> set) {
+        List<T> drained = new ArrayList<>();
+        for (Iterator<T> iterator = set.iterator(); iterator.hasNext();) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
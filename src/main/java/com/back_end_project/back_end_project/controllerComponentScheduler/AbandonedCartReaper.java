@@ -0,0 +1,183 @@
+package com.back_end_project.back_end_project.controllerComponentScheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.StaleCartLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.controllerComponentCart.CartEngine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 購物車清理排程：刪除 (或先封存到 ShoppingCartArchive 再刪除) 加入超過 cart.reaper.retention 仍未結帳的購物車項目。
+ *
+ * 以 shoppingCartId 做 keyset 分段，每段最多 cart.reaper.chunk-size 筆、一個交易，段與段之間暫停
+ * cart.reaper.pause-between-chunks，讓線上交易有機會取得鎖。每段的列數應低於 SQL Server 單一敘述
+ * 約 5000 個鎖就升級成表格鎖的門檻。
+ * 購物車正在記憶體中 (CartEngine) 的客戶會被略過，清理期間才變成活躍的客戶會重新從資料表載入。
+ * 略過的客戶以 NOT IN 參數傳入，每段最多 MAX_EXCLUDED_CUSTOMERS 位，超過時在該處提前結束這一段，
+ * 以免超過 SQL Server 單一敘述 2100 個參數的上限。
+ *
+ * 指標：cart.reaper.reclaimed (累計清除筆數)、cart.reaper.run.reclaimed (每次執行清除筆數)、
+ * cart.reaper.run (每次執行時間)。
+ */
+@Component
+public class AbandonedCartReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartReaper.class);
+
+    // 每段略過的客戶數上限 (SQL Server 單一敘述最多 2100 個參數，其餘參數為範圍與時間)
+    static final int MAX_EXCLUDED_CUSTOMERS = 2000;
+
+    private final ShoppingCartDAO shoppingCartDAO;
+    private final CartEngine cartEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean archive;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Duration pauseBetweenChunks;
+    private final int maxChunksPerRun;
+
+    private final Counter reclaimed;
+    private final DistributionSummary reclaimedPerRun;
+    private final Timer runTimer;
+
+    public AbandonedCartReaper(
+            ShoppingCartDAO shoppingCartDAO,
+            CartEngine cartEngine,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.reaper.enabled}") boolean enabled,
+            @Value("${cart.reaper.mode}") String mode,
+            @Value("${cart.reaper.retention}") Duration retention,
+            @Value("${cart.reaper.chunk-size}") int chunkSize,
+            @Value("${cart.reaper.pause-between-chunks}") Duration pauseBetweenChunks,
+            @Value("${cart.reaper.max-chunks-per-run}") int maxChunksPerRun,
+            MeterRegistry meterRegistry) {
+        if (!"delete".equalsIgnoreCase(mode) && !"archive".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("cart.reaper.mode 只能是 delete 或 archive：" + mode);
+        }
+        this.shoppingCartDAO = shoppingCartDAO;
+        this.cartEngine = cartEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archive = "archive".equalsIgnoreCase(mode);
+        this.retention = retention;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseBetweenChunks = pauseBetweenChunks;
+        this.maxChunksPerRun = Math.max(1, maxChunksPerRun);
+        this.reclaimed = Counter.builder("cart.reaper.reclaimed")
+                .description("清除的逾期購物車項目數")
+                .tag("mode", archive ? "archive" : "delete")
+                .register(meterRegistry);
+        this.reclaimedPerRun = DistributionSummary.builder("cart.reaper.run.reclaimed")
+                .description("每次清理清除的逾期購物車項目數")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("cart.reaper.run")
+                .description("每次購物車清理的執行時間")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cart.reaper.cron}")
+    public void scheduledReap() {
+        if (enabled) {
+            reap();
+        }
+    }
+
+    /**
+     * 清理一次：由小到大逐段處理逾期項目，直到沒有逾期項目或達到 cart.reaper.max-chunks-per-run。
+     *
+     * @return 本次清除的筆數
+     */
+    public int reap() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Timer.Sample sample = Timer.start();
+        int total = 0;
+        int chunks = 0;
+        Integer afterId = 0;
+        try {
+            while (chunks < maxChunksPerRun) {
+                List<StaleCartLineDTO> chunk = shoppingCartDAO.findStaleLines(before, afterId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                boolean lastChunk = chunk.size() < chunkSize;
+                Set<Integer> customers = new LinkedHashSet<>();
+                Set<Integer> active = new HashSet<>();
+                int end = 0;
+                for (StaleCartLineDTO line : chunk) {
+                    Integer customerId = line.getCustomerId();
+                    if (customers.add(customerId) && cartEngine.isActive(customerId)) {
+                        if (active.size() == MAX_EXCLUDED_CUSTOMERS) {
+                            customers.remove(customerId); // 略過名單已滿，這一段在此結束，其餘留到下一段
+                            lastChunk = false;
+                            break;
+                        }
+                        active.add(customerId); // 正在使用中的購物車不清理
+                    }
+                    end++;
+                }
+                Integer fromId = chunk.get(0).getShoppingCartId();
+                Integer toId = chunk.get(end - 1).getShoppingCartId();
+
+                Integer count = transactionTemplate.execute(status -> {
+                    if (archive) {
+                        shoppingCartDAO.archiveStaleRange(fromId, toId, before, active);
+                    }
+                    return shoppingCartDAO.deleteStaleRange(fromId, toId, before, active);
+                });
+                for (Integer customerId : customers) {
+                    if (!active.contains(customerId) && cartEngine.isActive(customerId)) {
+                        cartEngine.refresh(customerId); // 清理期間才載入的購物車可能含有已刪除的項目
+                    }
+                }
+
+                total += count;
+                reclaimed.increment(count);
+                chunks++;
+                afterId = toId;
+                if (lastChunk || !pause()) {
+                    break;
+                }
+            }
+        } finally {
+            sample.stop(runTimer);
+            reclaimedPerRun.record(total);
+        }
+        if (total > 0) {
+            log.info("購物車清理完成：{} 筆逾期項目 ({}，{} 段)", total, archive ? "封存" : "刪除", chunks);
+        }
+        return total;
+    }
+
+    // 段與段之間暫停；被中斷 (例如關機) 時回傳 false，結束本次清理
+    private boolean pause() {
+        if (pauseBetweenChunks.isZero() || pauseBetweenChunks.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
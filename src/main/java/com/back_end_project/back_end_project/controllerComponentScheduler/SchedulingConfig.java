@@ -0,0 +1,12 @@
+package com.back_end_project.back_end_project.controllerComponentScheduler;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 啟用 @Scheduled 背景工作 (例如綠界付款通知的收件匣處理)。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
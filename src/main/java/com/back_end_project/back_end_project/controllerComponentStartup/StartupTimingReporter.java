@@ -0,0 +1,55 @@
+package com.back_end_project.back_end_project.controllerComponentStartup;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * 啟動耗時報告：應用程式就緒後記錄總耗時，並列出建立最久的 bean (例如 entityManagerFactory、flyway)。
+ * 總耗時另有 Spring Boot 內建的 application.started.time / application.ready.time 指標，
+ * 完整的步驟時間軸可由 /actuator/startup 查詢。
+ * 只有以 BackEndProjectApplication.main 啟動 (使用 BufferingApplicationStartup) 時才有各步驟的明細。
+ */
+@Component
+public class StartupTimingReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    private static final int SLOWEST_BEANS = 5;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        Duration timeTaken = event.getTimeTaken();
+        log.info("啟動完成，耗時 {} ms", timeTaken == null ? -1 : timeTaken.toMillis());
+
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> slowest = startup.getBufferedTimeline().getEvents().stream()
+                .filter(timelineEvent -> "spring.beans.instantiate".equals(timelineEvent.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_BEANS)
+                .toList();
+        for (StartupTimeline.TimelineEvent timelineEvent : slowest) {
+            log.info("  建立 bean {}：{} ms", beanName(timelineEvent.getStartupStep()), timelineEvent.getDuration().toMillis());
+        }
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,285 @@
+package com.back_end_project.back_end_project.controllerComponentStock;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 熱門商品 (stock.hot-products) 的記憶體分段庫存計數器。
+ *
+ * 每個熱門商品會先以條件式 UPDATE 從資料庫「租借」一批庫存 (stock.lease-size)，
+ * 分散在多個 AtomicInteger 分段中；結帳時以 CAS 從分段扣除，不再每筆都搶同一列的資料列鎖。
+ * 租借時資料庫已先扣除，因此多台伺服器同時運作也不會超賣；代價是資料庫顯示的庫存會少於實際可售數量，
+ * 差額為各伺服器手上尚未售出的租借量，關閉時 ({@link #returnLeases()}) 會退回資料庫。
+ *
+ * 每次建立分段都會配發新的租借世代 (generation)，扣除時回傳給呼叫端，退回時必須帶回同一個世代：
+ * 分段已被 {@link #reset(Integer)} 丟棄或已換成新的世代時，退回的數量直接寫回資料庫，
+ * 不會重新建立分段，也不會混入新的租借量 (否則關閉時會把不存在的庫存寫回資料庫而超賣)。
+ */
+@Component
+public class StripedStockCounter {
+
+    /**
+     * {@link #tryAcquire(Integer, int)} 庫存不足時的回傳值，不會是任何分段的世代。
+     */
+    public static final long NOT_ACQUIRED = 0L;
+
+    private final Set<Integer> hotProducts;
+    private final int stripes;
+    private final int leaseSize;
+    private final Map<Integer, Slot> counters = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    private final ProductsDAO productsDAO;
+    private final ProductCatalogCache productCatalogCache;
+    private final TransactionTemplate leaseTransaction;
+
+    public StripedStockCounter(
+            @Value("${stock.hot-products:}") Set<Integer> hotProducts,
+            @Value("${stock.stripes}") int stripes,
+            @Value("${stock.lease-size}") int leaseSize,
+            ProductsDAO productsDAO,
+            ProductCatalogCache productCatalogCache,
+            PlatformTransactionManager transactionManager) {
+        this.hotProducts = Set.copyOf(hotProducts);
+        this.stripes = stripes;
+        this.leaseSize = leaseSize;
+        this.productsDAO = productsDAO;
+        this.productCatalogCache = productCatalogCache;
+        // 租借獨立提交，不受外層結帳交易回滾影響 (回滾時改由 release 退回分段)
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param productsId 產品 ID
+     * @return 是否為熱門商品，由此計數器負責扣庫存
+     */
+    public boolean isHot(Integer productsId) {
+        return hotProducts.contains(productsId);
+    }
+
+    /**
+     * 嘗試扣除熱門商品庫存。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   數量
+     * @return 扣除所在分段的世代，退回時傳給 {@link #release(Integer, int, long)}；庫存不足時為 {@link #NOT_ACQUIRED}
+     */
+    public long tryAcquire(Integer productsId, int quantity) {
+        while (true) {
+            Slot slot = counters.computeIfAbsent(productsId, id -> new Slot(stripes, generations.incrementAndGet()));
+            long generation = tryAcquire(slot, productsId, quantity);
+            if (generation != NOT_ACQUIRED || counters.get(productsId) == slot) {
+                return generation;
+            }
+            // 扣除途中分段被 reset / returnLeases 丟棄 (已清空)，改用目前的分段重試
+        }
+    }
+
+    private long tryAcquire(Slot slot, Integer productsId, int quantity) {
+        AtomicInteger[] segments = slot.segments;
+        int home = (int) (Thread.currentThread().getId() % stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (tryTake(segments[(home + i) % stripes], quantity)) {
+                return slot.generation;
+            }
+        }
+        // 所有分段都不足：向資料庫租借，仍不足時合併各分段後再試一次
+        // 使用 ReentrantLock 而非 synchronized，持鎖期間的資料庫 I/O 不會釘住虛擬執行緒
+        slot.refillLock.lock();
+        try {
+            AtomicInteger target = segments[home];
+            if (tryTake(target, quantity)) {
+                return slot.generation;
+            }
+            int lease = Math.max(leaseSize, quantity);
+            int leased = 0;
+            if (lease(productsId, lease)) {
+                leased = lease;
+            } else if (lease > quantity && lease(productsId, quantity)) {
+                leased = quantity;
+            }
+            if (leased == 0) {
+                for (AtomicInteger segment : segments) {
+                    if (segment != target) {
+                        target.addAndGet(segment.getAndSet(0));
+                    }
+                }
+            } else if (!addToCurrentSlot(productsId, slot, target, leased)) {
+                // 租借期間分段已被丟棄：租到的數量不能加進已丟棄的分段，直接退回資料庫
+                int unused = leased;
+                leaseTransaction.executeWithoutResult(status -> productsDAO.incrementStock(productsId, unused));
+                productCatalogCache.invalidateProduct(productsId, null);
+                return NOT_ACQUIRED;
+            }
+            return tryTake(target, quantity) ? slot.generation : NOT_ACQUIRED;
+        } finally {
+            slot.refillLock.unlock();
+        }
+    }
+
+    /**
+     * 退回先前扣除的熱門商品庫存 (例如結帳交易回滾)。
+     * 分段仍是扣除時的世代才放回分段，否則以獨立交易直接寫回資料庫 (可在交易完成後的回呼中呼叫)。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   數量
+     * @param generation {@link #tryAcquire(Integer, int)} 回傳的世代；{@link #NOT_ACQUIRED} 代表已售出後退回，放回目前的分段即可
+     */
+    public void release(Integer productsId, int quantity, long generation) {
+        if (!addToSlot(productsId, quantity, generation)) {
+            leaseTransaction.executeWithoutResult(status -> productsDAO.incrementStock(productsId, quantity));
+            productCatalogCache.invalidateProduct(productsId, null);
+        }
+    }
+
+    /**
+     * 把已售出後退回的庫存 (例如取消已成立的訂單) 放回目前租借中的分段，不論世代。
+     *
+     * @param productsId 產品 ID
+     * @param quantity   數量
+     * @return 是否已放回分段；false 代表目前沒有租借中的分段，由呼叫端寫回資料庫
+     */
+    public boolean restock(Integer productsId, int quantity) {
+        return addToSlot(productsId, quantity, NOT_ACQUIRED);
+    }
+
+    /**
+     * 丟棄某商品手上的租借量 (例如管理者直接設定庫存時，資料庫數量即為新的實際值)。
+     * 之後的退回不會再放進被丟棄的分段，會直接寫回資料庫。
+     *
+     * @param productsId 產品 ID
+     */
+    public void reset(Integer productsId) {
+        Slot slot = counters.remove(productsId);
+        if (slot != null) {
+            // 清空被丟棄的分段，仍持有它的 tryAcquire 不會再從中售出
+            for (AtomicInteger segment : slot.segments) {
+                segment.set(0);
+            }
+        }
+    }
+
+    /**
+     * @return 各熱門商品目前手上的可售數量
+     */
+    public Map<Integer, Integer> snapshot() {
+        return counters.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+            int sum = 0;
+            for (AtomicInteger segment : entry.getValue().segments) {
+                sum += segment.get();
+            }
+            return sum;
+        }));
+    }
+
+    /**
+     * 關閉時把尚未售出的租借量退回資料庫。
+     */
+    @PreDestroy
+    public void returnLeases() {
+        for (Integer productsId : Set.copyOf(counters.keySet())) {
+            // 先移除再結算：之後的退回看不到這個分段，會直接寫回資料庫，不會遺漏也不會重複
+            Slot slot = counters.remove(productsId);
+            if (slot == null) {
+                continue;
+            }
+            int remaining = 0;
+            for (AtomicInteger segment : slot.segments) {
+                remaining += segment.getAndSet(0);
+            }
+            if (remaining > 0) {
+                int quantity = remaining;
+                leaseTransaction.executeWithoutResult(status -> productsDAO.incrementStock(productsId, quantity));
+            }
+        }
+    }
+
+    /**
+     * 在分段仍存在 (且世代相符) 時把數量加回分段；與 {@link #reset(Integer)} 的移除互斥，不會加進已被丟棄的分段。
+     *
+     * @param generation 指定的世代，{@link #NOT_ACQUIRED} 代表不限世代
+     * @return 是否已加回分段
+     */
+    private boolean addToSlot(Integer productsId, int quantity, long generation) {
+        boolean[] added = new boolean[1];
+        counters.computeIfPresent(productsId, (id, slot) -> {
+            if (generation == NOT_ACQUIRED || slot.generation == generation) {
+                slot.segments[(int) (Thread.currentThread().getId() % stripes)].addAndGet(quantity);
+                added[0] = true;
+            }
+            return slot;
+        });
+        return added[0];
+    }
+
+    /**
+     * 分段仍是目前的分段時才把租借到的數量加進 target；與 {@link #reset(Integer)}、{@link #returnLeases()} 的移除互斥。
+     *
+     * @return 是否已加入；false 代表分段已被丟棄
+     */
+    private boolean addToCurrentSlot(Integer productsId, Slot slot, AtomicInteger target, int quantity) {
+        boolean[] added = new boolean[1];
+        counters.computeIfPresent(productsId, (id, current) -> {
+            if (current == slot) {
+                target.addAndGet(quantity);
+                added[0] = true;
+            }
+            return current;
+        });
+        return added[0];
+    }
+
+    private boolean lease(Integer productsId, int quantity) {
+        Integer updated = leaseTransaction.execute(status -> productsDAO.decrementStock(productsId, quantity));
+        if (updated != null && updated > 0) {
+            productCatalogCache.invalidateProduct(productsId, null);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 單一商品的分段計數、補貨鎖與租借世代。
+     */
+    private static final class Slot {
+        private final AtomicInteger[] segments;
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private final long generation;
+
+        Slot(int stripes, long generation) {
+            this.generation = generation;
+            segments = new AtomicInteger[stripes];
+            for (int i = 0; i < stripes; i++) {
+                segments[i] = new AtomicInteger();
+            }
+        }
+    }
+
+    private static boolean tryTake(AtomicInteger segment, int quantity) {
+        while (true) {
+            int current = segment.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (segment.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.back_end_project.back_end_project.controllerComponentThreads;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * 虛擬執行緒釘住 (pinning) 監控：只在 spring.threads.virtual.enabled=true 且執行於 Java 21 以上時啟用。
+ *
+ * 以 JFR 事件串流訂閱 jdk.VirtualThreadPinned：虛擬執行緒在 synchronized 區塊或原生呼叫中阻塞超過
+ * virtual-threads.pinning-threshold 時，會佔住底下的載體執行緒 (carrier thread)，其他虛擬執行緒無法使用。
+ * 每次發生時 jvm.threads.virtual.pinned 加一 (標籤 frame 為最上層的應用程式或函式庫方法)，並記錄堆疊，
+ * 用來確認 Hibernate、HikariCP 與 mssql-jdbc 的呼叫路徑是否釘住載體執行緒。
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${virtual-threads.pinning-threshold}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("虛擬執行緒模式：監控超過 {} ms 的載體執行緒釘住", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String frame = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::describe)
+                .filter(name -> !name.startsWith("java.") && !name.startsWith("jdk."))
+                .findFirst()
+                .orElse("unknown");
+        Counter.builder("jvm.threads.virtual.pinned")
+                .description("虛擬執行緒阻塞時釘住載體執行緒的次數")
+                .tag("frame", frame)
+                .register(meterRegistry)
+                .increment();
+
+        StringBuilder stack = new StringBuilder();
+        frames.stream().limit(LOGGED_FRAMES).forEach(recorded -> stack.append("\n\tat ").append(describe(recorded)));
+        log.warn("虛擬執行緒釘住載體執行緒 {} ms：{}{}", event.getDuration().toMillis(), frame, stack);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
  * Categories 實體類，對應資料庫中的 Categories 表。
  */
 @Entity
-@Table(name = "Categories")
+@Table(name = "Categories", indexes = {
+        @Index(name = "IX_Categories_categoriesName", columnList = "categoriesName"),
+        @Index(name = "IX_Categories_isActive", columnList = "isActive")
+})
 public class Categories {
 
     @Id
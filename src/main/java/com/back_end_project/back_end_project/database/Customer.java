@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Customer 實體類，對應資料庫中的 Customer 表。
  */
 @Entity
-@Table(name = "Customer")
+@Table(name = "Customer", indexes = {
+        @Index(name = "IX_Customer_name", columnList = "name"),
+        @Index(name = "IX_Customer_phoneNumber", columnList = "phoneNumber")
+})
 public class Customer {
 
     @Id
@@ -22,7 +27,8 @@ public class Customer {
     private String email; // 客戶電子郵件 (唯一)
 
     @Column(nullable = false, length = 255)
-    private String passwordHash; // 加密密碼
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String passwordHash; // 加密密碼 (bcrypt，僅供寫入，不會出現在 API 回應中)
 
     @Column(length = 20)
     private String phoneNumber; // 客戶聯絡電話
@@ -63,8 +69,9 @@ public class Customer {
     @Column
     private LocalDateTime lastLogin; // 最後登入時間
 
-    @Column(columnDefinition = "VARBINARY(MAX)")
-    private byte[] image; // 個人照片
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private byte[] image; // 個人照片 (僅供上傳，實際存放於 ImageStore，讀取請用 /api/customers/{id}/image)
 
     @Column(length = 50, nullable = true)
     private String notes; // 客戶備註
@@ -0,0 +1,132 @@
+package com.back_end_project.back_end_project.database;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * EcpayCallbackInbox 實體類，對應資料庫中的 EcpayCallbackInbox 表。
+ * 綠界付款通知先落地到這張表再由背景工作套用到訂單，MerchantTradeNo 唯一，重送的通知不會被處理第二次。
+ */
+@Entity
+@Table(name = "EcpayCallbackInbox", indexes = {
+        @Index(name = "IX_EcpayCallbackInbox_status", columnList = "status, inboxId")
+})
+public class EcpayCallbackInbox {
+
+    public static final String STATUS_PENDING = "Pending";
+    public static final String STATUS_PROCESSED = "Processed";
+    public static final String STATUS_FAILED = "Failed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long inboxId; // 收件匣ID (主鍵)
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String merchantTradeNo; // 特店交易編號 (冪等鍵)
+
+    @Column(nullable = false)
+    private Integer rtnCode; // 綠界交易狀態碼，1 代表付款成功
+
+    @Column(length = 200)
+    private String rtnMsg; // 綠界交易訊息
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // 綠界送來的完整參數 (JSON)
+
+    @Column(nullable = false, length = 20)
+    private String status = STATUS_PENDING; // 處理狀態：Pending、Processed、Failed
+
+    @Column(nullable = false)
+    private LocalDateTime receivedDate = LocalDateTime.now(); // 收到通知的時間
+
+    @Column
+    private LocalDateTime processedDate; // 套用到訂單的時間
+
+    @Column(length = 255)
+    private String lastError; // 最近一次處理失敗的原因
+
+    @Column(nullable = false)
+    private Integer attempts = 0; // 套用失敗的次數，達到 ecpay.inbox.max-attempts 時標記為 Failed
+
+    // Getter 和 Setter
+
+    public Long getInboxId() {
+        return inboxId;
+    }
+
+    public void setInboxId(Long inboxId) {
+        this.inboxId = inboxId;
+    }
+
+    public String getMerchantTradeNo() {
+        return merchantTradeNo;
+    }
+
+    public void setMerchantTradeNo(String merchantTradeNo) {
+        this.merchantTradeNo = merchantTradeNo;
+    }
+
+    public Integer getRtnCode() {
+        return rtnCode;
+    }
+
+    public void setRtnCode(Integer rtnCode) {
+        this.rtnCode = rtnCode;
+    }
+
+    public String getRtnMsg() {
+        return rtnMsg;
+    }
+
+    public void setRtnMsg(String rtnMsg) {
+        this.rtnMsg = rtnMsg;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getReceivedDate() {
+        return receivedDate;
+    }
+
+    public void setReceivedDate(LocalDateTime receivedDate) {
+        this.receivedDate = receivedDate;
+    }
+
+    public LocalDateTime getProcessedDate() {
+        return processedDate;
+    }
+
+    public void setProcessedDate(LocalDateTime processedDate) {
+        this.processedDate = processedDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+}
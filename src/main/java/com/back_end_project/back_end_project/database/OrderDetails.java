@@ -9,18 +9,25 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * OrderDetails 實體類，對應資料庫中的 OrderDetails 表。
  */
 @Entity
-@Table(name = "OrderDetails")
+@Table(name = "OrderDetails", indexes = {
+        @Index(name = "IX_OrderDetails_ordersId", columnList = "ordersId"),
+        @Index(name = "IX_OrderDetails_productsId", columnList = "productsId")
+})
+@NamedEntityGraph(name = "OrderDetails.withProduct",
+        attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product.category"),
+        subgraphs = @NamedSubgraph(name = "product.category", attributeNodes = @NamedAttributeNode("category")))
 public class OrderDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer orderDetailsId; // 訂單明細ID (主鍵)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderDetailsSeq")
+    @SequenceGenerator(name = "orderDetailsSeq", sequenceName = "OrderDetails_SEQ", allocationSize = 50)
+    private Integer orderDetailsId; // 訂單明細ID (主鍵，pooled 序列一次配置 50 個，才能批次新增)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ordersId", nullable = false)
     private Orders order; // 關聯到 Orders 表 (多對一)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "productsId", nullable = false)
     @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
     private Products product; // 關聯到 Products 表 (多對一)
@@ -8,16 +8,21 @@ import java.time.LocalDateTime;
  * Orders 實體類，對應資料庫中的 Orders 表。
  */
 @Entity
-@Table(name = "Orders")
+@Table(name = "Orders", indexes = {
+        @Index(name = "IX_Orders_customerId", columnList = "customerId"),
+        @Index(name = "IX_Orders_isCancelled", columnList = "isCancelled"),
+        @Index(name = "IX_Orders_orderDate", columnList = "orderDate, ordersId")
+})
+@NamedEntityGraph(name = "Orders.withCustomer", attributeNodes = @NamedAttributeNode("customer"))
 public class Orders {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer ordersId; // 訂單ID (主鍵)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customerId", nullable = false)
-    private Customer customer; // 關聯到 Customer 表 (多對一)
+    private Customer customer; // 關聯到 Customer 表 (多對一，未以 Orders.withCustomer 載入時 JSON 只輸出 {"customerId": N})
 
     @Column
     private LocalDateTime orderDate = LocalDateTime.now(); // 訂單日期
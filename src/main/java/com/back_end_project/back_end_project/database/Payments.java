@@ -15,7 +15,7 @@ public class Payments {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer paymentsId; // 交易ID (主鍵)
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ordersId", nullable = false, unique = true)
     private Orders order; // 關聯到 Orders 表 (一對一)
 
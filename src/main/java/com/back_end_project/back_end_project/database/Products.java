@@ -4,18 +4,26 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Products 實體類，對應資料庫中的 Products 表。
  */
 @Entity
-@Table(name = "Products")
+@Table(name = "Products", indexes = {
+        @Index(name = "IX_Products_categoriesId", columnList = "categoriesId"),
+        @Index(name = "IX_Products_price", columnList = "price"),
+        @Index(name = "IX_Products_isFeatured", columnList = "isFeatured"),
+        @Index(name = "IX_Products_productName", columnList = "productName")
+})
+@NamedEntityGraph(name = "Products.withCategory", attributeNodes = @NamedAttributeNode("category"))
 public class Products {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer productsId; // 產品ID (主鍵)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoriesId", nullable = false)
     private Categories category; // 所屬分類 (多對一)
 
@@ -55,8 +63,9 @@ public class Products {
     @Column
     private LocalDateTime updatedDate = LocalDateTime.now(); // 更新時間
 
-    @Column(columnDefinition = "VARBINARY(MAX)")
-    private byte[] image; // 產品圖片
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private byte[] image; // 產品圖片 (僅供上傳，實際存放於 ImageStore，讀取請用 /api/products/{id}/image)
 
     @Column
     private Float rating = 0.0f; // 評分
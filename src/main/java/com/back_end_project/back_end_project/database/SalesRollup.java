@@ -0,0 +1,120 @@
+package com.back_end_project.back_end_project.database;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * SalesRollup 實體類，對應資料庫中的 SalesRollup 表。
+ * 每個 (日期, 時段, 產品) 一列的銷售彙總，由 SalesRollupUpdater 依 OrderDetails 與 Orders 重算；
+ * 報表 (/api/reports) 只讀取此表，不掃描 OrderDetails。只保留 ID 不建立外鍵，產品刪除後仍保留歷史銷售。
+ */
+@Entity
+@Table(name = "SalesRollup", uniqueConstraints = {
+        @UniqueConstraint(name = "UX_SalesRollup_bucket_productsId", columnNames = { "bucketDate", "bucketHour", "productsId" })
+})
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer salesRollupId; // 彙總列ID (主鍵)
+
+    @Column(nullable = false)
+    private LocalDate bucketDate; // 訂單日期
+
+    @Column(nullable = false)
+    private Integer bucketHour; // 訂單時段 (0 ~ 23 時)
+
+    @Column(nullable = false)
+    private Integer productsId; // 產品ID
+
+    @Column
+    private Integer categoriesId; // 產品所屬分類ID (彙總當時)
+
+    @Column(nullable = false)
+    private Long quantity; // 售出數量
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal revenue; // 營收 (未取消訂單的明細小計合計)
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal paidRevenue; // 已付款營收 (付款狀態為 Paid 的訂單)
+
+    @Column(nullable = false)
+    private LocalDateTime updatedDate; // 最後一次重算的時間
+
+    // Getter 和 Setter
+
+    public Integer getSalesRollupId() {
+        return salesRollupId;
+    }
+
+    public void setSalesRollupId(Integer salesRollupId) {
+        this.salesRollupId = salesRollupId;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public Integer getBucketHour() {
+        return bucketHour;
+    }
+
+    public void setBucketHour(Integer bucketHour) {
+        this.bucketHour = bucketHour;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public void setProductsId(Integer productsId) {
+        this.productsId = productsId;
+    }
+
+    public Integer getCategoriesId() {
+        return categoriesId;
+    }
+
+    public void setCategoriesId(Integer categoriesId) {
+        this.categoriesId = categoriesId;
+    }
+
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getPaidRevenue() {
+        return paidRevenue;
+    }
+
+    public void setPaidRevenue(BigDecimal paidRevenue) {
+        this.paidRevenue = paidRevenue;
+    }
+
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+}
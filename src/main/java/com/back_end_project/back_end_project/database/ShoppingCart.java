@@ -3,22 +3,33 @@ package com.back_end_project.back_end_project.database;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+
 /**
  * ShoppingCart 實體類，對應資料庫中的 ShoppingCart 表。
  */
 @Entity
-@Table(name = "ShoppingCart")
+@Table(name = "ShoppingCart", uniqueConstraints = @UniqueConstraint(
+        name = "UX_ShoppingCart_customerId_productsId", columnNames = { "customerId", "productsId" }), indexes = {
+        // 依客戶查詢直接使用上面的唯一索引 (customerId 為第一欄)，不另建索引
+        @Index(name = "IX_ShoppingCart_productsId", columnList = "productsId")
+})
+@NamedEntityGraph(name = "ShoppingCart.withProduct",
+        attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product.category"),
+        subgraphs = @NamedSubgraph(name = "product.category", attributeNodes = @NamedAttributeNode("category")))
 public class ShoppingCart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer shoppingCartId; // 購物車ID (主鍵)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shoppingCartSeq")
+    @SequenceGenerator(name = "shoppingCartSeq", sequenceName = "ShoppingCart_SEQ", allocationSize = 50)
+    private Integer shoppingCartId; // 購物車ID (主鍵，pooled 序列一次配置 50 個，才能批次新增)
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customerId", nullable = false)
-    private Customer customer; // 關聯到 Customer 表 (多對一)
+    @JsonIncludeProperties("customerId")
+    private Customer customer; // 關聯到 Customer 表 (多對一，JSON 只輸出 {"customerId": N})
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "productsId", nullable = false)
     private Products product; // 關聯到 Products 表 (多對一)
 
@@ -0,0 +1,92 @@
+package com.back_end_project.back_end_project.database;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * ShoppingCartArchive 實體類，對應資料庫中的 ShoppingCartArchive 表。
+ * 由購物車清理排程搬移過來的逾期未結帳購物車項目，只保留 ID 不建立外鍵，客戶或產品刪除後仍可保留紀錄。
+ */
+@Entity
+@Table(name = "ShoppingCartArchive")
+public class ShoppingCartArchive {
+
+    @Id
+    private Integer shoppingCartId; // 原購物車ID (主鍵)
+
+    @Column(nullable = false)
+    private Integer customerId; // 客戶ID
+
+    @Column(nullable = false)
+    private Integer productsId; // 產品ID
+
+    @Column(nullable = false)
+    private Integer quantity; // 購買數量
+
+    @Column
+    private LocalDateTime dateAdded; // 加入購物車的時間
+
+    @Column(length = 50)
+    private String notes; // 備註
+
+    @Column(nullable = false)
+    private LocalDateTime archivedDate; // 搬移到封存表的時間
+
+    // Getter 和 Setter
+
+    public Integer getShoppingCartId() {
+        return shoppingCartId;
+    }
+
+    public void setShoppingCartId(Integer shoppingCartId) {
+        this.shoppingCartId = shoppingCartId;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Integer customerId) {
+        this.customerId = customerId;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+
+    public void setProductsId(Integer productsId) {
+        this.productsId = productsId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public LocalDateTime getDateAdded() {
+        return dateAdded;
+    }
+
+    public void setDateAdded(LocalDateTime dateAdded) {
+        this.dateAdded = dateAdded;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDateTime getArchivedDate() {
+        return archivedDate;
+    }
+
+    public void setArchivedDate(LocalDateTime archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+}
@@ -0,0 +1,11 @@
+package com.back_end_project.back_end_project.service;
+
+/**
+ * 結帳時購物車項目已被另一個結帳 (例如重複送出) 刪除所拋出的例外，會使所在交易回滾。
+ */
+public class CartAlreadyCheckedOutException extends RuntimeException {
+
+    public CartAlreadyCheckedOutException(Integer customerId) {
+        super("客戶 " + customerId + " 的購物車已在結帳中或已結帳");
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.CategoriesDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
 import com.back_end_project.back_end_project.database.Categories;
 
 import java.util.List;
@@ -19,6 +20,9 @@ public class CategoriesService {
     @Autowired
     private CategoriesDAO categoriesDAO; // 注入 CategoriesDAO，負責與資料庫交互
 
+    @Autowired
+    private ProductCatalogCache productCatalogCache; // 產品內嵌分類資料，分類異動時需清除產品快取
+
     /**
      * 保存或更新分類資料。
      *
@@ -27,7 +31,9 @@ public class CategoriesService {
      */
     @Transactional
     public Categories saveCategory(Categories category) {
-        return categoriesDAO.save(category);
+        Categories saved = categoriesDAO.save(category);
+        productCatalogCache.invalidateCategory(saved.getCategoriesId());
+        return saved;
     }
 
     /**
@@ -80,6 +86,7 @@ public class CategoriesService {
         Optional<Categories> category = categoriesDAO.findById(categoriesId);
         if (category.isPresent()) {
             categoriesDAO.deleteById(categoriesId);
+            productCatalogCache.invalidateCategory(categoriesId);
             return true;
         }
         return false;
@@ -91,5 +98,6 @@ public class CategoriesService {
     @Transactional
     public void deleteAllCategories() {
         categoriesDAO.deleteAll();
+        productCatalogCache.invalidateAll();
     }
 }
@@ -0,0 +1,169 @@
+package com.back_end_project.back_end_project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutRequestDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutResultDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.PaymentsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.controllerComponentCart.CartEngine;
+import com.back_end_project.back_end_project.controllerComponentCart.CartFlushException;
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Payments;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CheckoutService 類，將客戶購物車在單一交易內轉為訂單、訂單明細與付款資料。
+ */
+@Service
+public class CheckoutService {
+
+    @Autowired
+    private ShoppingCartDAO shoppingCartDAO; // 讀取與清空購物車
+
+    @Autowired
+    private CartEngine cartEngine; // 記憶體中的購物車，結帳前先寫回
+
+    @Autowired
+    private OrdersDAO ordersDAO; // 建立訂單
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO; // 批次建立訂單明細
+
+    @Autowired
+    private PaymentsDAO paymentsDAO; // 建立付款資料
+
+    @Autowired
+    private StockReservationService stockReservationService; // 扣庫存
+
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater; // 提交後更新銷售彙總
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 寫回購物車之後才開始結帳交易
+
+    /**
+     * 結帳：扣庫存、建立訂單與明細、建立待付款資料並刪除已結帳的購物車項目，任何一步失敗則全部回滾。
+     * 記憶體中的購物車在交易開始前寫回 (寫回使用獨立交易，不與結帳交易同時佔用兩條連線)。
+     *
+     * @param request 結帳請求
+     * @return 結帳結果
+     * @throws IllegalArgumentException   客戶 ID 無效或購物車為空時
+     * @throws InsufficientStockException 任一商品庫存不足時
+     * @throws CartAlreadyCheckedOutException 同一購物車同時被另一個結帳處理時
+     * @throws CartFlushException 記憶體中的購物車無法寫回時 (不會建立訂單)
+     */
+    public CheckoutResultDTO checkout(CheckoutRequestDTO request) {
+        if (request.getCustomerId() == null) {
+            throw new IllegalArgumentException("Invalid customer ID");
+        }
+        cartEngine.flush(request.getCustomerId()); // 先把記憶體中尚未寫回的變更寫入資料表
+        return new TransactionTemplate(transactionManager).execute(status -> placeOrder(request));
+    }
+
+    /**
+     * 在結帳交易內把已寫回的購物車轉為訂單。
+     */
+    private CheckoutResultDTO placeOrder(CheckoutRequestDTO request) {
+        Integer customerId = request.getCustomerId();
+        List<ShoppingCart> cart = new ArrayList<>();
+        for (ShoppingCart item : shoppingCartDAO.findByCustomerId(customerId)) {
+            if (!Boolean.TRUE.equals(item.getAccountPaid())) {
+                cart.add(item);
+            }
+        }
+        if (cart.isEmpty()) {
+            throw new IllegalArgumentException("Shopping cart is empty");
+        }
+
+        // 先刪除要結帳的購物車項目 (已付款的項目不在這次訂單中，保留)。
+        // 刪除會鎖住這些列：同時進行的另一個結帳會等到這裡提交後才刪除，刪除筆數不足即代表已被結帳，整筆回滾
+        List<Integer> checkedOut = new ArrayList<>();
+        for (ShoppingCart item : cart) {
+            checkedOut.add(item.getShoppingCartId());
+        }
+        if (shoppingCartDAO.deleteByIds(checkedOut) < checkedOut.size()) {
+            throw new CartAlreadyCheckedOutException(customerId);
+        }
+
+        // 扣庫存
+        List<StockLineDTO> stockLines = new ArrayList<>();
+        for (ShoppingCart item : cart) {
+            stockLines.add(new StockLineDTO(item.getProduct().getProductsId(), item.getQuantity()));
+        }
+        stockReservationService.reserve(stockLines);
+
+        // 計算明細與總金額 (折扣金額 = 單價 × 折扣率)
+        List<OrderDetails> details = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (ShoppingCart item : cart) {
+            Products product = item.getProduct();
+            BigDecimal unitPrice = product.getPrice();
+            float rate = product.getDiscountRate() == null ? 0f : product.getDiscountRate();
+            BigDecimal discount = unitPrice.multiply(BigDecimal.valueOf(rate)).setScale(2, RoundingMode.HALF_UP);
+
+            OrderDetails detail = new OrderDetails();
+            detail.setProduct(product);
+            detail.setQuantity(item.getQuantity());
+            detail.setUnitPrice(unitPrice);
+            detail.setDiscount(discount);
+            details.add(detail);
+            totalAmount = totalAmount.add(detail.getSubTotal());
+        }
+
+        // 建立訂單
+        Customer customer = cart.get(0).getCustomer();
+        Orders order = new Orders();
+        order.setCustomer(customer);
+        order.setTotalAmount(totalAmount);
+        order.setPaymentStatus("Pending");
+        order.setShippingStatus("Pending");
+        order.setShippingAddress(request.getShippingAddress() != null ? request.getShippingAddress() : customer.getAddress());
+        order.setBillingAddress(request.getBillingAddress() != null ? request.getBillingAddress() : customer.getAddress());
+        order.setPaymentMethod(request.getPaymentMethod());
+        order.setNotes(request.getNotes());
+        ordersDAO.save(order);
+
+        // 批次建立訂單明細
+        for (OrderDetails detail : details) {
+            detail.setOrder(order);
+        }
+        orderDetailsDAO.saveAll(details);
+        salesRollupUpdater.orderChanged(order);
+
+        // 建立待付款資料
+        Payments payment = new Payments();
+        payment.setOrder(order);
+        payment.setPaymentMethod(request.getPaymentMethod());
+        payment.setTransactionAmount(totalAmount);
+        payment.setTransactionStatus("Pending");
+        paymentsDAO.save(payment);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // 只移除已結帳的項目：寫回之後才加入或修改的項目仍在記憶體中，之後照常寫回
+                cartEngine.forgetLines(customerId, checkedOut);
+            }
+        });
+
+        return new CheckoutResultDTO(order.getOrdersId(), payment.getPaymentsId(), totalAmount, details.size());
+    }
+}
@@ -2,12 +2,18 @@ package com.back_end_project.back_end_project.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.CustomerDAO;
+import com.back_end_project.back_end_project.controllerComponentImage.ImageStore;
+import com.back_end_project.back_end_project.controllerComponentImage.StoredImage;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.PasswordHashingService;
 import com.back_end_project.back_end_project.database.Customer;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * CustomerService 類，用於處理與客戶相關的業務邏輯。
@@ -18,15 +24,59 @@ public class CustomerService {
     @Autowired
     private CustomerDAO customerDAO; // 注入 CustomerDAO，負責與資料庫交互
 
+    @Autowired
+    private ImageStore imageStore; // 圖片儲存，圖片不再存放於資料表中
+
+    @Autowired
+    private PasswordHashingService passwordHashingService; // 密碼雜湊 (bcrypt)
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 雜湊完成後才開始寫入的交易
+
     /**
      * 保存或更新客戶資料。
+     * 密碼在交易開始前雜湊，等待雜湊執行緒池時不佔用資料庫連線。
      *
      * @param customer 客戶物件
      * @return 保存或更新後的客戶物件
+     * @throws java.util.concurrent.RejectedExecutionException 雜湊佇列已滿時
+     * @throws java.util.concurrent.CompletionException        雜湊失敗時
      */
-    @Transactional
     public Customer saveCustomer(Customer customer) {
-        return customerDAO.save(customer);
+        String password = customer.getPasswordHash();
+        if (password != null && !passwordHashingService.isHashed(password)) {
+            customer.setPasswordHash(passwordHashingService.encode(password).join()); // 新密碼一律存成 bcrypt 雜湊
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Customer saved = customerDAO.save(customer);
+            byte[] image = customer.getImage();
+            if (image != null && image.length > 0) {
+                imageStore.save("customers", saved.getCustomerId(), image);
+            }
+            return saved;
+        });
+    }
+
+    /**
+     * 查詢客戶圖片。
+     * 若圖片仍存放在舊版的 image 欄位，會先搬移到 ImageStore 並清除欄位內容。
+     *
+     * @param customerId 客戶 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    @Transactional
+    public Optional<StoredImage> findCustomerImage(Integer customerId) {
+        Optional<StoredImage> stored = imageStore.find("customers", customerId);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        Optional<byte[]> legacy = customerDAO.findLegacyImage(customerId);
+        if (legacy.isEmpty()) {
+            return Optional.empty();
+        }
+        imageStore.save("customers", customerId, legacy.get());
+        customerDAO.clearLegacyImage(customerId);
+        return imageStore.find("customers", customerId);
     }
 
     /**
@@ -88,6 +138,7 @@ public class CustomerService {
     public boolean deleteCustomerById(Integer customerId) {
         if (customerDAO.findById(customerId).isPresent()) {
             customerDAO.deleteById(customerId);
+            imageStore.delete("customers", customerId);
             return true;
         }
         return false;
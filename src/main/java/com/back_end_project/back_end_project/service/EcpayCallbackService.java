@@ -0,0 +1,214 @@
+package com.back_end_project.back_end_project.service;
+
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.EcpayCallbackInboxDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.PaymentsDAO;
+import com.back_end_project.back_end_project.controllerComponentLogging.PaymentLogContext;
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
+import com.back_end_project.back_end_project.database.EcpayCallbackInbox;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Payments;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EcpayCallbackService 類，負責綠界付款通知的收件與套用。
+ * 收件時只寫入 EcpayCallbackInbox；實際更新訂單、付款與庫存由 EcpayInboxWorker 在背景分批呼叫 applyBatch。
+ */
+@Service
+public class EcpayCallbackService {
+
+    private static final Logger log = LoggerFactory.getLogger(EcpayCallbackService.class);
+
+    static final String PAYMENT_PENDING = "Pending";
+    static final String PAYMENT_PAID = "Paid";
+    static final String PAYMENT_FAILED = "Failed";
+
+    @Autowired
+    private EcpayCallbackInboxDAO ecpayCallbackInboxDAO;
+
+    @Autowired
+    private OrdersDAO ordersDAO;
+
+    @Autowired
+    private PaymentsDAO paymentsDAO;
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 每筆通知一個交易
+
+    @Value("${ecpay.inbox.max-attempts}")
+    private int maxAttempts; // 暫時性錯誤最多嘗試的次數
+
+    /**
+     * 將一筆已驗證的付款通知寫入收件匣。
+     * 同一個 MerchantTradeNo 只會收一次，綠界重送的通知直接略過。
+     * 兩個重送同時抵達時由 MerchantTradeNo 的唯一索引擋下，呼叫端會收到 DataIntegrityViolationException。
+     *
+     * @param params 綠界送來的參數
+     * @return 新收件為 true，重複通知為 false
+     * @throws IllegalArgumentException 缺少 MerchantTradeNo 或 RtnCode 時
+     */
+    @Transactional
+    public boolean receive(Map<String, String> params) {
+        String merchantTradeNo = params.get("MerchantTradeNo");
+        String rtnCode = params.get("RtnCode");
+        if (merchantTradeNo == null || merchantTradeNo.isBlank() || rtnCode == null) {
+            throw new IllegalArgumentException("Missing MerchantTradeNo or RtnCode");
+        }
+        if (ecpayCallbackInboxDAO.existsByMerchantTradeNo(merchantTradeNo)) {
+            return false;
+        }
+
+        EcpayCallbackInbox inbox = new EcpayCallbackInbox();
+        inbox.setMerchantTradeNo(merchantTradeNo);
+        inbox.setRtnCode(Integer.valueOf(rtnCode.trim()));
+        inbox.setRtnMsg(params.get("RtnMsg"));
+        inbox.setPayload(new JSONObject(params).toString());
+        ecpayCallbackInboxDAO.save(inbox);
+        return true;
+    }
+
+    /**
+     * 套用一批付款通知，每筆通知各自一個交易，一筆失敗不會回滾同批的其他通知。
+     * 只有付款狀態仍為 Pending 的訂單會被更新，所以同一張訂單不會被重複入帳或重複退庫存。
+     * 資料本身有問題 (IllegalArgumentException) 直接標記 Failed；其他錯誤累計嘗試次數並保留 Pending 等待下次輪詢，
+     * 達到 ecpay.inbox.max-attempts 後才標記 Failed。
+     *
+     * @param batch 待處理的通知 (由 EcpayCallbackInboxDAO.findPending 取得)
+     * @return 成功套用的通知數
+     */
+    public int applyBatch(List<EcpayCallbackInbox> batch) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int applied = 0;
+        for (EcpayCallbackInbox inbox : batch) {
+            try (MDC.MDCCloseable correlation = PaymentLogContext.correlate(inbox.getMerchantTradeNo())) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        apply(inbox);
+                        inbox.setStatus(EcpayCallbackInbox.STATUS_PROCESSED);
+                        inbox.setProcessedDate(LocalDateTime.now());
+                        ecpayCallbackInboxDAO.save(inbox);
+                    });
+                    applied++;
+                    log.info("綠界付款通知已套用，RtnCode={}", inbox.getRtnCode());
+                } catch (IllegalArgumentException e) {
+                    // 資料本身有問題，重試也不會成功，直接標記失敗
+                    log.warn("綠界通知無法套用：{}", e.getMessage());
+                    recordFailure(transactionTemplate, inbox, e, true);
+                } catch (RuntimeException e) {
+                    log.warn("綠界通知套用失敗 (第 {} 次)，稍後重試", inbox.getAttempts() + 1, e);
+                    recordFailure(transactionTemplate, inbox, e, false);
+                }
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * 以獨立交易記錄失敗：累計嘗試次數與原因，不可重試或已達上限時標記 Failed。
+     */
+    private void recordFailure(TransactionTemplate transactionTemplate, EcpayCallbackInbox inbox, RuntimeException e,
+            boolean permanent) {
+        int attempts = inbox.getAttempts() + 1;
+        inbox.setAttempts(attempts);
+        inbox.setLastError(truncate(e.getMessage() != null ? e.getMessage() : e.getClass().getName()));
+        if (permanent || attempts >= maxAttempts) {
+            inbox.setStatus(EcpayCallbackInbox.STATUS_FAILED);
+            inbox.setProcessedDate(LocalDateTime.now());
+            if (!permanent) {
+                log.error("綠界通知已嘗試 {} 次仍無法套用，標記為失敗", attempts);
+            }
+        } else {
+            inbox.setStatus(EcpayCallbackInbox.STATUS_PENDING);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> ecpayCallbackInboxDAO.save(inbox));
+        } catch (RuntimeException saveError) {
+            // 連失敗都記不下來 (例如資料庫中斷)：維持 Pending，下次輪詢重新處理
+            log.error("無法記錄綠界通知的處理失敗", saveError);
+        }
+    }
+
+    private void apply(EcpayCallbackInbox inbox) {
+        Integer ordersId = parseOrdersId(inbox.getMerchantTradeNo());
+        Orders order = ordersDAO.findById(ordersId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + ordersId));
+        boolean paid = inbox.getRtnCode() == 1;
+        String target = paid ? PAYMENT_PAID : PAYMENT_FAILED;
+        if (!PAYMENT_PENDING.equals(order.getPaymentStatus())) {
+            if (target.equals(order.getPaymentStatus())) {
+                return; // 訂單已是這筆通知要設定的狀態，視為已處理
+            }
+            // 例如已取消的訂單收到付款成功：不覆寫訂單，留下失敗紀錄供人工處理
+            throw new IllegalArgumentException("Order " + ordersId + " is already " + order.getPaymentStatus()
+                    + ", callback would set " + target);
+        }
+
+        order.setPaymentStatus(target);
+        order.setUpdatedDate(LocalDateTime.now());
+        if (!paid) {
+            // 付款失敗：取消訂單並退回結帳時預留的庫存 (原本是直接刪除訂單，但訂單已有明細與付款紀錄)
+            order.setIsCancelled(true);
+            order.setCancellationDate(LocalDateTime.now());
+            List<StockLineDTO> lines = orderDetailsDAO.findStockLinesByOrderId(ordersId);
+            if (!lines.isEmpty()) {
+                stockReservationService.release(lines);
+            }
+        }
+        ordersDAO.save(order);
+        salesRollupUpdater.orderChanged(order); // 付款狀態改變，已付款營收與取消訂單都要重算
+
+        paymentsDAO.findByOrderId(ordersId).ifPresent(payment -> updatePayment(payment, paid, inbox));
+    }
+
+    private void updatePayment(Payments payment, boolean paid, EcpayCallbackInbox inbox) {
+        payment.setTransactionStatus(paid ? PAYMENT_PAID : PAYMENT_FAILED);
+        payment.setTransactionDate(LocalDateTime.now());
+        payment.setGatewayResponse(inbox.getPayload());
+        paymentsDAO.save(payment);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 255 ? message : message.substring(0, 255);
+    }
+
+    /**
+     * 從 MerchantTradeNo 取出訂單 ID，前端送出的格式為 "...ID{ordersId}"，也接受純數字。
+     */
+    static Integer parseOrdersId(String merchantTradeNo) {
+        String orderId = merchantTradeNo;
+        int index = orderId.indexOf("ID");
+        if (index != -1) {
+            orderId = orderId.substring(index + 2); // 取得 "ID" 後的數字部分
+        }
+        try {
+            return Integer.valueOf(orderId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid MerchantTradeNo: " + merchantTradeNo);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.back_end_project.back_end_project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailExportDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderExportDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.back_end_project.back_end_project.controllerComponentExport.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ExportService 類，將訂單與訂單明細以 CSV 或 NDJSON 串流匯出 (會計對帳用)。
+ *
+ * 回傳的 StreamingResponseBody 在 MVC 的非同步執行緒上執行：開一個唯讀交易，以只能往前的游標逐筆讀取，
+ * 每讀一列就寫到回應，記憶體用量與匯出的列數無關。匯出期間會占用一條資料庫連線。
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final List<String> ORDER_HEADER = List.of("ordersId", "orderDate", "customerId", "customerName",
+            "totalAmount", "paymentMethod", "paymentStatus", "shippingStatus", "isCancelled", "cancellationDate");
+
+    private static final List<String> ORDER_DETAIL_HEADER = List.of("orderDetailsId", "ordersId", "orderDate",
+            "paymentStatus", "isCancelled", "productsId", "sku", "productName", "quantity", "unitPrice", "discount",
+            "subTotal");
+
+    @Autowired
+    private OrdersDAO ordersDAO; // 讀取訂單
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO; // 讀取訂單明細
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 匯出在非同步執行緒上自行開交易
+
+    @Autowired
+    private ObjectMapper objectMapper; // NDJSON 與 API 回應使用相同的序列化設定
+
+    @Autowired
+    private MeterRegistry meterRegistry; // export.rows 指標
+
+    @Value("${export.fetch-size}")
+    private int fetchSize; // 每次從資料庫取回的列數
+
+    /**
+     * 匯出一段期間的訂單。
+     *
+     * @param from   訂單日期起 (含)
+     * @param to     訂單日期迄 (含)
+     * @param format 匯出格式
+     * @return 寫出匯出資料的回應本體
+     * @throws IllegalArgumentException 日期範圍不正確時
+     */
+    public StreamingResponseBody exportOrders(LocalDate from, LocalDate to, DataFormat format) {
+        checkRange(from, to);
+        return export("orders", format, ORDER_HEADER,
+                () -> ordersDAO.streamForExport(from.atStartOfDay(), endOf(to), fetchSize),
+                (OrderExportDTO row) -> Arrays.asList(row.getOrdersId(), row.getOrderDate(), row.getCustomerId(),
+                        row.getCustomerName(), row.getTotalAmount(), row.getPaymentMethod(), row.getPaymentStatus(),
+                        row.getShippingStatus(), row.getIsCancelled(), row.getCancellationDate()));
+    }
+
+    /**
+     * 匯出一段期間 (以訂單日期為準) 的訂單明細。
+     *
+     * @param from   訂單日期起 (含)
+     * @param to     訂單日期迄 (含)
+     * @param format 匯出格式
+     * @return 寫出匯出資料的回應本體
+     * @throws IllegalArgumentException 日期範圍不正確時
+     */
+    public StreamingResponseBody exportOrderDetails(LocalDate from, LocalDate to, DataFormat format) {
+        checkRange(from, to);
+        return export("order-details", format, ORDER_DETAIL_HEADER,
+                () -> orderDetailsDAO.streamForExport(from.atStartOfDay(), endOf(to), fetchSize),
+                (OrderDetailExportDTO row) -> Arrays.asList(row.getOrderDetailsId(), row.getOrdersId(),
+                        row.getOrderDate(), row.getPaymentStatus(), row.getIsCancelled(), row.getProductsId(),
+                        row.getSku(), row.getProductName(), row.getQuantity(), row.getUnitPrice(), row.getDiscount(),
+                        row.getSubTotal()));
+    }
+
+    private <T> StreamingResponseBody export(String dataset, DataFormat format, List<String> header,
+            Supplier<Stream<T>> rows, Function<T, List<Object>> columns) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return outputStream -> {
+            long start = System.nanoTime();
+            Long count = readOnly.execute(status -> {
+                ExportWriter<T> writer = new ExportWriter<>(format, outputStream, objectMapper, header, columns);
+                try (Stream<T> stream = rows.get()) {
+                    stream.forEach(writer::write);
+                }
+                return writer.finish();
+            });
+            meterRegistry.counter("export.rows", "dataset", dataset, "format", format.getExtension()).increment(count);
+            log.info("匯出 {} ({})：{} 筆，耗時 {} ms", dataset, format.getExtension(), count,
+                    (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+    private static LocalDateTime endOf(LocalDate to) {
+        return to.plusDays(1).atStartOfDay();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+    }
+}
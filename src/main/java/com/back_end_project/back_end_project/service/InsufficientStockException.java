@@ -0,0 +1,18 @@
+package com.back_end_project.back_end_project.service;
+
+/**
+ * 扣庫存時庫存不足所拋出的例外，會使所在交易回滾。
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final Integer productsId;
+
+    public InsufficientStockException(Integer productsId) {
+        super("產品 " + productsId + " 庫存不足");
+        this.productsId = productsId;
+    }
+
+    public Integer getProductsId() {
+        return productsId;
+    }
+}
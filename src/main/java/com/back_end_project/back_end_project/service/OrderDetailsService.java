@@ -6,6 +6,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.back_end_project.back_end_project.RepositoryDTO.OrderDetailDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
 import com.back_end_project.back_end_project.database.OrderDetails;
 
 import java.util.List;
@@ -20,6 +21,9 @@ public class OrderDetailsService {
     @Autowired
     private OrderDetailsDAO orderDetailsDAO; // 注入 OrderDetailsDAO，負責與資料庫交互
 
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater; // 明細變動後更新銷售彙總
+
     /**
      * 保存或更新訂單明細資料。
      *
@@ -28,7 +32,11 @@ public class OrderDetailsService {
      */
     @Transactional
     public OrderDetails saveOrderDetails(OrderDetails orderDetails) {
-        return orderDetailsDAO.save(orderDetails);
+        OrderDetails saved = orderDetailsDAO.save(orderDetails);
+        if (saved.getOrder() != null) {
+            salesRollupUpdater.orderChanged(saved.getOrder().getOrdersId()); // 明細的訂單可能只有 ID，以 ID 標記
+        }
+        return saved;
     }
 
     /**
@@ -82,6 +90,9 @@ public class OrderDetailsService {
     public boolean deleteOrderDetailsById(Integer orderDetailsId) {
         Optional<OrderDetails> optionalOrderDetails = orderDetailsDAO.findById(orderDetailsId);
         if (optionalOrderDetails.isPresent()) {
+            if (optionalOrderDetails.get().getOrder() != null) {
+                salesRollupUpdater.orderChanged(optionalOrderDetails.get().getOrder().getOrdersId());
+            }
             orderDetailsDAO.deleteById(orderDetailsId);
             return true;
         }
@@ -96,6 +107,7 @@ public class OrderDetailsService {
     @Transactional
     public void deleteOrderDetailsByOrderId(Integer ordersId) {
         orderDetailsDAO.deleteByOrderId(ordersId);
+        salesRollupUpdater.orderChanged(ordersId);
     }
 
     /**
@@ -104,5 +116,6 @@ public class OrderDetailsService {
     @Transactional
     public void deleteAllOrderDetails() {
         orderDetailsDAO.deleteAll();
+        salesRollupUpdater.allChanged();
     }
 }
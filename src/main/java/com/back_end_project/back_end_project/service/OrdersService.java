@@ -1,7 +1,11 @@
 package com.back_end_project.back_end_project.service;
 
+import com.back_end_project.back_end_project.RepositoryDTO.KeysetPageDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSearchDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSummaryDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersRepository;
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
 import com.back_end_project.back_end_project.database.Orders;
 
 import jakarta.transaction.Transactional;
@@ -9,8 +13,14 @@ import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * OrdersService 類，用於處理與訂單相關的業務邏輯。
@@ -18,12 +28,19 @@ import java.util.Optional;
 @Service
 public class OrdersService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50; // 搜尋未指定 size 時的每頁筆數
+    private static final int MAX_PAGE_SIZE = 200; // 單頁最多筆數
+    private static final Set<String> SORT_FIELDS = Set.of("orderDate", "totalAmount", "ordersId");
+
     @Autowired
     private OrdersDAO ordersDAO; // 注入 OrdersDAO，負責與資料庫交互
 
     @Autowired
     private OrdersRepository ordersRepository;
 
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater; // 訂單變動後更新銷售彙總
+
     /**
      * 保存或更新訂單資料。
      *
@@ -32,7 +49,10 @@ public class OrdersService {
      */
     @Transactional
     public Orders saveOrder(Orders order) {
-        return ordersDAO.save(order);
+        salesRollupUpdater.orderChanging(order.getOrdersId()); // 訂單日期可能被修改，舊時段也要重算
+        Orders saved = ordersDAO.save(order);
+        salesRollupUpdater.orderChanged(saved);
+        return saved;
     }
 
     /**
@@ -75,6 +95,77 @@ public class OrdersService {
         return ordersDAO.findByIsCancelled(isCancelled);
     }
 
+    /**
+     * 依條件搜尋訂單摘要 (後台訂單查詢)。
+     * 多取一筆用來判斷是否還有下一頁；游標記錄最後一筆的排序欄位值與訂單 ID，並綁定排序方式。
+     *
+     * @param search 篩選條件、排序、每頁筆數與游標
+     * @return 訂單摘要分頁結果
+     * @throws IllegalArgumentException 排序欄位、方向或游標不正確時
+     */
+    public KeysetPageDTO<OrderSummaryDTO> searchOrders(OrderSearchDTO search) {
+        if (search.getSort() == null || !SORT_FIELDS.contains(search.getSort())) {
+            throw new IllegalArgumentException("Unsupported sort: " + search.getSort());
+        }
+        if (!"asc".equalsIgnoreCase(search.getDirection()) && !"desc".equalsIgnoreCase(search.getDirection())) {
+            throw new IllegalArgumentException("Unsupported direction: " + search.getDirection());
+        }
+        int pageSize = search.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(search.getSize(), MAX_PAGE_SIZE));
+
+        Object afterValue = null;
+        Integer afterId = null;
+        if (search.getCursor() != null && !search.getCursor().isBlank()) {
+            String[] parts = decodeCursor(search);
+            afterValue = parseSortValue(search.getSort(), parts[1]);
+            afterId = Integer.valueOf(parts[2]);
+        }
+
+        List<OrderSummaryDTO> rows = ordersDAO.search(search, afterValue, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new KeysetPageDTO<>(rows, null);
+        }
+        List<OrderSummaryDTO> items = rows.subList(0, pageSize);
+        return new KeysetPageDTO<>(items, encodeCursor(search, items.get(pageSize - 1)));
+    }
+
+    // 游標內容為 "排序.方向|最後一筆的排序值|最後一筆的訂單 ID"，以 URL 安全的 Base64 編碼
+    private static String encodeCursor(OrderSearchDTO search, OrderSummaryDTO last) {
+        Object value = switch (search.getSort()) {
+            case "orderDate" -> last.getOrderDate();
+            case "totalAmount" -> last.getTotalAmount() == null ? null : last.getTotalAmount().toPlainString();
+            default -> null;
+        };
+        String cursor = cursorPrefix(search) + "|" + (value == null ? "" : value) + "|" + last.getOrdersId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(OrderSearchDTO search) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(search.getCursor()), StandardCharsets.UTF_8).split("\\|", -1);
+        if (parts.length != 3 || !parts[0].equals(cursorPrefix(search))) {
+            throw new IllegalArgumentException("Cursor does not match sort " + cursorPrefix(search));
+        }
+        return parts;
+    }
+
+    private static String cursorPrefix(OrderSearchDTO search) {
+        return search.getSort() + "." + search.getDirection().toLowerCase();
+    }
+
+    private static Object parseSortValue(String sort, String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return switch (sort) {
+                case "orderDate" -> LocalDateTime.parse(value);
+                case "totalAmount" -> new BigDecimal(value);
+                default -> null;
+            };
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
     /**
      * 根據訂單 ID 刪除訂單資料。
      *
@@ -85,6 +176,7 @@ public class OrdersService {
     public boolean deleteOrderById(Integer ordersId) {
         Optional<Orders> optionalOrder = ordersDAO.findById(ordersId);
         if (optionalOrder.isPresent()) {
+            salesRollupUpdater.orderChanged(optionalOrder.get());
             ordersDAO.deleteById(ordersId);
             return true;
         }
@@ -97,6 +189,7 @@ public class OrdersService {
     @Transactional
     public void deleteAllOrders() {
         ordersDAO.deleteAll();
+        salesRollupUpdater.allChanged();
     }
 
     // 查詢最後一筆訂單
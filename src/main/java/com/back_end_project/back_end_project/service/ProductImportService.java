@@ -0,0 +1,231 @@
+package com.back_end_project.back_end_project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportErrorDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportResultDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductImportRowDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.CategoriesDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
+import com.back_end_project.back_end_project.controllerComponentFormat.DataFormat;
+import com.back_end_project.back_end_project.controllerComponentImport.ProductImportReader;
+import com.back_end_project.back_end_project.database.Categories;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ProductImportService 類，批次匯入產品 (例如新一季菜單)。
+ *
+ * 上傳內容逐列讀取與驗證 (必填欄位、分類名稱、同一檔案內的產品編號重複)，通過的列每 products.import.chunk-size
+ * 筆為一段，以產品編號 MERGE 寫入，一段一個交易。某段寫入失敗時改為逐筆寫入，找出失敗的列，其餘照常寫入。
+ * 分類在開始時一次載入，匯入期間新增的分類不會被看見。
+ *
+ * 指標：products.import.rows (依 result=inserted、updated、failed 分別計數)。
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_CHUNK_SIZE = 2000; // 查詢既有產品編號時的參數個數，低於 SQL Server 的 2100 上限
+
+    @Autowired
+    private ProductsDAO productsDAO; // MERGE 寫入產品
+
+    @Autowired
+    private CategoriesDAO categoriesDAO; // 分類名稱對照
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache; // 匯入後清除產品目錄快取
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 每段一個交易
+
+    @Autowired
+    private ObjectMapper objectMapper; // 解析 NDJSON
+
+    @Autowired
+    private MeterRegistry meterRegistry; // products.import.rows 指標
+
+    @Value("${products.import.chunk-size}")
+    private int chunkSize; // 每段寫入的列數
+
+    @Value("${products.import.max-errors}")
+    private int maxErrors; // 錯誤報告最多保留的筆數
+
+    /**
+     * 匯入產品：已存在的產品編號更新，其餘新增。
+     *
+     * @param inputStream 上傳的內容 (UTF-8)
+     * @param format      CSV 或 NDJSON
+     * @return 匯入結果與逐列的錯誤報告
+     * @throws IllegalArgumentException CSV 標題列不正確時 (此時不會寫入任何資料)
+     * @throws IOException              讀取上傳內容失敗時 (已寫入的段不會回滾)
+     */
+    public ProductImportResultDTO importProducts(InputStream inputStream, DataFormat format) throws IOException {
+        ProductImportReader reader = new ProductImportReader(inputStream, format, objectMapper);
+        Map<String, Integer> categories = loadCategories();
+        Set<String> seenSkus = new HashSet<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int size = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        List<ProductImportReader.Entry> chunk = new ArrayList<>(size);
+        long start = System.nanoTime();
+        try {
+            for (ProductImportReader.Entry entry = reader.next(); entry != null; entry = reader.next()) {
+                result.setReceived(result.getReceived() + 1);
+                String error = entry.error() != null ? entry.error() : validate(entry.row(), categories, seenSkus);
+                if (error != null) {
+                    fail(result, entry, error);
+                    continue;
+                }
+                chunk.add(entry);
+                if (chunk.size() == size) {
+                    writeChunk(transactionTemplate, chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(transactionTemplate, chunk, result);
+            }
+        } finally {
+            if (result.getInserted() + result.getUpdated() > 0) {
+                productCatalogCache.invalidateAll();
+            }
+            meterRegistry.counter("products.import.rows", "result", "inserted").increment(result.getInserted());
+            meterRegistry.counter("products.import.rows", "result", "updated").increment(result.getUpdated());
+            meterRegistry.counter("products.import.rows", "result", "failed").increment(result.getFailed());
+        }
+        log.info("產品匯入完成：{} 筆，新增 {}、更新 {}、失敗 {}，耗時 {} ms", result.getReceived(), result.getInserted(),
+                result.getUpdated(), result.getFailed(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // 分類名稱 (不分大小寫) 對應分類 ID，同名時取 ID 最小的分類
+    private Map<String, Integer> loadCategories() {
+        Map<String, Integer> categories = new HashMap<>();
+        for (Categories category : categoriesDAO.findAll()) {
+            if (category.getCategoriesName() != null) {
+                categories.merge(key(category.getCategoriesName()), category.getCategoriesId(), Math::min);
+            }
+        }
+        return categories;
+    }
+
+    // 回傳錯誤原因，通過時回傳 null 並記下產品編號與分類 ID
+    private static String validate(ProductImportRowDTO row, Map<String, Integer> categories, Set<String> seenSkus) {
+        row.setSku(row.getSku() == null ? null : row.getSku().trim());
+        if (row.getSku() == null || row.getSku().isEmpty()) {
+            return "sku is required";
+        }
+        if (row.getSku().length() > 50) {
+            return "sku must be at most 50 characters";
+        }
+        if (row.getProductName() == null || row.getProductName().isBlank()) {
+            return "productName is required";
+        }
+        if (row.getProductName().length() > 255) {
+            return "productName must be at most 255 characters";
+        }
+        if (row.getPrice() == null) {
+            return "price is required";
+        }
+        if (row.getPrice().signum() < 0) {
+            return "price must not be negative";
+        }
+        if (row.getPrice().setScale(2, RoundingMode.HALF_UP).precision() > 18) {
+            return "price is too large";
+        }
+        if (row.getQuantityInStock() != null && row.getQuantityInStock() < 0) {
+            return "quantityInStock must not be negative";
+        }
+        if (row.getThresholdLevel() != null && row.getThresholdLevel() < 0) {
+            return "thresholdLevel must not be negative";
+        }
+        if (row.getDiscountRate() != null && row.getDiscountRate() < 0) {
+            return "discountRate must not be negative";
+        }
+        if (row.getWarehouseLocation() != null && row.getWarehouseLocation().length() > 255) {
+            return "warehouseLocation must be at most 255 characters";
+        }
+        if (row.getCategoriesName() == null || row.getCategoriesName().isBlank()) {
+            return "categoriesName is required";
+        }
+        Integer categoriesId = categories.get(key(row.getCategoriesName()));
+        if (categoriesId == null) {
+            return "Unknown category: " + row.getCategoriesName();
+        }
+        if (!seenSkus.add(key(row.getSku()))) { // SQL Server 預設定序不分大小寫
+            return "Duplicate sku in upload: " + row.getSku();
+        }
+        row.setCategoriesId(categoriesId);
+        return null;
+    }
+
+    private void writeChunk(TransactionTemplate transactionTemplate, List<ProductImportReader.Entry> chunk,
+            ProductImportResultDTO result) {
+        List<ProductImportRowDTO> rows = chunk.stream().map(ProductImportReader.Entry::row).toList();
+        try {
+            int inserted = transactionTemplate.execute(status -> upsert(rows));
+            count(result, inserted, rows.size() - inserted);
+        } catch (RuntimeException e) {
+            log.warn("產品匯入第 {} 行起的一段寫入失敗，改為逐筆寫入：{}", chunk.get(0).line(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (ProductImportReader.Entry entry : chunk) {
+                try {
+                    int inserted = transactionTemplate.execute(status -> upsert(List.of(entry.row())));
+                    count(result, inserted, 1 - inserted);
+                } catch (RuntimeException rowError) {
+                    fail(result, entry, NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    // 寫入一段，回傳其中新增的筆數
+    private int upsert(List<ProductImportRowDTO> rows) {
+        Set<String> existing = new HashSet<>();
+        productsDAO.findExistingSkus(rows.stream().map(ProductImportRowDTO::getSku).toList())
+                .forEach(sku -> existing.add(key(sku)));
+        productsDAO.upsertBySku(rows);
+        return (int) rows.stream().filter(row -> !existing.contains(key(row.getSku()))).count();
+    }
+
+    private static void count(ProductImportResultDTO result, int inserted, int updated) {
+        result.setInserted(result.getInserted() + inserted);
+        result.setUpdated(result.getUpdated() + updated);
+    }
+
+    private void fail(ProductImportResultDTO result, ProductImportReader.Entry entry, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ProductImportErrorDTO(entry.line(), entry.sku(), message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+}
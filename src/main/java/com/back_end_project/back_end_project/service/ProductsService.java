@@ -4,11 +4,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.back_end_project.back_end_project.RepositoryDTO.KeysetPageDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSummaryDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
+import com.back_end_project.back_end_project.controllerComponentImage.ImageStore;
+import com.back_end_project.back_end_project.controllerComponentStock.StripedStockCounter;
+import com.back_end_project.back_end_project.controllerComponentImage.StoredImage;
 import com.back_end_project.back_end_project.database.Products;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * ProductsService 類，用於處理與產品相關的業務邏輯。
@@ -16,9 +23,20 @@ import java.util.List;
 @Service
 public class ProductsService {
 
+    private static final int MAX_PAGE_SIZE = 200; // 單頁最多筆數
+
     @Autowired
     private ProductsDAO productsDAO; // 注入 ProductsDAO，負責與資料庫交互
 
+    @Autowired
+    private ProductCatalogCache productCatalogCache; // 產品目錄快取，讀取走快取、寫入時清除
+
+    @Autowired
+    private StripedStockCounter stripedStockCounter; // 熱門商品的記憶體庫存計數器
+
+    @Autowired
+    private ImageStore imageStore; // 圖片儲存，圖片不再存放於資料表中
+
     /**
      * 保存或更新產品資料。
      *
@@ -27,7 +45,53 @@ public class ProductsService {
      */
     @Transactional
     public Products saveProduct(Products product) {
-        return productsDAO.save(product);
+        Products saved = productsDAO.save(product);
+        productCatalogCache.invalidateProduct(saved.getProductsId(),
+                saved.getCategory() == null ? null : saved.getCategory().getCategoriesId());
+        byte[] image = product.getImage();
+        if (image != null && image.length > 0) {
+            imageStore.save("products", saved.getProductsId(), image);
+        }
+        return saved;
+    }
+
+    /**
+     * 查詢產品圖片。
+     * 若圖片仍存放在舊版的 image 欄位，會先搬移到 ImageStore 並清除欄位內容。
+     *
+     * @param productsId 產品 ID
+     * @return 包含圖片的 Optional 物件，若無圖片則為 Optional.empty()
+     */
+    @Transactional
+    public Optional<StoredImage> findProductImage(Integer productsId) {
+        Optional<StoredImage> stored = imageStore.find("products", productsId);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        Optional<byte[]> legacy = productsDAO.findLegacyImage(productsId);
+        if (legacy.isEmpty()) {
+            return Optional.empty();
+        }
+        imageStore.save("products", productsId, legacy.get());
+        productsDAO.clearLegacyImage(productsId);
+        return imageStore.find("products", productsId);
+    }
+
+    /**
+     * 直接設定產品庫存數量，以單一 UPDATE 完成，避免讀取後寫回造成的遺失更新。
+     *
+     * @param productsId 產品 ID
+     * @param newStock   新的庫存數量
+     * @return 更新後的產品物件，若產品不存在則返回 null。
+     */
+    @Transactional
+    public Products updateStock(Integer productsId, int newStock) {
+        if (productsDAO.updateStock(productsId, newStock) == 0) {
+            return null;
+        }
+        stripedStockCounter.reset(productsId);
+        productCatalogCache.invalidateProduct(productsId, null);
+        return productsDAO.findById(productsId).orElse(null);
     }
 
     /**
@@ -37,6 +101,16 @@ public class ProductsService {
      * @return 如果找到則返回產品物件，否則返回 null。
      */
     public Products findProductById(Integer productsId) {
+        return productCatalogCache.getById(productsId, () -> productsDAO.findById(productsId)).orElse(null);
+    }
+
+    /**
+     * 根據產品 ID 直接從資料庫查詢產品資料 (不經快取)，供修改後再保存使用。
+     *
+     * @param productsId 產品 ID
+     * @return 如果找到則返回產品物件，否則返回 null。
+     */
+    public Products findProductByIdForUpdate(Integer productsId) {
         return productsDAO.findById(productsId).orElse(null);
     }
 
@@ -56,7 +130,26 @@ public class ProductsService {
      * @return 產品資料的列表
      */
     public List<Products> findAllProducts() {
-        return productsDAO.findAll();
+        return productCatalogCache.getAll(productsDAO::findAll);
+    }
+
+    /**
+     * 以游標分頁查詢產品摘要。
+     * 多取一筆用來判斷是否還有下一頁，避免額外的 COUNT 查詢。
+     *
+     * @param cursor 上一頁回傳的游標，第一頁傳 null
+     * @param size   每頁筆數
+     * @return 產品摘要分頁結果
+     */
+    public KeysetPageDTO<ProductSummaryDTO> findProductSummaries(Integer cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ProductSummaryDTO> rows = productsDAO.findSummariesAfter(cursor, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new KeysetPageDTO<>(rows, null);
+        }
+        List<ProductSummaryDTO> items = rows.subList(0, pageSize);
+        String next = String.valueOf(items.get(pageSize - 1).getProductsId());
+        return new KeysetPageDTO<>(items, next);
     }
 
     /**
@@ -66,7 +159,7 @@ public class ProductsService {
      * @return 符合條件的產品列表
      */
     public List<Products> findProductsByCategoryId(Integer categoriesId) {
-        return productsDAO.findByCategoryId(categoriesId);
+        return productCatalogCache.getByCategory(categoriesId, () -> productsDAO.findByCategoryId(categoriesId));
     }
 
     /**
@@ -86,7 +179,7 @@ public class ProductsService {
      * @return 特色產品的列表
      */
     public List<Products> findFeaturedProducts() {
-        return productsDAO.findFeaturedProducts();
+        return productCatalogCache.getFeatured(productsDAO::findFeaturedProducts);
     }
 
     /**
@@ -99,6 +192,8 @@ public class ProductsService {
     public boolean deleteProductById(Integer productsId) {
         if (productsDAO.findById(productsId).isPresent()) {
             productsDAO.deleteById(productsId);
+            productCatalogCache.invalidateProduct(productsId, null);
+            imageStore.delete("products", productsId);
             return true;
         }
         return false;
@@ -110,5 +205,6 @@ public class ProductsService {
     @Transactional
     public void deleteAllProducts() {
         productsDAO.deleteAll();
+        productCatalogCache.invalidateAll();
     }
 }
@@ -0,0 +1,102 @@
+package com.back_end_project.back_end_project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CategorySalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.ProductSalesDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.SalesBucketDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.SalesRollupDAO;
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ReportsService 類，提供銷售報表。所有查詢都只讀取 SalesRollup 彙總表。
+ */
+@Service
+public class ReportsService {
+
+    private static final int MAX_RANGE_DAYS = 366; // 單次查詢最多天數
+    private static final int MAX_TOP_PRODUCTS = 100; // 熱銷排行最多筆數
+
+    @Autowired
+    private SalesRollupDAO salesRollupDAO; // 注入 SalesRollupDAO，負責與資料庫交互
+
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater; // 重算彙總
+
+    /**
+     * 依日期或小時查詢營收。
+     *
+     * @param from        起日 (含)
+     * @param to          迄日 (含)
+     * @param granularity day 或 hour
+     * @return 時間區段銷售
+     * @throws IllegalArgumentException 日期範圍或 granularity 不正確時
+     */
+    @Transactional(readOnly = true)
+    public List<SalesBucketDTO> findRevenue(LocalDate from, LocalDate to, String granularity) {
+        checkRange(from, to);
+        if ("day".equalsIgnoreCase(granularity)) {
+            return salesRollupDAO.findDailySales(from, to);
+        }
+        if ("hour".equalsIgnoreCase(granularity)) {
+            return salesRollupDAO.findHourlySales(from, to);
+        }
+        throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+    }
+
+    /**
+     * 查詢熱銷產品。
+     *
+     * @param from  起日 (含)
+     * @param to    迄日 (含)
+     * @param limit 筆數 (1 ~ 100)
+     * @return 產品銷售，營收由高到低
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> findBestSellers(LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to);
+        return salesRollupDAO.findTopProducts(from, to, Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS)));
+    }
+
+    /**
+     * 查詢分類銷售。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 分類銷售，營收由高到低
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySalesDTO> findCategorySales(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return salesRollupDAO.findCategorySales(from, to);
+    }
+
+    /**
+     * 在背景重算一段日期的彙總 (補建歷史資料或手動對帳)，日期範圍在呼叫時就檢查。
+     *
+     * @param from 起日 (含)
+     * @param to   迄日 (含)
+     * @return 完成值為重算的時段數
+     * @throws IllegalArgumentException 日期範圍不正確時
+     */
+    public CompletableFuture<Integer> rebuild(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return salesRollupUpdater.rebuildAsync(from, to);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range exceeds " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
@@ -2,15 +2,22 @@ package com.back_end_project.back_end_project.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.back_end_project.back_end_project.RepositoryDTO.CartLineDTO;
 import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.controllerComponentCart.CartEngine;
 import com.back_end_project.back_end_project.database.ShoppingCart;
 
 import java.util.List;
 
 /**
  * ShoppingCartService 類，用於處理與購物車相關的業務邏輯。
+ * 以客戶或購物車 ID 為單位的操作交給 CartEngine 在記憶體中處理，再由其批次寫回資料表；
+ * 跨客戶的查詢與刪除則先寫回所有變更，再直接操作資料表，交易提交後才丟棄記憶體中的購物車。
  */
 @Service
 public class ShoppingCartService {
@@ -18,15 +25,58 @@ public class ShoppingCartService {
     @Autowired
     private ShoppingCartDAO shoppingCartDAO; // 注入 ShoppingCartDAO，負責與資料庫交互
 
+    @Autowired
+    private CartEngine cartEngine; // 記憶體中的購物車 (write-behind)
+
+    @Autowired
+    private PlatformTransactionManager transactionManager; // 寫回之後才開始刪除的交易
+
     /**
      * 保存或更新購物車項目。
+     * 購物車中已有同一產品時改為設定該項目的數量，重複送出同一請求不會產生重複項目。
      *
      * @param shoppingCart 購物車物件
      * @return 保存或更新後的購物車物件
+     * @throws IllegalArgumentException 客戶或產品不存在時
      */
-    @Transactional
     public ShoppingCart saveShoppingCart(ShoppingCart shoppingCart) {
-        return shoppingCartDAO.save(shoppingCart);
+        return cartEngine.save(shoppingCart);
+    }
+
+    /**
+     * 更新購物車項目。
+     *
+     * @param shoppingCartId 購物車 ID
+     * @param shoppingCart   新的購物車資料
+     * @return 更新後的購物車物件，若項目不存在則返回 null。
+     * @throws IllegalArgumentException 客戶或產品不存在時
+     */
+    public ShoppingCart updateShoppingCart(Integer shoppingCartId, ShoppingCart shoppingCart) {
+        return cartEngine.update(shoppingCartId, shoppingCart);
+    }
+
+    /**
+     * 把多個項目合併進客戶的購物車：已有的產品累加數量，沒有的新增。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      要合併的產品與數量
+     * @return 合併後的購物車項目列表
+     * @throws IllegalArgumentException 客戶或產品不存在、數量不是正數時
+     */
+    public List<ShoppingCart> mergeShoppingCart(Integer customerId, List<CartLineDTO> lines) {
+        return cartEngine.merge(customerId, lines);
+    }
+
+    /**
+     * 以指定的項目整批取代客戶的購物車。
+     *
+     * @param customerId 客戶 ID
+     * @param lines      新的產品與數量
+     * @return 取代後的購物車項目列表
+     * @throws IllegalArgumentException 客戶或產品不存在、數量不是正數時
+     */
+    public List<ShoppingCart> replaceShoppingCart(Integer customerId, List<CartLineDTO> lines) {
+        return cartEngine.replace(customerId, lines);
     }
 
     /**
@@ -36,7 +86,7 @@ public class ShoppingCartService {
      * @return 如果找到則返回購物車物件，否則返回 null。
      */
     public ShoppingCart findShoppingCartById(Integer shoppingCartId) {
-        return shoppingCartDAO.findById(shoppingCartId).orElse(null);
+        return cartEngine.findLine(shoppingCartId).orElse(null);
     }
 
     /**
@@ -46,7 +96,7 @@ public class ShoppingCartService {
      * @return 該客戶的購物車項目列表
      */
     public List<ShoppingCart> findShoppingCartsByCustomerId(Integer customerId) {
-        return shoppingCartDAO.findByCustomerId(customerId);
+        return cartEngine.getCart(customerId);
     }
 
     /**
@@ -56,6 +106,7 @@ public class ShoppingCartService {
      * @return 該產品的購物車項目列表
      */
     public List<ShoppingCart> findShoppingCartsByProductsId(Integer productsId) {
+        cartEngine.flushAll();
         return shoppingCartDAO.findByProductsId(productsId);
     }
 
@@ -65,6 +116,7 @@ public class ShoppingCartService {
      * @return 所有購物車項目的列表
      */
     public List<ShoppingCart> findAllShoppingCarts() {
+        cartEngine.flushAll();
         return shoppingCartDAO.findAll();
     }
 
@@ -74,13 +126,8 @@ public class ShoppingCartService {
      * @param shoppingCartId 購物車 ID
      * @return 如果刪除成功則返回 true，否則返回 false。
      */
-    @Transactional
     public boolean deleteShoppingCartById(Integer shoppingCartId) {
-        if (shoppingCartDAO.findById(shoppingCartId).isPresent()) {
-            shoppingCartDAO.deleteById(shoppingCartId);
-            return true;
-        }
-        return false;
+        return cartEngine.removeLine(shoppingCartId);
     }
 
     /**
@@ -88,9 +135,8 @@ public class ShoppingCartService {
      *
      * @param customerId 客戶 ID
      */
-    @Transactional
     public void deleteShoppingCartsByCustomerId(Integer customerId) {
-        shoppingCartDAO.deleteByCustomerId(customerId);
+        cartEngine.clear(customerId);
     }
 
     /**
@@ -98,16 +144,31 @@ public class ShoppingCartService {
      *
      * @param productsId 產品 ID
      */
-    @Transactional
     public void deleteShoppingCartsByProductsId(Integer productsId) {
-        shoppingCartDAO.deleteByProductsId(productsId);
+        deleteThenEvictAll(() -> shoppingCartDAO.deleteByProductsId(productsId));
     }
 
     /**
      * 刪除所有購物車項目。
      */
-    @Transactional
     public void deleteAllShoppingCarts() {
-        shoppingCartDAO.deleteAll();
+        deleteThenEvictAll(shoppingCartDAO::deleteAll);
+    }
+
+    /**
+     * 先在交易外寫回所有購物車 (寫回使用獨立交易)，再於交易中執行刪除；
+     * 提交後才丟棄記憶體中的購物車，回滾時記憶體中的購物車仍與資料表一致。
+     */
+    private void deleteThenEvictAll(Runnable delete) {
+        cartEngine.flushAll();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            delete.run();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cartEngine.evictAll(); // 記憶體中的購物車可能含有被刪除的項目，下次存取時重新載入
+                }
+            });
+        });
     }
 }
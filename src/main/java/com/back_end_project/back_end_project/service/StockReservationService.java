@@ -0,0 +1,154 @@
+package com.back_end_project.back_end_project.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
+import com.back_end_project.back_end_project.controllerComponentStock.StripedStockCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StockReservationService 類，負責結帳時的扣庫存與退回。
+ * 一般商品以條件式 UPDATE 批次扣除，熱門商品改由 StripedStockCounter 在記憶體中扣除。
+ */
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private ProductsDAO productsDAO; // 注入 ProductsDAO，負責與資料庫交互
+
+    @Autowired
+    private StripedStockCounter stripedStockCounter; // 熱門商品的記憶體分段計數器
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache; // 庫存變動後清除產品快取
+
+    /**
+     * 預留 (扣除) 一張訂單所有明細的庫存，任何一項不足則整批失敗並回滾。
+     * 同一產品的多行會先合併，並依產品 ID 排序後更新，避免多筆交易交錯鎖定造成死結。
+     *
+     * @param lines 扣庫存明細
+     * @throws InsufficientStockException 任一產品庫存不足時
+     */
+    @Transactional
+    public void reserve(List<StockLineDTO> lines) {
+        Map<Integer, Integer> merged = merge(lines);
+        List<StockLineDTO> databaseLines = new ArrayList<>();
+        List<StockLineDTO> hotLines = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : merged.entrySet()) {
+            StockLineDTO line = new StockLineDTO(entry.getKey(), entry.getValue());
+            if (stripedStockCounter.isHot(entry.getKey())) {
+                hotLines.add(line);
+            } else {
+                databaseLines.add(line);
+            }
+        }
+
+        if (!databaseLines.isEmpty()) {
+            int[] results = productsDAO.decrementStock(databaseLines);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == 0) {
+                    throw new InsufficientStockException(databaseLines.get(i).getProductsId());
+                }
+            }
+            for (StockLineDTO line : databaseLines) {
+                productCatalogCache.invalidateProduct(line.getProductsId(), null);
+            }
+        }
+
+        List<HotAcquisition> acquired = new ArrayList<>();
+        for (StockLineDTO line : hotLines) {
+            long generation = stripedStockCounter.tryAcquire(line.getProductsId(), line.getQuantity());
+            if (generation == StripedStockCounter.NOT_ACQUIRED) {
+                releaseHot(acquired);
+                throw new InsufficientStockException(line.getProductsId());
+            }
+            acquired.add(new HotAcquisition(line, generation));
+        }
+        // 熱門商品的扣除不在資料庫交易內，外層交易回滾時要退回記憶體計數器
+        if (!acquired.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseHot(acquired);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 退回庫存 (例如訂單取消)。
+     * 熱門商品在外層交易提交後才放回記憶體分段：交易回滾或重試時不會重複退回。
+     *
+     * @param lines 退回明細
+     */
+    @Transactional
+    public void release(List<StockLineDTO> lines) {
+        List<StockLineDTO> hotLines = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : merge(lines).entrySet()) {
+            if (stripedStockCounter.isHot(entry.getKey())) {
+                hotLines.add(new StockLineDTO(entry.getKey(), entry.getValue()));
+                continue;
+            }
+            productsDAO.incrementStock(entry.getKey(), entry.getValue());
+            productCatalogCache.invalidateProduct(entry.getKey(), null);
+        }
+        if (hotLines.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            restockHot(hotLines);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restockHot(hotLines);
+            }
+        });
+    }
+
+    /**
+     * 熱門商品有租借中的分段時放回分段，否則 (從未租借或已被重設) 以獨立交易寫回資料庫。
+     */
+    private void restockHot(List<StockLineDTO> lines) {
+        for (StockLineDTO line : lines) {
+            stripedStockCounter.release(line.getProductsId(), line.getQuantity(), StripedStockCounter.NOT_ACQUIRED);
+        }
+    }
+
+    private void releaseHot(List<HotAcquisition> acquisitions) {
+        for (HotAcquisition acquisition : acquisitions) {
+            stripedStockCounter.release(acquisition.line().getProductsId(), acquisition.line().getQuantity(),
+                    acquisition.generation());
+        }
+    }
+
+    /**
+     * 已從記憶體分段扣除的熱門商品明細，與扣除時的租借世代 (退回時用來判斷分段是否仍有效)。
+     */
+    private record HotAcquisition(StockLineDTO line, long generation) {
+    }
+
+    private static Map<Integer, Integer> merge(List<StockLineDTO> lines) {
+        Map<Integer, Integer> merged = new TreeMap<>();
+        for (StockLineDTO line : lines) {
+            if (line.getProductsId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("無效的庫存明細");
+            }
+            merged.merge(line.getProductsId(), line.getQuantity(), Integer::sum);
+        }
+        return merged;
+    }
+}
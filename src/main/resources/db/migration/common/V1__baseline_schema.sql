@@ -0,0 +1,156 @@
+-- 基準結構 (SQL Server)：改用 Flyway 之前、由 ddl-auto=update 建立並已上線的資料庫結構。
+-- 既有資料庫會被 baseline 為 V1，不會執行這個腳本，只會執行 V2 之後的遷移；全新的資料庫從這裡建立，再依序執行相同的遷移。
+-- 因此這裡只能描述上線時的樣子 (所有主鍵皆為 identity、沒有序列、收件匣與封存表)，之後的結構變更一律新增版本。
+-- Customer.image 與 Products.image 是舊版存放圖片的欄位，entity 已不對應，但搬移圖片的程式仍會讀取。
+
+create table Categories (
+    categoriesId int identity not null,
+    isActive bit,
+    createdDate datetime2(6),
+    updatedDate datetime2(6),
+    description varchar(500),
+    categoriesName varchar(255) not null,
+    primary key (categoriesId)
+);
+
+create table Customer (
+    birthDate date,
+    customerId int identity not null,
+    isActive bit,
+    isSuperAdmin bit,
+    loyaltyPoints int,
+    createdDate datetime2(6),
+    lastLogin datetime2(6),
+    registrationDate datetime2(6),
+    updatedDate datetime2(6),
+    gender varchar(10),
+    phoneNumber varchar(20),
+    postalCode varchar(20),
+    name varchar(50) not null,
+    notes varchar(50),
+    preferredLanguage varchar(50),
+    city varchar(100),
+    country varchar(100),
+    email varchar(100) not null,
+    state varchar(100),
+    address varchar(255),
+    passwordHash varchar(255) not null,
+    image varbinary(max),
+    primary key (customerId)
+);
+
+create table OrderDetails (
+    discount numeric(18,2),
+    orderDetailsId int identity not null,
+    ordersId int not null,
+    productsId int not null,
+    quantity int not null,
+    unitPrice numeric(18,2) not null,
+    primary key (orderDetailsId)
+);
+
+create table Orders (
+    customerId int not null,
+    isCancelled bit,
+    ordersId int identity not null,
+    totalAmount numeric(18,2) not null,
+    cancellationDate datetime2(6),
+    estimatedDeliveryDate datetime2(6),
+    orderDate datetime2(6),
+    updatedDate datetime2(6),
+    paymentMethod varchar(50),
+    paymentStatus varchar(50) not null,
+    shippingStatus varchar(50) not null,
+    trackingNumber varchar(100),
+    billingAddress varchar(255),
+    notes TEXT,
+    shippingAddress varchar(255),
+    primary key (ordersId)
+);
+
+create table Payments (
+    ordersId int not null,
+    paymentsId int identity not null,
+    transactionAmount numeric(18,2) not null,
+    transactionDate datetime2(6),
+    paymentMethod varchar(50),
+    transactionStatus varchar(50) not null,
+    gatewayResponse TEXT,
+    primary key (paymentsId)
+);
+
+create table Products (
+    categoriesId int not null,
+    discountRate float(24),
+    isFeatured bit,
+    price numeric(18,2) not null,
+    productsId int identity not null,
+    quantityInStock int,
+    rating float(24),
+    reviewsCount int,
+    thresholdLevel int,
+    createdDate datetime2(6),
+    lastRestocked datetime2(6),
+    updatedDate datetime2(6),
+    sku varchar(50) not null,
+    description TEXT,
+    productName varchar(255) not null,
+    warehouseLocation varchar(255),
+    image varbinary(max),
+    primary key (productsId)
+);
+
+create table ShoppingCart (
+    accountPaid bit,
+    customerId int not null,
+    productsId int not null,
+    quantity int not null,
+    shoppingCartId int identity not null,
+    dateAdded datetime2(6),
+    notes varchar(50),
+    primary key (shoppingCartId)
+);
+
+alter table Customer
+   add constraint UK3qgg01qojcmbdp47dkaom9x45 unique (email);
+
+alter table Payments
+   add constraint UKb7comfpnnwlib8bx3rso59nw4 unique (ordersId);
+
+alter table Products
+   add constraint UKnekfpgjr4j5poacavu7amam7a unique (sku);
+
+alter table OrderDetails
+   add constraint FKmhjv9fnqqm4b0c5mba88cof4g
+   foreign key (ordersId)
+   references Orders;
+
+alter table OrderDetails
+   add constraint FK8cf3qbcmwvulg8xwyr0n2rqci
+   foreign key (productsId)
+   references Products;
+
+alter table Orders
+   add constraint FK1afv963odd6tgw8i6fttjc0f
+   foreign key (customerId)
+   references Customer;
+
+alter table Payments
+   add constraint FKdxgh6t7a4tkv1t8v3vjd13100
+   foreign key (ordersId)
+   references Orders;
+
+alter table Products
+   add constraint FKabvoup66t1rfcrn2m3v6j17hd
+   foreign key (categoriesId)
+   references Categories;
+
+alter table ShoppingCart
+   add constraint FKi8me8bdjctts7k7t0oug1ybk2
+   foreign key (customerId)
+   references Customer;
+
+alter table ShoppingCart
+   add constraint FKs2f4scynbun5gsc5xaurs662f
+   foreign key (productsId)
+   references Products;
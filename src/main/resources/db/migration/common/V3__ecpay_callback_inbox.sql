@@ -0,0 +1,20 @@
+-- 綠界付款通知收件匣：回呼先寫入這裡 (merchantTradeNo 唯一，重送的通知會被擋下)，再由背景工作套用到訂單。
+-- 套用失敗時累計 attempts 並記錄 lastError，達到上限後改為 Failed。
+-- 查詢用的 IX_EcpayCallbackInbox_status 在 sqlserver/V7__lookup_indexes.sql 建立。
+
+create table EcpayCallbackInbox (
+    attempts int not null,
+    rtnCode int not null,
+    inboxId bigint identity not null,
+    processedDate datetime2(6),
+    receivedDate datetime2(6) not null,
+    status varchar(20) not null,
+    merchantTradeNo varchar(50) not null,
+    rtnMsg varchar(200),
+    lastError varchar(255),
+    payload TEXT,
+    primary key (inboxId)
+);
+
+alter table EcpayCallbackInbox
+   add constraint UK8fm8v48tg5ir9wbgvmhu0ptr unique (merchantTradeNo);
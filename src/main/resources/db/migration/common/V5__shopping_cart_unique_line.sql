@@ -0,0 +1,14 @@
+-- 同一位客戶的購物車中每個產品只能有一列 (MERGE 合併與整車替換以 (customerId, productsId) 為鍵)。
+-- 既有資料可能已有重複的列：先把數量加總到 ID 最小的那一列，刪除其餘的列，再建立唯一限制。
+
+update ShoppingCart
+   set quantity = (select sum(d.quantity) from ShoppingCart d
+                    where d.customerId = ShoppingCart.customerId and d.productsId = ShoppingCart.productsId)
+ where shoppingCartId in (select min(shoppingCartId) from ShoppingCart
+                           group by customerId, productsId having count(*) > 1);
+
+delete from ShoppingCart
+ where shoppingCartId not in (select min(shoppingCartId) from ShoppingCart group by customerId, productsId);
+
+alter table ShoppingCart
+   add constraint UX_ShoppingCart_customerId_productsId unique (customerId, productsId);
@@ -0,0 +1,12 @@
+-- 購物車清理排程 (AbandonedCartReaper) 移除的未付款舊項目先搬到這裡封存，主鍵沿用原本的 shoppingCartId。
+
+create table ShoppingCartArchive (
+    customerId int not null,
+    productsId int not null,
+    quantity int not null,
+    shoppingCartId int not null,
+    archivedDate datetime2(6) not null,
+    dateAdded datetime2(6),
+    notes varchar(50),
+    primary key (shoppingCartId)
+);
@@ -0,0 +1,19 @@
+-- 銷售彙總 (/api/reports)：每個 (日期, 時段, 產品) 一列，由 SalesRollupUpdater 重算。
+-- 只用 V1 相同的基本型別，SQL Server 與 H2 都能執行；唯一索引同時供報表依日期區間查詢。
+-- 既有訂單的彙總在部署後以 POST /api/reports/rebuild 補建。
+
+create table SalesRollup (
+    salesRollupId int identity not null,
+    bucketDate date not null,
+    bucketHour int not null,
+    productsId int not null,
+    categoriesId int,
+    quantity bigint not null,
+    revenue numeric(18,2) not null,
+    paidRevenue numeric(18,2) not null,
+    updatedDate datetime2(6) not null,
+    primary key (salesRollupId)
+);
+
+alter table SalesRollup
+    add constraint UX_SalesRollup_bucket_productsId unique (bucketDate, bucketHour, productsId);
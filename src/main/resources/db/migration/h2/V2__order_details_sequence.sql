@@ -0,0 +1,8 @@
+-- 與 sqlserver/V2__order_details_sequence.sql 相同的變更 (H2 版本，供 SchemaMigrationTest 使用)。
+-- H2 可以直接移除欄位的 IDENTITY，序列也能以查詢結果重新設定起始值，不必重建資料表。
+
+alter table OrderDetails alter column orderDetailsId drop identity;
+
+create sequence OrderDetails_SEQ start with 1 increment by 50;
+
+alter sequence OrderDetails_SEQ restart with (select coalesce(max(orderDetailsId), 0) + 1 from OrderDetails);
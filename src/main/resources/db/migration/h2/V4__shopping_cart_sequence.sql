@@ -0,0 +1,7 @@
+-- 與 sqlserver/V4__shopping_cart_sequence.sql 相同的變更 (H2 版本，供 SchemaMigrationTest 使用)。
+
+alter table ShoppingCart alter column shoppingCartId drop identity;
+
+create sequence ShoppingCart_SEQ start with 1 increment by 50;
+
+alter sequence ShoppingCart_SEQ restart with (select coalesce(max(shoppingCartId), 0) + 1 from ShoppingCart);
@@ -0,0 +1,43 @@
+-- OrderDetails 改用 pooled 序列 (OrderDetails_SEQ，一次配置 50 個) 產生主鍵，JDBC 才能批次新增訂單明細。
+-- SQL Server 無法移除既有欄位的 IDENTITY，只能重建資料表：複製資料、刪除舊表、改名，再補回主鍵與外鍵 (沿用 Hibernate 產生的外鍵名稱)。
+-- 序列從現有最大 ID + 1 開始；CREATE SEQUENCE 的 START WITH 只接受常值，所以用動態 SQL 組出語句。
+
+create table dbo.OrderDetails_rebuild (
+    discount numeric(18,2),
+    orderDetailsId int not null,
+    ordersId int not null,
+    productsId int not null,
+    quantity int not null,
+    unitPrice numeric(18,2) not null
+);
+GO
+
+insert into dbo.OrderDetails_rebuild (discount, orderDetailsId, ordersId, productsId, quantity, unitPrice)
+    select discount, orderDetailsId, ordersId, productsId, quantity, unitPrice from dbo.OrderDetails;
+GO
+
+drop table dbo.OrderDetails;
+GO
+
+EXEC sp_rename N'dbo.OrderDetails_rebuild', N'OrderDetails';
+GO
+
+alter table dbo.OrderDetails
+   add primary key (orderDetailsId);
+
+alter table dbo.OrderDetails
+   add constraint FKmhjv9fnqqm4b0c5mba88cof4g
+   foreign key (ordersId)
+   references dbo.Orders;
+
+alter table dbo.OrderDetails
+   add constraint FK8cf3qbcmwvulg8xwyr0n2rqci
+   foreign key (productsId)
+   references dbo.Products;
+GO
+
+DECLARE @sql nvarchar(200) = N'create sequence dbo.OrderDetails_SEQ start with '
+    + CAST((SELECT ISNULL(MAX(orderDetailsId), 0) + 1 FROM dbo.OrderDetails) AS nvarchar(20))
+    + N' increment by 50';
+EXEC sp_executesql @sql;
+GO
@@ -0,0 +1,43 @@
+-- ShoppingCart 改用 pooled 序列 (ShoppingCart_SEQ，一次配置 50 個) 產生主鍵，CartEngine 寫回購物車時才能批次新增。
+-- 做法與 V2__order_details_sequence.sql 相同：重建資料表移除 IDENTITY，序列從現有最大 ID + 1 開始。
+
+create table dbo.ShoppingCart_rebuild (
+    accountPaid bit,
+    customerId int not null,
+    productsId int not null,
+    quantity int not null,
+    shoppingCartId int not null,
+    dateAdded datetime2(6),
+    notes varchar(50)
+);
+GO
+
+insert into dbo.ShoppingCart_rebuild (accountPaid, customerId, productsId, quantity, shoppingCartId, dateAdded, notes)
+    select accountPaid, customerId, productsId, quantity, shoppingCartId, dateAdded, notes from dbo.ShoppingCart;
+GO
+
+drop table dbo.ShoppingCart;
+GO
+
+EXEC sp_rename N'dbo.ShoppingCart_rebuild', N'ShoppingCart';
+GO
+
+alter table dbo.ShoppingCart
+   add primary key (shoppingCartId);
+
+alter table dbo.ShoppingCart
+   add constraint FKi8me8bdjctts7k7t0oug1ybk2
+   foreign key (customerId)
+   references dbo.Customer;
+
+alter table dbo.ShoppingCart
+   add constraint FKs2f4scynbun5gsc5xaurs662f
+   foreign key (productsId)
+   references dbo.Products;
+GO
+
+DECLARE @sql nvarchar(200) = N'create sequence dbo.ShoppingCart_SEQ start with '
+    + CAST((SELECT ISNULL(MAX(shoppingCartId), 0) + 1 FROM dbo.ShoppingCart) AS nvarchar(20))
+    + N' increment by 50';
+EXEC sp_executesql @sql;
+GO
@@ -0,0 +1,53 @@
+-- DAO 查詢路徑的索引 (SQL Server)。
+-- 與 entity 上 @Table(indexes) 同名 (entity 上的宣告只作為文件，結構一律由 Flyway 建立)；
+-- 這裡額外加上 INCLUDE 欄位 (覆蓋索引) 與篩選條件，是 @Index 無法表達的部分。
+-- 篩選索引只用在查詢條件是常值 (或 = 參數可推得 IS NOT NULL) 的地方，參數化的條件用不到篩選索引。
+-- 所有資料表都已由 V1 到 V6 建立；資料表不存在或索引已存在代表結構與預期不符，直接失敗而不是略過。
+
+-- Orders：依客戶查詢訂單列表，涵蓋列表常用欄位，不必回表
+CREATE INDEX IX_Orders_customerId ON dbo.Orders (customerId)
+    INCLUDE (orderDate, totalAmount, paymentStatus, shippingStatus, isCancelled);
+
+-- Orders：依是否取消查詢 (條件是參數，不能用篩選索引)
+CREATE INDEX IX_Orders_isCancelled ON dbo.Orders (isCancelled)
+    INCLUDE (customerId, cancellationDate);
+
+-- ShoppingCart：依產品查詢或刪除購物車項目
+CREATE INDEX IX_ShoppingCart_productsId ON dbo.ShoppingCart (productsId)
+    INCLUDE (customerId, quantity);
+
+-- ShoppingCart：購物車清理排程只找未付款的舊項目
+CREATE INDEX IX_ShoppingCart_unpaid_dateAdded ON dbo.ShoppingCart (dateAdded, shoppingCartId)
+    INCLUDE (customerId)
+    WHERE accountPaid = 0;
+
+-- OrderDetails：依訂單查詢明細與扣回庫存，涵蓋產品、數量與金額
+CREATE INDEX IX_OrderDetails_ordersId ON dbo.OrderDetails (ordersId)
+    INCLUDE (productsId, quantity, unitPrice, discount);
+
+CREATE INDEX IX_OrderDetails_productsId ON dbo.OrderDetails (productsId);
+
+-- Products：分類、價格區間、特色商品與名稱查詢
+CREATE INDEX IX_Products_categoriesId ON dbo.Products (categoriesId);
+
+CREATE INDEX IX_Products_price ON dbo.Products (price);
+
+CREATE INDEX IX_Products_isFeatured ON dbo.Products (isFeatured)
+    WHERE isFeatured = 1;
+
+CREATE INDEX IX_Products_productName ON dbo.Products (productName);
+
+-- Customer：依姓名或電話查詢，沒有電話的客戶不必收錄
+CREATE INDEX IX_Customer_name ON dbo.Customer (name);
+
+CREATE INDEX IX_Customer_phoneNumber ON dbo.Customer (phoneNumber)
+    WHERE phoneNumber IS NOT NULL;
+
+-- Categories：依名稱或啟用狀態查詢
+CREATE INDEX IX_Categories_categoriesName ON dbo.Categories (categoriesName);
+
+CREATE INDEX IX_Categories_isActive ON dbo.Categories (isActive);
+
+-- EcpayCallbackInbox：背景工作依狀態分批取出待處理的通知，並統計佇列深度與最舊一筆的時間
+CREATE INDEX IX_EcpayCallbackInbox_status ON dbo.EcpayCallbackInbox (status, inboxId)
+    INCLUDE (receivedDate);
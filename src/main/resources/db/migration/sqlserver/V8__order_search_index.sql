@@ -0,0 +1,4 @@
+-- 訂單搜尋 (/api/orders/search)：依訂單日期區間篩選並以 (orderDate, ordersId) 做游標分頁。
+-- INCLUDE 訂單摘要的欄位，列表不必回表；依客戶搜尋時改用 IX_Orders_customerId。
+CREATE INDEX IX_Orders_orderDate ON dbo.Orders (orderDate, ordersId)
+    INCLUDE (customerId, totalAmount, paymentStatus, shippingStatus, isCancelled);
@@ -0,0 +1,46 @@
+package com.back_end_project.back_end_project;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 連線池設定：使用具名的 HikariCP 池、開啟洩漏偵測，並輸出等待時間與使用中 / 閒置連線數指標。
+ */
+@SpringBootTest
+class DataSourcePoolTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void poolIsTunedAndInstrumented() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        assertEquals("bakery-db", hikari.getPoolName());
+        assertTrue(hikari.getLeakDetectionThreshold() > 0, "應開啟連線洩漏偵測");
+        assertTrue(hikari.getConnectionTimeout() <= 5000, "取得連線的逾時不應使用預設的 30 秒");
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(meterRegistry.get("hikaricp.connections.active").tag("pool", "bakery-db").gauge().value() >= 1);
+        }
+        assertNotNull(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "bakery-db").timer());
+        assertNotNull(meterRegistry.get("hikaricp.connections.idle").tag("pool", "bakery-db").gauge());
+        assertNotNull(meterRegistry.get("hikaricp.connections.pending").tag("pool", "bakery-db").gauge());
+    }
+}
@@ -0,0 +1,159 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+import com.back_end_project.back_end_project.support.QueryCounter;
+import com.back_end_project.back_end_project.support.QueryCountingConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * N+1 迴歸測試：每個列表查詢連同 JSON 序列化只能送出一次 SQL。
+ * 新增關聯或改動 entity graph 時若漏掉 fetch，這裡的查詢次數會先變多。
+ */
+@SpringBootTest
+@Import(QueryCountingConfiguration.class)
+class DaoQueryCountTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private ProductsDAO productsDAO;
+
+    @Autowired
+    private ShoppingCartDAO shoppingCartDAO;
+
+    @Autowired
+    private OrdersDAO ordersDAO;
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionStatus transaction;
+
+    private Customer customer;
+
+    @BeforeEach
+    void seed() {
+        transaction = transactionTemplate.getTransactionManager().getTransaction(transactionTemplate);
+
+        customer = new Customer();
+        customer.setName("Tester");
+        customer.setEmail("tester" + System.nanoTime() + "@example.com");
+        customer.setPasswordHash("secret-hash");
+        entityManager.persist(customer);
+
+        Orders order = new Orders();
+        order.setCustomer(customer);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setPaymentStatus("Pending");
+        order.setShippingStatus("Pending");
+        entityManager.persist(order);
+
+        for (int i = 0; i < ROWS; i++) {
+            Categories category = new Categories(); // 每個商品各自一個分類，才抓得到逐筆載入分類的 N+1
+            category.setCategoriesName("Category-" + i);
+            entityManager.persist(category);
+
+            Products product = new Products();
+            product.setCategory(category);
+            product.setProductName("Product-" + System.nanoTime());
+            product.setSku("SKU-" + System.nanoTime());
+            product.setPrice(BigDecimal.TEN);
+            entityManager.persist(product);
+
+            ShoppingCart cart = new ShoppingCart();
+            cart.setCustomer(customer);
+            cart.setProduct(product);
+            entityManager.persist(cart);
+
+            OrderDetails detail = new OrderDetails();
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity(1);
+            detail.setUnitPrice(BigDecimal.TEN);
+            entityManager.persist(detail);
+        }
+        entityManager.flush();
+        entityManager.clear(); // 清空一級快取，讓每個測試都真正打到資料庫
+    }
+
+    @AfterEach
+    void rollback() {
+        transactionTemplate.getTransactionManager().rollback(transaction);
+    }
+
+    @Test
+    void productListLoadsCategoryInOneQuery() throws Exception {
+        String json = serializeWithSingleQuery(productsDAO::findAll);
+        assertTrue(json.contains("Category-0"), "商品列表需要帶出分類");
+    }
+
+    @Test
+    void shoppingCartByCustomerLoadsProductsButNotCustomer() throws Exception {
+        String json = serializeWithSingleQuery(() -> shoppingCartDAO.findByCustomerId(customer.getCustomerId()));
+        assertTrue(json.contains("Category-0"), "購物車需要帶出商品與分類");
+        assertFalse(json.contains("secret-hash"), "購物車不應載入客戶的密碼欄位");
+    }
+
+    @Test
+    void orderListDoesNotLoadCustomers() throws Exception {
+        String json = serializeWithSingleQuery(ordersDAO::findAll);
+        assertTrue(json.contains("\"customerId\":" + customer.getCustomerId()), "未載入的客戶只輸出主鍵");
+        assertFalse(json.contains("secret-hash"), "訂單列表不應載入客戶的密碼欄位");
+    }
+
+    @Test
+    void orderDetailListLoadsProductsInOneQuery() throws Exception {
+        String json = serializeWithSingleQuery(orderDetailsDAO::findAll);
+        assertTrue(json.contains("Category-0"), "訂單明細需要帶出商品與分類");
+    }
+
+    /**
+     * 執行查詢並序列化成 JSON，斷言整個過程只送出一次 SQL。
+     */
+    private String serializeWithSingleQuery(Supplier<List<?>> query) throws Exception {
+        QueryCounter.reset();
+        List<?> rows = query.get();
+        String json = objectMapper.writeValueAsString(rows);
+        assertFalse(rows.isEmpty());
+        assertEquals(1, QueryCounter.roundTrips(), "查詢加序列化應該只有一次 SQL，多出來的就是 N+1");
+        return json;
+    }
+}
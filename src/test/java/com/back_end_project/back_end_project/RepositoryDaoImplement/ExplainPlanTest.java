@@ -0,0 +1,146 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.back_end_project.back_end_project.RepositoryDTO.OrderSearchDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.CategoriesDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.CustomerDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.EcpayCallbackInboxDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.PaymentsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.support.CapturedStatements;
+import com.back_end_project.back_end_project.support.QueryCountingConfiguration;
+
+/**
+ * 執行計畫迴歸測試：每個 DAO 查詢路徑實際送出的 SQL 經 H2 EXPLAIN 後必須使用預期的索引，不能整表掃描。
+ * 移除 @Table(indexes) 中的索引或改寫查詢讓索引失效時，這裡會先失敗。
+ */
+@SpringBootTest
+@Import(QueryCountingConfiguration.class)
+class ExplainPlanTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private OrdersDAO ordersDAO;
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO;
+
+    @Autowired
+    private ShoppingCartDAO shoppingCartDAO;
+
+    @Autowired
+    private ProductsDAO productsDAO;
+
+    @Autowired
+    private CustomerDAO customerDAO;
+
+    @Autowired
+    private CategoriesDAO categoriesDAO;
+
+    @Autowired
+    private PaymentsDAO paymentsDAO;
+
+    @Autowired
+    private EcpayCallbackInboxDAO ecpayCallbackInboxDAO;
+
+    @Test
+    void ordersLookupsUseIndexes() throws SQLException {
+        assertUsesIndex("IX_Orders_customerId", () -> ordersDAO.findByCustomerId(1));
+        assertUsesIndex("IX_Orders_isCancelled", () -> ordersDAO.findByIsCancelled(true));
+        assertUsesIndex("IX_OrderDetails_ordersId", () -> orderDetailsDAO.findByOrderId(1));
+        assertUsesIndex("IX_OrderDetails_ordersId", () -> orderDetailsDAO.findStockLinesByOrderId(1));
+        assertUsesIndex("IX_OrderDetails_productsId", () -> orderDetailsDAO.findByProductsId(1));
+        assertUsesIndex(null, () -> paymentsDAO.findByOrderId(1)); // ordersId 的唯一索引
+
+        OrderSearchDTO byDate = new OrderSearchDTO();
+        byDate.setOrderDateFrom(LocalDate.of(2024, 1, 1));
+        byDate.setOrderDateTo(LocalDate.of(2024, 1, 31));
+        assertUsesIndex("IX_Orders_orderDate", () -> ordersDAO.search(byDate, LocalDateTime.of(2024, 1, 15, 0, 0), 100, 51));
+    }
+
+    @Test
+    void shoppingCartLookupsUseIndexes() throws SQLException {
+        // SQL Server 使用 (customerId, productsId) 唯一索引；H2 會為外鍵另建索引並優先選用，這裡只要求不整表掃描
+        assertUsesIndex(null, () -> shoppingCartDAO.findByCustomerId(1));
+        assertUsesIndex("IX_ShoppingCart_productsId", () -> shoppingCartDAO.findByProductsId(1));
+    }
+
+    @Test
+    void catalogLookupsUseIndexes() throws SQLException {
+        assertUsesIndex("IX_Products_categoriesId", () -> productsDAO.findByCategoryId(1));
+        assertUsesIndex("IX_Products_price", () -> productsDAO.findByPriceRange(BigDecimal.ONE, BigDecimal.TEN));
+        assertUsesIndex("IX_Products_isFeatured", () -> productsDAO.findFeaturedProducts());
+        assertUsesIndex("IX_Products_productName", () -> productsDAO.findByName("Baguette"));
+        assertUsesIndex("IX_Categories_categoriesName", () -> categoriesDAO.findByName("Bread"));
+        assertUsesIndex("IX_Categories_isActive", () -> categoriesDAO.findByIsActive(true));
+    }
+
+    @Test
+    void customerAndInboxLookupsUseIndexes() throws SQLException {
+        assertUsesIndex("IX_Customer_name", () -> customerDAO.findByName("Tester"));
+        assertUsesIndex("IX_Customer_phoneNumber", () -> customerDAO.findByPhoneNumber("0912345678"));
+        assertUsesIndex(null, () -> customerDAO.findByEmail("tester@example.com")); // email 的唯一索引
+        assertUsesIndex("IX_EcpayCallbackInbox_status", () -> ecpayCallbackInboxDAO.findPending(0, 1, 0, 10));
+        assertUsesIndex("IX_EcpayCallbackInbox_status", () -> ecpayCallbackInboxDAO.countPending());
+        assertUsesIndex(null, () -> shoppingCartDAO.findStaleLines(LocalDateTime.now(), 0, 10)); // 主鍵 keyset
+    }
+
+    /**
+     * 執行 DAO 查詢，對它送出的第一個 SQL 做 EXPLAIN。
+     *
+     * @param index 預期使用的索引名稱；null 代表只要求不整表掃描
+     */
+    private void assertUsesIndex(String index, Runnable query) throws SQLException {
+        CapturedStatements.clear();
+        query.run();
+        List<CapturedStatements.Statement> statements = CapturedStatements.statements();
+        assertFalse(statements.isEmpty(), "DAO 沒有送出任何 SQL");
+
+        String plan = explain(statements.get(0));
+        if (index != null) {
+            assertTrue(plan.toUpperCase().contains(index.toUpperCase()), "應使用 " + index + "：\n" + plan);
+        }
+        assertFalse(plan.contains("tableScan"), "不應整表掃描：\n" + plan);
+    }
+
+    private String explain(CapturedStatements.Statement statement) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (CapturedStatements.Parameter parameter : statement.parameters()) {
+                Object[] args = parameter.args();
+                if ("setNull".equals(parameter.method())) {
+                    explain.setNull((Integer) args[0], (Integer) args[1]);
+                } else {
+                    explain.setObject((Integer) args[0], args[1]);
+                }
+            }
+            try (ResultSet resultSet = explain.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.back_end_project.back_end_project.RepositoryDaoImplement;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrderDetailsDAO;
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.support.QueryCounter;
+import com.back_end_project.back_end_project.support.QueryCountingConfiguration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 比較 OrderDetailsDAO.saveAll 在 JDBC 批次關閉與開啟時的資料庫來回次數。
+ */
+@SpringBootTest
+@Import(QueryCountingConfiguration.class)
+class OrderDetailsBatchInsertBenchmarkTest {
+
+    private static final int ROWS = 500;
+
+    @Autowired
+    private OrderDetailsDAO orderDetailsDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void batchingReducesRoundTrips() {
+        int unbatched = insertDetails(1);
+        int batched = insertDetails(50);
+
+        assertTrue(unbatched >= ROWS, "每筆各自送出時至少要 " + ROWS + " 次來回");
+        assertTrue(batched * 10 < unbatched, "批次新增的來回次數應少於逐筆新增的十分之一");
+    }
+
+    private int insertDetails(int jdbcBatchSize) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            Orders order = newOrder();
+            Products product = entityManager.createQuery("SELECT p FROM Products p", Products.class)
+                    .setMaxResults(1).getSingleResult();
+
+            List<OrderDetails> details = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                OrderDetails detail = new OrderDetails();
+                detail.setOrder(order);
+                detail.setProduct(product);
+                detail.setQuantity(1);
+                detail.setUnitPrice(BigDecimal.TEN);
+                details.add(detail);
+            }
+
+            QueryCounter.reset();
+            orderDetailsDAO.saveAll(details);
+            int roundTrips = QueryCounter.roundTrips();
+            status.setRollbackOnly();
+            return roundTrips;
+        });
+    }
+
+    private Orders newOrder() {
+        Categories category = new Categories();
+        category.setCategoriesName("Bread");
+        entityManager.persist(category);
+
+        Products product = new Products();
+        product.setCategory(category);
+        product.setProductName("Baguette");
+        product.setSku("SKU-" + System.nanoTime());
+        product.setPrice(BigDecimal.TEN);
+        entityManager.persist(product);
+
+        Customer customer = new Customer();
+        customer.setName("Tester");
+        customer.setEmail("tester" + System.nanoTime() + "@example.com");
+        customer.setPasswordHash("x");
+        entityManager.persist(customer);
+
+        Orders order = new Orders();
+        order.setCustomer(customer);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setPaymentStatus("Pending");
+        order.setShippingStatus("Pending");
+        entityManager.persist(order);
+        entityManager.flush();
+        return order;
+    }
+}
@@ -0,0 +1,21 @@
+package com.back_end_project.back_end_project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * 結構遷移迴歸測試：以 Flyway 在空白資料庫上從 V1 (上線時的結構) 依序執行通用腳本 (db/migration/common) 與 H2 版本的專屬腳本 (db/migration/h2)，
+ * 再讓 Hibernate 以 ddl-auto=validate 比對所有 entity。
+ * 修改 entity 卻沒有新增對應的遷移腳本時，啟動會失敗。
+ * db/migration/sqlserver 中只有索引的腳本 (INCLUDE、篩選索引) 沒有 H2 版本，不會執行。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migration;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate" })
+class SchemaMigrationTest {
+
+    @Test
+    void commonMigrationsMatchEntities() {
+    }
+}
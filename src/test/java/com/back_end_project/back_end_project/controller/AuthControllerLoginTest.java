@@ -0,0 +1,139 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.controllerComponentJWT.service.PasswordHashingService;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 登入：bcrypt 比對、舊版明碼密碼升級與節流。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @MockitoSpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void legacyPlaintextPasswordIsUpgradedOnLogin() throws Exception {
+        String email = seedCustomer("plain-password"); // 舊資料：直接存明碼
+
+        login(email, "plain-password", "10.0.0.1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.customer.passwordHash").doesNotExist());
+
+        String stored = storedHash(email);
+        assertTrue(stored.startsWith("$2"), "登入成功後應改存 bcrypt 雜湊");
+
+        login(email, "plain-password", "10.0.0.1").andExpect(status().isOk());
+        login(email, "wrong-password", "10.0.0.1").andExpect(status().isBadRequest());
+        assertEquals(stored, storedHash(email));
+    }
+
+    @Test
+    void rejectedUpgradeStillLogsInAndUpgradesNextTime() throws Exception {
+        String email = seedCustomer("plain-password");
+        doThrow(new RejectedExecutionException("hashing queue full"))
+                .doCallRealMethod()
+                .when(passwordHashingService).encode(anyString());
+
+        login(email, "plain-password", "10.0.2.1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        assertEquals("plain-password", storedHash(email), "雜湊佇列已滿時這次不升級");
+
+        login(email, "plain-password", "10.0.2.1").andExpect(status().isOk());
+        assertTrue(storedHash(email).startsWith("$2"), "下次登入應完成升級");
+    }
+
+    @Test
+    void rejectionInsideTheLoginFutureReturns503() throws Exception {
+        String email = seedCustomer("secret");
+        doReturn(CompletableFuture.failedFuture(new RejectedExecutionException("hashing queue full")))
+                .when(passwordHashingService).verify(anyString(), any());
+
+        login(email, "secret", "10.0.3.1")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void repeatedAttemptsForOneEmailAreThrottled() throws Exception {
+        String email = seedCustomer("secret");
+        for (int i = 0; i < 5; i++) {
+            login(email, "wrong", "10.0.1." + i).andExpect(status().isBadRequest());
+        }
+        login(email, "secret", "10.0.1.99").andExpect(status().isTooManyRequests());
+    }
+
+    private ResultActions login(String email, String password, String ip) throws Exception {
+        MvcResult started = mockMvc.perform(loginRequest(email, password, ip))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private MockHttpServletRequestBuilder loginRequest(String email, String password, String ip) {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                });
+    }
+
+    private String seedCustomer(String passwordHash) {
+        return testData.customer(customer -> customer.setPasswordHash(passwordHash)).getEmail();
+    }
+
+    private String storedHash(String email) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT c.passwordHash FROM Customer c WHERE c.email = :email", String.class)
+                .setParameter("email", email)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,94 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.controllerComponentJWT.service.PasswordHashingService;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 新增客戶：密碼在交易外雜湊後寫入，雜湊佇列已滿時返回 503 且不寫入資料。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void newCustomerPasswordIsStoredHashed() throws Exception {
+        String email = "new" + testData.unique() + "@example.com";
+
+        create(email, "secret")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.passwordHash").doesNotExist());
+
+        assertTrue(storedHash(email).startsWith("$2"));
+    }
+
+    @Test
+    void fullHashingQueueReturnsServiceUnavailable() throws Exception {
+        String email = "busy" + testData.unique() + "@example.com";
+        doThrow(new RejectedExecutionException("queue full")).when(passwordHashingService).encode(anyString());
+
+        create(email, "secret")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        assertEquals(0L, countByEmail(email));
+    }
+
+    private ResultActions create(String email, String password) throws Exception {
+        return mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Tester\",\"email\":\"" + email + "\",\"passwordHash\":\"" + password + "\"}"));
+    }
+
+    private String storedHash(String email) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT c.passwordHash FROM Customer c WHERE c.email = :email", String.class)
+                .setParameter("email", email)
+                .getSingleResult());
+    }
+
+    private long countByEmail(String email) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COUNT(c) FROM Customer c WHERE c.email = :email", Long.class)
+                .setParameter("email", email)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,253 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.controllerComponentECPay.CheckMacValueSigner;
+import com.back_end_project.back_end_project.controllerComponentECPay.EcpayInboxWorker;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.EcpayCallbackInbox;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Payments;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.service.StockReservationService;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 綠界付款通知：驗章、收件匣去重，以及背景套用到訂單、付款與庫存。
+ * 每筆通知各自一個交易：暫時性錯誤累計嘗試次數後重試，與訂單狀態衝突的通知標記為失敗。
+ */
+@SpringBootTest(properties = "ecpay.inbox.max-attempts=2")
+@AutoConfigureMockMvc
+class EcpayCallbackInboxTest {
+
+    // 與 EcpayFunctions 相同的綠界測試環境金鑰
+    private static final String HASH_KEY = "5294y06JbISpM5x9";
+    private static final String HASH_IV = "v77hoKGq4kWxNNIS";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EcpayInboxWorker ecpayInboxWorker;
+
+    @MockitoSpyBean
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CheckMacValueSigner signer = new CheckMacValueSigner();
+
+    @Test
+    void paidCallbackIsStoredOnceAndAppliedInBackground() throws Exception {
+        Orders order = seedOrder(3);
+        String merchantTradeNo = "ORDERID" + order.getOrdersId();
+
+        for (int attempt = 0; attempt < 3; attempt++) { // 綠界重送
+            mockMvc.perform(callback(merchantTradeNo, "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("1|OK"));
+        }
+        assertEquals(1L, countInbox(merchantTradeNo));
+        assertEquals("Pending", reload(order).getPaymentStatus(), "收件時不應同步更新訂單");
+
+        ecpayInboxWorker.drain();
+
+        assertEquals("Paid", reload(order).getPaymentStatus());
+        assertEquals("Paid", paymentOf(order).getTransactionStatus());
+        assertEquals(EcpayCallbackInbox.STATUS_PROCESSED, inbox(merchantTradeNo).getStatus());
+    }
+
+    @Test
+    void failedCallbackCancelsOrderAndReturnsStock() throws Exception {
+        Orders order = seedOrder(3);
+        String merchantTradeNo = "ORDERID" + order.getOrdersId();
+
+        mockMvc.perform(callback(merchantTradeNo, "10100058")).andExpect(content().string("1|OK"));
+        ecpayInboxWorker.drain();
+        ecpayInboxWorker.drain(); // 再處理一次也不會重複退庫存
+
+        Orders cancelled = reload(order);
+        assertEquals("Failed", cancelled.getPaymentStatus());
+        assertTrue(cancelled.getIsCancelled());
+        assertEquals(10, productStockOf(order));
+    }
+
+    @Test
+    void tamperedCallbackIsRejected() throws Exception {
+        Orders order = seedOrder(1);
+        String merchantTradeNo = "ORDERID" + order.getOrdersId();
+
+        mockMvc.perform(callback(merchantTradeNo, "1", "1")) // 簽章後竄改金額
+                .andExpect(status().isBadRequest());
+        assertEquals(0L, countInbox(merchantTradeNo));
+    }
+
+    @Test
+    void transientFailureIsRetriedWithoutBlockingTheBatch() throws Exception {
+        Orders failing = seedOrder(3);
+        Orders paying = seedOrder(1);
+        String failingNo = "ORDERID" + failing.getOrdersId();
+        String payingNo = "ORDERID" + paying.getOrdersId();
+        mockMvc.perform(callback(failingNo, "10100058")).andExpect(status().isOk());
+        mockMvc.perform(callback(payingNo, "1")).andExpect(status().isOk());
+        doThrow(new IllegalStateException("Deadlock victim")).doCallRealMethod()
+                .when(stockReservationService).release(anyList());
+
+        ecpayInboxWorker.drain();
+
+        EcpayCallbackInbox retrying = inbox(failingNo);
+        assertEquals(EcpayCallbackInbox.STATUS_PENDING, retrying.getStatus());
+        assertEquals(1, retrying.getAttempts());
+        assertEquals("Deadlock victim", retrying.getLastError());
+        assertEquals("Pending", reload(failing).getPaymentStatus(), "失敗的交易應整筆回滾");
+        assertEquals(7, productStockOf(failing));
+        assertEquals("Paid", reload(paying).getPaymentStatus(), "同批的其他通知不受影響");
+
+        ecpayInboxWorker.drain();
+
+        assertEquals(EcpayCallbackInbox.STATUS_PROCESSED, inbox(failingNo).getStatus());
+        assertEquals("Failed", reload(failing).getPaymentStatus());
+        assertEquals(10, productStockOf(failing));
+    }
+
+    @Test
+    void repeatedFailureIsMarkedFailedAfterMaxAttempts() throws Exception {
+        Orders order = seedOrder(2);
+        String merchantTradeNo = "ORDERID" + order.getOrdersId();
+        mockMvc.perform(callback(merchantTradeNo, "10100058")).andExpect(status().isOk());
+        doThrow(new IllegalStateException("Connection reset")).when(stockReservationService).release(anyList());
+
+        ecpayInboxWorker.drain();
+        ecpayInboxWorker.drain();
+        ecpayInboxWorker.drain(); // 已標記失敗，不會再嘗試
+
+        EcpayCallbackInbox failed = inbox(merchantTradeNo);
+        assertEquals(EcpayCallbackInbox.STATUS_FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+        assertEquals("Pending", reload(order).getPaymentStatus());
+    }
+
+    @Test
+    void callbackConflictingWithOrderStateIsMarkedFailed() throws Exception {
+        Orders cancelled = seedOrder(1);
+        Orders paid = seedOrder(1);
+        setPaymentStatus(cancelled, "Failed");
+        setPaymentStatus(paid, "Paid");
+        String cancelledNo = "ORDERID" + cancelled.getOrdersId();
+        String paidNo = "ORDERID" + paid.getOrdersId();
+        mockMvc.perform(callback(cancelledNo, "1")).andExpect(status().isOk());
+        mockMvc.perform(callback(paidNo, "1")).andExpect(status().isOk());
+
+        ecpayInboxWorker.drain();
+
+        EcpayCallbackInbox conflict = inbox(cancelledNo);
+        assertEquals(EcpayCallbackInbox.STATUS_FAILED, conflict.getStatus());
+        assertTrue(conflict.getLastError().contains("already Failed"), conflict.getLastError());
+        assertEquals("Failed", reload(cancelled).getPaymentStatus());
+        assertEquals(EcpayCallbackInbox.STATUS_PROCESSED, inbox(paidNo).getStatus(), "已是相同狀態的通知視為已處理");
+    }
+
+    private void setPaymentStatus(Orders order, String paymentStatus) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Orders.class, order.getOrdersId())
+                .setPaymentStatus(paymentStatus));
+    }
+
+    private MockHttpServletRequestBuilder callback(String merchantTradeNo, String rtnCode) {
+        return callback(merchantTradeNo, rtnCode, null);
+    }
+
+    private MockHttpServletRequestBuilder callback(String merchantTradeNo, String rtnCode, String tamperedAmount) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("MerchantID", "2000132");
+        params.put("MerchantTradeNo", merchantTradeNo);
+        params.put("RtnCode", rtnCode);
+        params.put("RtnMsg", "1".equals(rtnCode) ? "交易成功" : "交易失敗");
+        params.put("TradeAmt", "300");
+        params.put("PaymentType", "Credit_CreditCard");
+        params.put("CheckMacValue", signer.sign(params, HASH_KEY, HASH_IV));
+        if (tamperedAmount != null) {
+            params.put("TradeAmt", tamperedAmount);
+        }
+
+        MockHttpServletRequestBuilder request = post("/pages/ecpay/return")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED);
+        params.forEach(request::param);
+        return request;
+    }
+
+    /**
+     * 建立一張待付款訂單：庫存 10 的商品，結帳時已預留 quantity 個。
+     */
+    private Orders seedOrder(int quantity) {
+        Products product = testData.product("100", 10 - quantity);
+        Customer customer = testData.customer();
+        Orders order = testData.order(customer.getCustomerId(), LocalDateTime.now(), String.valueOf(100 * quantity),
+                "Pending");
+        testData.detail(order.getOrdersId(), product, quantity);
+        testData.payment(order, "Pending");
+        return order;
+    }
+
+    private Orders reload(Orders order) {
+        return transactionTemplate.execute(status -> entityManager.find(Orders.class, order.getOrdersId()));
+    }
+
+    private Payments paymentOf(Orders order) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT p FROM Payments p WHERE p.order.ordersId = :id", Payments.class)
+                .setParameter("id", order.getOrdersId())
+                .getSingleResult());
+    }
+
+    private int productStockOf(Orders order) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT od.product.quantityInStock FROM OrderDetails od WHERE od.order.ordersId = :id",
+                        Integer.class)
+                .setParameter("id", order.getOrdersId())
+                .getSingleResult());
+    }
+
+    private EcpayCallbackInbox inbox(String merchantTradeNo) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT i FROM EcpayCallbackInbox i WHERE i.merchantTradeNo = :no", EcpayCallbackInbox.class)
+                .setParameter("no", merchantTradeNo)
+                .getSingleResult());
+    }
+
+    private long countInbox(String merchantTradeNo) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COUNT(i) FROM EcpayCallbackInbox i WHERE i.merchantTradeNo = :no", Long.class)
+                .setParameter("no", merchantTradeNo)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,118 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 串流匯出：依訂單日期篩選並排序，CSV 欄位正確加上引號，NDJSON 每行一筆。
+ * 每個測試使用不同的日期，彼此的訂單不會出現在對方的匯出中。
+ */
+@SpringBootTest(properties = "export.fetch-size=2")
+@AutoConfigureMockMvc
+class ExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Test
+    void ordersAreExportedAsCsv() throws Exception {
+        Integer customerId = testData.customer(customer -> customer.setName("Lin, \"Amy\"")).getCustomerId();
+        LocalDateTime day = LocalDateTime.of(2022, 8, 1, 10, 0);
+        Integer first = seedOrder(customerId, day, "120.50");
+        Integer second = seedOrder(customerId, day.plusDays(1), "80");
+        Integer third = seedOrder(customerId, day.plusHours(1), "60");
+        seedOrder(customerId, day.plusDays(2), "99"); // 超出範圍
+
+        MvcResult result = export("/api/orders/export?from=2022-08-01&to=2022-08-02");
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders-2022-08-01_2022-08-02.csv\""));
+
+        List<String> lines = lines(result);
+        assertEquals(4, lines.size());
+        assertEquals("ordersId,orderDate,customerId,customerName,totalAmount,paymentMethod,paymentStatus,"
+                + "shippingStatus,isCancelled,cancellationDate", lines.get(0));
+        assertEquals(first + ",2022-08-01T10:00," + customerId + ",\"Lin, \"\"Amy\"\"\",120.50,,Paid,Pending,false,",
+                lines.get(1));
+        assertTrue(lines.get(2).startsWith(third + ","));
+        assertTrue(lines.get(3).startsWith(second + ","));
+    }
+
+    @Test
+    void orderDetailsAreExportedAsNdjson() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product(testData.category("Bread"), "45", 10,
+                product -> product.setProductName("=Baguette"));
+        Integer ordersId = seedOrder(customerId, LocalDateTime.of(2022, 9, 5, 8, 30), "135");
+        testData.detail(ordersId, bread, 3);
+        testData.detail(ordersId, bread, 1);
+        testData.detail(seedOrder(customerId, LocalDateTime.of(2022, 9, 6, 8, 30), "45"), bread, 1); // 超出範圍
+
+        MvcResult result = export("/api/order-details/export?from=2022-09-05&to=2022-09-05&format=ndjson");
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"));
+
+        List<String> lines = lines(result);
+        assertEquals(2, lines.size());
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertEquals(ordersId, row.get("ordersId").asInt());
+        assertEquals("=Baguette", row.get("productName").asText()); // 公式防護只用於 CSV
+        assertEquals(3, row.get("quantity").asInt());
+        assertEquals(0, new BigDecimal("135").compareTo(row.get("subTotal").decimalValue()));
+
+        MvcResult csv = export("/api/order-details/export?from=2022-09-05&to=2022-09-05");
+        mockMvc.perform(asyncDispatch(csv)).andExpect(status().isOk());
+        assertTrue(lines(csv).get(1).contains(",'=Baguette,"), lines(csv).get(1));
+    }
+
+    @Test
+    void invalidParametersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/orders/export?from=2022-08-02&to=2022-08-01")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/export?from=2022-08-01&to=2022-08-02&format=xlsx"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/order-details/export?from=2022-08-01")).andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private List<String> lines(MvcResult result) {
+        String body = new String(result.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+        return body.lines().toList();
+    }
+
+    private Integer seedOrder(Integer customerId, LocalDateTime orderDate, String amount) {
+        return testData.order(customerId, orderDate, amount, "Paid").getOrdersId();
+    }
+}
@@ -0,0 +1,82 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.back_end_project.back_end_project.support.TestDataFixture;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 訂單搜尋：條件在資料庫篩選，排序與游標分頁逐頁走完不重複、不遺漏 (含訂單日期為 null 的訂單)。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrdersSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Test
+    void pagesThroughFilteredOrdersInSortOrder() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        LocalDateTime day = LocalDateTime.of(2024, 3, 10, 12, 0);
+        Integer a = seedOrder(customerId, day, "80", "Paid");
+        Integer b = seedOrder(customerId, day, "120", "Paid"); // 與 a 同一時間，依訂單 ID 排序
+        Integer c = seedOrder(customerId, day.minusDays(3), "300", "Pending");
+        Integer d = seedOrder(customerId, day.plusDays(5), "50", "Paid");
+        Integer e = seedOrder(customerId, null, "90", "Paid");
+
+        assertEquals(List.of(d, b, a, c, e), walk("customerId=" + customerId + "&sort=orderDate&direction=desc&size=2"));
+        assertEquals(List.of(e, c, a, b, d), walk("customerId=" + customerId + "&sort=orderDate&direction=asc&size=2"));
+        assertEquals(List.of(c, b, e, a, d), walk("customerId=" + customerId + "&sort=totalAmount&direction=desc&size=3"));
+
+        assertEquals(List.of(b, a), walk("customerId=" + customerId
+                + "&paymentStatus=Paid&orderDateFrom=2024-03-10&orderDateTo=2024-03-10&minAmount=60&size=10"));
+        assertEquals(List.of(a, d, e), walk("customerId=" + customerId + "&minAmount=50&maxAmount=90&sort=ordersId&direction=asc&size=1"));
+    }
+
+    @Test
+    void invalidSortOrCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/orders/search?sort=notes")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/search?direction=sideways")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/search?cursor=%%%")).andExpect(status().isBadRequest());
+    }
+
+    // 依 next 游標逐頁取完，回傳依序出現的訂單 ID
+    private List<Integer> walk(String query) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/orders/search?" + query + (cursor == null ? "" : "&cursor=" + cursor);
+            String body = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> ids.add(item.get("ordersId").asInt()));
+            cursor = page.get("next").isNull() ? null : page.get("next").asText();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private Integer seedOrder(Integer customerId, LocalDateTime orderDate, String amount, String paymentStatus) {
+        return testData.order(customerId, orderDate, amount, paymentStatus).getOrdersId();
+    }
+}
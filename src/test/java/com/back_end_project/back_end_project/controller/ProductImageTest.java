@@ -0,0 +1,137 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.back_end_project.back_end_project.controllerComponentImage.ImageStore;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+/**
+ * 圖片輸出 (ImageResponseWriter)：完整內容、ETag / If-None-Match 的 304、Range 的 206 與無法滿足的 416。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductImageTest {
+
+    private static final byte[] IMAGE = "0123456789abcdef".getBytes();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Test
+    void fullImageCarriesETagAndAcceptRanges() throws Exception {
+        String url = seedImage();
+
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, IMAGE.length))
+                .andReturn();
+
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(IMAGE, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws Exception {
+        String url = seedImage();
+        String etag = etagOf(url);
+
+        MvcResult result = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertEquals(0, result.getResponse().getContentAsByteArray().length);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rangeRequestsReturnPartialContent() throws Exception {
+        String url = seedImage();
+
+        MvcResult middle = mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/16"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(IMAGE, 2, 6), middle.getResponse().getContentAsByteArray());
+
+        MvcResult suffix = mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 13-15/16"))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(IMAGE, 13, 16), suffix.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-15/16"));
+    }
+
+    @Test
+    void rangeIsIgnoredWhenIfRangeDoesNotMatchOrHasSeveralParts() throws Exception {
+        String url = seedImage();
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, IMAGE.length));
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=2-5").header(HttpHeaders.IF_RANGE, etagOf(url)))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        String url = seedImage();
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=16-20"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"));
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-0"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void reversedRangeIsIgnored() throws Exception {
+        String url = seedImage();
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=5-3"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 16));
+    }
+
+    private String seedImage() {
+        Integer productsId = testData.product("30", 1).getProductsId();
+        imageStore.save("products", productsId, IMAGE);
+        return "/api/products/" + productsId + "/image";
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,134 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 產品批次匯入：以產品編號新增或更新、分段寫入，無效的列逐列回報且不影響其他列。
+ */
+@SpringBootTest(properties = "products.import.chunk-size=2")
+@AutoConfigureMockMvc
+class ProductImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void csvRowsAreUpsertedBySkuWithPerRowErrors() throws Exception {
+        String suffix = String.valueOf(testData.unique());
+        String category = "Seasonal-" + suffix;
+        String existing = "EXIST-" + suffix;
+        testData.product(testData.category(category), "10", 7, product -> {
+            product.setProductName("Original");
+            product.setSku(existing);
+            product.setDescription("Original");
+        });
+
+        String csv = "\uFEFFsku,productName,categoriesName,price,quantityInStock,description,isFeatured\r\n"
+                + "NEW-A-" + suffix + ",Chestnut Tart," + category + ",120,20,\"Rich, nutty\nand sweet\",true\r\n"
+                + existing + ",Renamed," + category + ",99,500,,\r\n"
+                + "new-a-" + suffix + ",Duplicate," + category + ",1,1,,\r\n"
+                + "NEW-C-" + suffix + ",Lost,No such category,1,1,,\r\n"
+                + "NEW-D-" + suffix + ",Broken," + category + ",abc,1,,\r\n"
+                + "\r\n"
+                + "NEW-B-" + suffix + ",Pumpkin Loaf," + category + ",85.5,,,\r\n";
+        JsonNode result = upload("csv", MediaType.parseMediaType("text/csv"), csv);
+
+        assertEquals(6, result.get("received").asInt());
+        assertEquals(2, result.get("inserted").asInt());
+        assertEquals(1, result.get("updated").asInt());
+        assertEquals(3, result.get("failed").asInt());
+        assertEquals(List.of(5L, 6L, 7L), result.get("errors").findValues("line").stream().map(JsonNode::asLong).toList());
+        assertEquals("NEW-C-" + suffix, result.get("errors").get(1).get("sku").asText());
+
+        Products tart = find("NEW-A-" + suffix);
+        assertEquals("Rich, nutty\nand sweet", tart.getDescription());
+        assertEquals(20, tart.getQuantityInStock());
+        assertEquals(true, tart.getIsFeatured());
+        assertEquals(0, BigDecimal.valueOf(85.5).compareTo(find("NEW-B-" + suffix).getPrice()));
+
+        Products renamed = find(existing);
+        assertEquals("Renamed", renamed.getProductName());
+        assertEquals(0, BigDecimal.valueOf(99).compareTo(renamed.getPrice()));
+        assertEquals(7, renamed.getQuantityInStock(), "既有產品的庫存不由匯入修改");
+        assertEquals("Original", renamed.getDescription(), "空白的選填欄位保留原值");
+    }
+
+    @Test
+    void ndjsonRowsAreImported() throws Exception {
+        String suffix = String.valueOf(testData.unique());
+        String category = "Seasonal-" + suffix;
+        testData.category(category);
+
+        String ndjson = "{\"sku\":\"ND-A-" + suffix + "\",\"productName\":\"Mooncake\",\"categoriesName\":\""
+                + category.toUpperCase() + "\",\"price\":60,\"thresholdLevel\":3}\n"
+                + "{\"sku\":\"ND-B-" + suffix + "\",\"productName\":\n"
+                + "{\"sku\":\"ND-C-" + suffix + "\",\"categoriesName\":\"" + category + "\",\"price\":60}\n";
+        JsonNode result = upload("ndjson", MediaType.APPLICATION_NDJSON, ndjson);
+
+        assertEquals(3, result.get("received").asInt());
+        assertEquals(1, result.get("inserted").asInt());
+        assertEquals(2, result.get("failed").asInt());
+        assertEquals("productName is required", result.get("errors").get(1).get("message").asText());
+        assertEquals(3, find("ND-A-" + suffix).getThresholdLevel());
+    }
+
+    @Test
+    void invalidHeaderOrFormatIsRejected() throws Exception {
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content("sku,productName,price\r\nX,Y,1\r\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/products/import").contentType("text/csv").content("sku,colour\r\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/products/import?format=xml").content("<products/>"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode upload(String format, MediaType contentType, String content) throws Exception {
+        String body = mockMvc.perform(post("/api/products/import?format=" + format)
+                        .contentType(contentType)
+                        .content(content.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Products find(String sku) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT p FROM Products p WHERE p.sku = :sku", Products.class)
+                .setParameter("sku", sku)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,188 @@
+package com.back_end_project.back_end_project.controller;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.back_end_project.back_end_project.controllerComponentReports.SalesRollupUpdater;
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.service.OrderDetailsService;
+import com.back_end_project.back_end_project.service.OrdersService;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 銷售報表：彙總排除取消的訂單，補建與增量重算的結果一致，報表只讀取彙總表。
+ * 每個測試使用不同的日期，彼此的訂單不會落在同一個時段。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReportsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SalesRollupUpdater salesRollupUpdater;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    @Autowired
+    private OrderDetailsService orderDetailsService;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void rebuildAggregatesByDayHourProductAndCategory() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        Categories pastry = testData.category("Pastry");
+        Products bread = testData.product(pastry, "50", 100);
+        Products cake = testData.product(pastry, "200", 100);
+        LocalDateTime morning = LocalDateTime.of(2023, 5, 10, 9, 15);
+
+        Integer paid = seedOrder(customerId, morning, "Paid", false);
+        seedDetail(paid, bread, 2);
+        seedDetail(paid, cake, 1);
+        seedDetail(seedOrder(customerId, morning.plusHours(5), "Pending", false), bread, 3);
+        seedDetail(seedOrder(customerId, morning.plusMinutes(30), "Pending", true), cake, 5); // 已取消，不計入
+        seedDetail(seedOrder(customerId, morning.plusDays(1), "Paid", false), bread, 1);
+
+        mockMvc.perform(post("/api/reports/rebuild?from=2023-05-10&to=2023-05-11"))
+                .andExpect(status().isAccepted());
+
+        // 補建在背景依時段順序執行，最後一筆訂單的時段出現時前面的時段都已完成
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> read("/api/reports/revenue?from=2023-05-10&to=2023-05-11").size() == 2);
+        JsonNode days = read("/api/reports/revenue?from=2023-05-10&to=2023-05-11");
+        assertBucket(days.get(0), 6, "450", "300");
+        assertBucket(days.get(1), 1, "50", "50");
+
+        JsonNode hours = read("/api/reports/revenue?from=2023-05-10&to=2023-05-10&granularity=hour");
+        assertEquals(2, hours.size());
+        assertEquals(9, hours.get(0).get("hour").asInt());
+        assertBucket(hours.get(1), 3, "150", "0");
+
+        JsonNode best = read("/api/reports/best-sellers?from=2023-05-10&to=2023-05-11&limit=1");
+        assertEquals(1, best.size());
+        assertEquals(bread.getProductsId(), best.get(0).get("productsId").asInt());
+        assertBucket(best.get(0), 6, "300", "150");
+
+        JsonNode categories = read("/api/reports/category-sales?from=2023-05-10&to=2023-05-11");
+        assertEquals(1, categories.size());
+        assertEquals("Pastry", categories.get(0).get("categoriesName").asText());
+        assertBucket(categories.get(0), 7, "500", "350");
+    }
+
+    @Test
+    void orderChangesAreAppliedOnFlush() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product("40", 100);
+
+        Orders order = new Orders();
+        order.setCustomer(entityManager.getReference(Customer.class, customerId));
+        order.setOrderDate(LocalDateTime.of(2023, 6, 1, 18, 45));
+        order.setTotalAmount(new BigDecimal("120"));
+        order.setPaymentStatus("Pending");
+        order.setShippingStatus("Pending");
+        Integer ordersId = ordersService.saveOrder(order).getOrdersId();
+
+        Orders reference = new Orders();
+        reference.setOrdersId(ordersId);
+        OrderDetails detail = new OrderDetails();
+        detail.setOrder(reference); // 只有訂單 ID，重算前才查詢訂單日期
+        detail.setProduct(bread);
+        detail.setQuantity(3);
+        detail.setUnitPrice(bread.getPrice());
+        Integer detailId = orderDetailsService.saveOrderDetails(detail).getOrderDetailsId();
+
+        assertEquals(0, read("/api/reports/revenue?from=2023-06-01&to=2023-06-01").size(), "重算前報表不應變動");
+        assertEquals(1, salesRollupUpdater.flush());
+        JsonNode days = read("/api/reports/revenue?from=2023-06-01&to=2023-06-01");
+        assertBucket(days.get(0), 3, "120", "0");
+
+        orderDetailsService.deleteOrderDetailsById(detailId);
+        assertEquals(1, salesRollupUpdater.flush());
+        assertEquals(0, read("/api/reports/revenue?from=2023-06-01&to=2023-06-01").size());
+        assertEquals(0, salesRollupUpdater.flush());
+    }
+
+    @Test
+    void changingOrderDateRebuildsBothHours() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product("40", 100);
+        Orders order = testData.order(customerId, LocalDateTime.of(2023, 7, 1, 10, 0), "80", "Pending");
+        testData.detail(order.getOrdersId(), bread, 2);
+        salesRollupUpdater.rebuild(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 1));
+        assertEquals(10, read("/api/reports/revenue?from=2023-07-01&to=2023-07-01&granularity=hour")
+                .get(0).get("hour").asInt());
+
+        order.setOrderDate(LocalDateTime.of(2023, 7, 1, 15, 30));
+        ordersService.saveOrder(order);
+        assertEquals(2, salesRollupUpdater.flush(), "舊時段與新時段都要重算");
+
+        JsonNode hours = read("/api/reports/revenue?from=2023-07-01&to=2023-07-01&granularity=hour");
+        assertEquals(1, hours.size());
+        assertEquals(15, hours.get(0).get("hour").asInt());
+    }
+
+    @Test
+    void invalidParametersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/reports/revenue?from=2023-05-11&to=2023-05-10")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/reports/revenue?from=2023-05-10&to=2023-05-11&granularity=week"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/reports/best-sellers?from=2020-01-01&to=2023-01-01")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/reports/category-sales?from=yesterday&to=2023-05-10")).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/reports/rebuild?from=2023-05-11&to=2023-05-10")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode read(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private void assertBucket(JsonNode bucket, long quantity, String revenue, String paidRevenue) {
+        assertEquals(quantity, bucket.get("quantity").asLong());
+        assertEquals(0, new BigDecimal(revenue).compareTo(bucket.get("revenue").decimalValue()), bucket.toString());
+        assertEquals(0, new BigDecimal(paidRevenue).compareTo(bucket.get("paidRevenue").decimalValue()), bucket.toString());
+    }
+
+    private Integer seedOrder(Integer customerId, LocalDateTime orderDate, String paymentStatus, boolean cancelled) {
+        return testData.order(customerId, orderDate, "0", paymentStatus, order -> order.setIsCancelled(cancelled))
+                .getOrdersId();
+    }
+
+    private void seedDetail(Integer ordersId, Products product, int quantity) {
+        testData.detail(ordersId, product, quantity);
+    }
+}
@@ -0,0 +1,255 @@
+package com.back_end_project.back_end_project.controllerComponentCart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.List;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CartLineDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutRequestDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutResultDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+import com.back_end_project.back_end_project.service.CheckoutService;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 購物車引擎：修改只在記憶體中進行，寫回時合併成批次，移出記憶體後可從資料表復原。
+ */
+@SpringBootTest
+class CartEngineTest {
+
+    @Autowired
+    private CartEngine cartEngine;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @MockitoSpyBean
+    private ShoppingCartDAO shoppingCartDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void changesStayInMemoryUntilFlushed() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        Products cake = seedProduct();
+        ShoppingCart first = cartEngine.save(item(customerId, bread, 1));
+        cartEngine.save(item(customerId, bread, 3)); // 同一產品：改為設定數量，不重複新增
+        ShoppingCart second = cartEngine.save(item(customerId, cake, 2));
+        assertTrue(cartEngine.removeLine(second.getShoppingCartId()));
+
+        List<ShoppingCart> cart = cartEngine.getCart(customerId);
+        assertEquals(1, cart.size());
+        assertEquals(first.getShoppingCartId(), cart.get(0).getShoppingCartId());
+        assertEquals(3, cart.get(0).getQuantity());
+        assertEquals(0L, countRows(customerId), "寫回前資料表不應有任何變更");
+
+        cartEngine.flushAll();
+        assertEquals(1L, countRows(customerId));
+    }
+
+    @Test
+    void evictedCartIsReloadedFromTable() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        ShoppingCart line = cartEngine.save(item(customerId, bread, 2));
+        cartEngine.flushAll();
+
+        ShoppingCart changes = new ShoppingCart();
+        changes.setQuantity(5);
+        cartEngine.update(line.getShoppingCartId(), changes);
+        cartEngine.flushAll();
+        cartEngine.evict(customerId);
+
+        List<ShoppingCart> reloaded = cartEngine.getCart(customerId);
+        assertEquals(1, reloaded.size());
+        assertEquals(5, reloaded.get(0).getQuantity());
+
+        assertTrue(cartEngine.removeLine(line.getShoppingCartId()));
+        cartEngine.flushAll();
+        cartEngine.evict(customerId);
+        assertTrue(cartEngine.getCart(customerId).isEmpty());
+        assertFalse(cartEngine.findLine(line.getShoppingCartId()).isPresent());
+    }
+
+    @Test
+    void mergeAccumulatesOnExistingLine() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        Products cake = seedProduct();
+        cartEngine.save(item(customerId, bread, 2)); // 尚未寫回，合併前會先寫回
+
+        List<ShoppingCart> merged = cartEngine.merge(customerId, List.of(
+                new CartLineDTO(bread.getProductsId(), 1),
+                new CartLineDTO(cake.getProductsId(), 1),
+                new CartLineDTO(cake.getProductsId(), 2)));
+        merged = cartEngine.merge(customerId, List.of(new CartLineDTO(bread.getProductsId(), 4)));
+
+        assertEquals(2, merged.size());
+        assertEquals(7, quantityOf(merged, bread));
+        assertEquals(3, quantityOf(merged, cake));
+        assertEquals(2L, countRows(customerId));
+    }
+
+    @Test
+    void replaceOverwritesWholeCart() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        Products cake = seedProduct();
+        Products tart = seedProduct();
+        cartEngine.merge(customerId, List.of(new CartLineDTO(bread.getProductsId(), 2), new CartLineDTO(cake.getProductsId(), 1)));
+        cartEngine.save(item(customerId, tart, 1)); // 尚未寫回的變更會被取代覆蓋
+
+        List<ShoppingCart> replaced = cartEngine.replace(customerId, List.of(new CartLineDTO(cake.getProductsId(), 5)));
+
+        assertEquals(1, replaced.size());
+        assertEquals(5, quantityOf(replaced, cake));
+        assertEquals(1L, countRows(customerId));
+        assertTrue(cartEngine.replace(customerId, List.of()).isEmpty());
+        assertEquals(0L, countRows(customerId));
+    }
+
+    @Test
+    void duplicateLineIsRejectedByUniqueIndex() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        assertThrows(ConstraintViolationException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 2; i++) {
+                ShoppingCart line = item(customerId, bread, 1);
+                line.setCustomer(entityManager.getReference(Customer.class, customerId));
+                line.setProduct(entityManager.getReference(Products.class, bread.getProductsId()));
+                entityManager.persist(line);
+            }
+            entityManager.flush();
+        }));
+    }
+
+    @Test
+    void unknownCustomerOrProductIsRejected() {
+        Products bread = seedProduct();
+        assertThrows(IllegalArgumentException.class, () -> cartEngine.save(item(-1, bread, 1)));
+
+        Products missing = new Products();
+        missing.setProductsId(-1);
+        assertThrows(IllegalArgumentException.class, () -> cartEngine.save(item(seedCustomer(), missing, 1)));
+    }
+
+    @Test
+    void checkoutSeesUnflushedChangesAndEmptiesCart() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        cartEngine.save(item(customerId, bread, 2)); // 尚未寫回
+
+        CheckoutRequestDTO request = new CheckoutRequestDTO();
+        request.setCustomerId(customerId);
+        CheckoutResultDTO result = checkoutService.checkout(request);
+
+        assertEquals(1, result.getLineCount());
+        assertEquals(0L, countRows(customerId));
+        assertTrue(cartEngine.getCart(customerId).isEmpty());
+    }
+
+    @Test
+    void transientFlushFailureKeepsChangesAndAbortsCheckout() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        cartEngine.save(item(customerId, bread, 2));
+        doThrow(new DataAccessResourceFailureException("Connection reset"))
+                .doCallRealMethod()
+                .when(shoppingCartDAO).insertBatch(anyList());
+
+        CheckoutRequestDTO request = new CheckoutRequestDTO();
+        request.setCustomerId(customerId);
+        assertThrows(CartFlushException.class, () -> checkoutService.checkout(request));
+        assertEquals(2, quantityOf(cartEngine.getCart(customerId), bread), "暫時性的寫回失敗不應丟棄變更");
+
+        assertEquals(1, checkoutService.checkout(request).getLineCount());
+        assertEquals(0L, countRows(customerId));
+    }
+
+    @Test
+    void changesMadeDuringCheckoutSurviveTheCommit() {
+        Integer customerId = seedCustomer();
+        Products bread = seedProduct();
+        Products cake = seedProduct();
+        cartEngine.save(item(customerId, bread, 2));
+        doAnswer(invocation -> {
+            cartEngine.save(item(customerId, cake, 3)); // 寫回之後、結帳提交之前加入的項目
+            return invocation.callRealMethod();
+        }).when(shoppingCartDAO).findByCustomerId(eq(customerId));
+
+        CheckoutRequestDTO request = new CheckoutRequestDTO();
+        request.setCustomerId(customerId);
+        assertEquals(1, checkoutService.checkout(request).getLineCount());
+        doCallRealMethod().when(shoppingCartDAO).findByCustomerId(any());
+
+        List<ShoppingCart> cart = cartEngine.getCart(customerId);
+        assertEquals(1, cart.size());
+        assertEquals(3, quantityOf(cart, cake));
+        cartEngine.flush(customerId);
+        assertEquals(1L, countRows(customerId));
+    }
+
+    private ShoppingCart item(Integer customerId, Products product, int quantity) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        ShoppingCart item = new ShoppingCart();
+        item.setCustomer(customer);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private Integer seedCustomer() {
+        return testData.customer().getCustomerId();
+    }
+
+    private Products seedProduct() {
+        return testData.product("80", 10);
+    }
+
+    private int quantityOf(List<ShoppingCart> cart, Products product) {
+        return cart.stream()
+                .filter(line -> line.getProduct().getProductsId().equals(product.getProductsId()))
+                .findFirst()
+                .orElseThrow()
+                .getQuantity();
+    }
+
+    private long countRows(Integer customerId) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COUNT(sc) FROM ShoppingCart sc WHERE sc.customer.customerId = :id", Long.class)
+                .setParameter("id", customerId)
+                .getSingleResult());
+    }
+}
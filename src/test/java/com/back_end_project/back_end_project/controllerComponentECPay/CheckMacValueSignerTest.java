@@ -0,0 +1,117 @@
+package com.back_end_project.back_end_project.controllerComponentECPay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * CheckMacValueSigner 必須與綠界文件範例以及舊版 genCheckMacValue 的結果完全一致。
+ */
+class CheckMacValueSignerTest {
+
+    private final CheckMacValueSigner signer = new CheckMacValueSigner();
+
+    @Test
+    void matchesEcpayReferenceVector() {
+        // 綠界全方位金流 API 文件「檢查碼機制」的範例
+        Map<String, String> params = new HashMap<>();
+        params.put("ChoosePayment", "ALL");
+        params.put("EncryptType", "1");
+        params.put("ItemName", "Apple iphone 15");
+        params.put("MerchantID", "3002607");
+        params.put("MerchantTradeDate", "2023/03/12 15:30:23");
+        params.put("MerchantTradeNo", "ecpay20230312153023");
+        params.put("PaymentType", "aio");
+        params.put("ReturnURL", "https://www.ecpay.com.tw/receive.php");
+        params.put("TotalAmount", "30000");
+        params.put("TradeDesc", "促銷方案");
+
+        assertEquals("6C51C9E6888DE861FD62FB1DD17029FC742634498FD813DC43D4243B5685B840",
+                signer.sign(params, "pwFHCqoQZGmho4w6", "EkRm7iFT261dpevs"));
+    }
+
+    @Test
+    void sortedMapAndHashMapGiveSameResult() {
+        Map<String, String> hashMap = new HashMap<>();
+        hashMap.put("merchantTradeNo", "A1");
+        hashMap.put("ItemName", "可頌 x 2");
+        hashMap.put("CheckMacValue", "ignored");
+        Map<String, String> treeMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        treeMap.putAll(hashMap);
+
+        assertEquals(signer.sign(hashMap, "key", "iv"), signer.sign(treeMap, "key", "iv"));
+    }
+
+    @Test
+    void matchesLegacyImplementationOnRandomInput() {
+        String alphabet = "aZ09 -_.!*()~'&=+%/?#@:;,\"<>{}|\\^`[]$麵包蛋糕éß";
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            // 綠界的參數名稱不會只差在大小寫，舊版遇到這種情況會丟掉其中一個，這裡不產生
+            Map<String, String> params = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            int fields = 1 + random.nextInt(10);
+            for (int f = 0; f < fields; f++) {
+                params.put(randomString(random, "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", 1 + random.nextInt(12)),
+                        randomString(random, alphabet, random.nextInt(40)) + (random.nextInt(10) == 0 ? "🍰" : ""));
+            }
+            params = new HashMap<>(params);
+            assertEquals(legacy(params, "5294y06JbISpM5x9", "v77hoKGq4kWxNNIS"),
+                    signer.sign(params, "5294y06JbISpM5x9", "v77hoKGq4kWxNNIS"), params.toString());
+        }
+    }
+
+    @Test
+    void verifyAcceptsOwnSignatureAndRejectsTampering() {
+        Map<String, String> params = new HashMap<>();
+        params.put("MerchantTradeNo", "A1");
+        params.put("RtnCode", "1");
+        params.put("CheckMacValue", signer.sign(params, "key", "iv").toLowerCase());
+        assertTrue(signer.verify(params, "key", "iv"));
+
+        params.put("RtnCode", "0");
+        assertFalse(signer.verify(params, "key", "iv"));
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 舊版 EcpayFunctions.genCheckMacValue 的寫法，作為對照組。
+     */
+    private static String legacy(Map<String, String> params, String hashKey, String hashIV) {
+        TreeSet<String> keys = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        keys.addAll(params.keySet());
+        String paramStr = "";
+        for (String key : keys) {
+            if (!key.equals("CheckMacValue")) {
+                paramStr += "&" + key + "=" + params.get(key);
+            }
+        }
+        String urlEncode = URLEncoder.encode("Hashkey=" + hashKey + paramStr + "&HashIV=" + hashIV,
+                StandardCharsets.UTF_8).toLowerCase();
+        urlEncode = urlEncode.replaceAll("%21", "\\!").replaceAll("%28", "\\(").replaceAll("%29", "\\)");
+        try {
+            return HexFormat.of().withUpperCase()
+                    .formatHex(MessageDigest.getInstance("SHA-256").digest(urlEncode.getBytes()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
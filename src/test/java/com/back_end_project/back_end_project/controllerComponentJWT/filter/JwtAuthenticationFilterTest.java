@@ -0,0 +1,99 @@
+package com.back_end_project.back_end_project.controllerComponentJWT.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.back_end_project.back_end_project.controllerComponentJWT.model.JwtPrincipal;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.JwtTokenService;
+import com.back_end_project.back_end_project.database.Customer;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * JwtAuthenticationFilter：驗證、快取命中與 enforce 模式。
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hmac-sha-512-signatures!";
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService(SECRET);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatCallersAreServedFromCache() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenService, true, 100, meterRegistry);
+        String token = jwtTokenService.generateToken(customer(true));
+
+        JwtPrincipal first = (JwtPrincipal) doFilter(filter, "/api/orders", token).getAttribute(
+                JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE);
+        JwtPrincipal second = (JwtPrincipal) doFilter(filter, "/api/orders", token).getAttribute(
+                JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE);
+
+        assertEquals("tester@example.com", first.getEmail());
+        assertEquals("ADMIN", first.getRole());
+        assertSame(first, second, "第二次請求應直接使用快取");
+        assertEquals(1, meterRegistry.get("jwt.verification").tag("result", "valid").timer().count());
+    }
+
+    @Test
+    void invalidTokensAreRejectedWhenEnforced() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenService, true, 100, meterRegistry);
+        String token = jwtTokenService.generateToken(customer(false));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .setSubject("tester@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        assertEquals(401, response(filter, "/api/orders", null).getStatus());
+        assertEquals(401, response(filter, "/api/orders", tampered).getStatus());
+        assertEquals(401, response(filter, "/api/orders", expired).getStatus());
+        assertEquals(200, response(filter, "/api/auth/login", null).getStatus(), "登入 API 不需要 Token");
+    }
+
+    @Test
+    void missingTokenPassesThroughWhenNotEnforced() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenService, false, 100, meterRegistry);
+        MockHttpServletRequest request = doFilter(filter, "/api/orders", null);
+        assertNull(request.getAttribute(JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE));
+    }
+
+    private MockHttpServletRequest doFilter(JwtAuthenticationFilter filter, String path, String token) throws Exception {
+        MockHttpServletRequest request = request(path, token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request;
+    }
+
+    private MockHttpServletResponse response(JwtAuthenticationFilter filter, String path, String token)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, token), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+
+    private static Customer customer(boolean admin) {
+        Customer customer = new Customer();
+        customer.setEmail("tester@example.com");
+        customer.setIsSuperAdmin(admin);
+        return customer;
+    }
+}
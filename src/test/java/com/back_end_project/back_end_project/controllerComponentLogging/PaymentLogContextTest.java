@@ -0,0 +1,41 @@
+package com.back_end_project.back_end_project.controllerComponentLogging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+/**
+ * 付款日誌：取樣依 MerchantTradeNo 固定，比例大致符合設定；關聯 ID 只在區塊內存在於 MDC。
+ */
+class PaymentLogContextTest {
+
+    @Test
+    void samplingIsStablePerTradeAndRoughlyMatchesRate() {
+        PaymentLogContext tenPercent = new PaymentLogContext(0.1);
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String merchantTradeNo = "ID" + i;
+            boolean first = tenPercent.isSampled(merchantTradeNo);
+            assertEquals(first, tenPercent.isSampled(merchantTradeNo));
+            if (first) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 700 && sampled < 1300, "取樣比例應接近 10%：" + sampled);
+
+        assertTrue(new PaymentLogContext(1.0).isSampled(null));
+        assertFalse(new PaymentLogContext(0.0).isSampled("ID1"));
+    }
+
+    @Test
+    void correlationIdIsScopedToBlock() {
+        try (MDC.MDCCloseable correlation = PaymentLogContext.correlate("ID42")) {
+            assertEquals("ID42", MDC.get(PaymentLogContext.MDC_KEY));
+        }
+        assertNull(MDC.get(PaymentLogContext.MDC_KEY));
+    }
+}
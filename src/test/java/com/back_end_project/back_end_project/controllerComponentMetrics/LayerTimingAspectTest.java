@@ -0,0 +1,94 @@
+package com.back_end_project.back_end_project.controllerComponentMetrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.CategoriesDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersRepository;
+import com.back_end_project.back_end_project.controller.CategoriesController;
+import com.back_end_project.back_end_project.controllerComponentJWT.service.PasswordHashingService;
+import com.back_end_project.back_end_project.service.CategoriesService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * 各層計時與 Hibernate 統計：呼叫控制器、服務與 DAO 後，bakery.calls 與 hibernate.* 指標出現在 Prometheus 抓取結果中。
+ */
+@SpringBootTest
+@AutoConfigureObservability(tracing = false)
+class LayerTimingAspectTest {
+
+    @Autowired
+    private CategoriesController categoriesController;
+
+    @Autowired
+    private CategoriesService categoriesService;
+
+    @Autowired
+    private CategoriesDAO categoriesDAO;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Test
+    void callsAreTimedPerLayerEntityAndOperation() {
+        long before = count("dao", "Categories", "findByName", "none");
+        categoriesDAO.findByName("Bread");
+        categoriesService.findAllCategories();
+        categoriesController.getAllCategories();
+
+        assertEquals(before + 1, count("dao", "Categories", "findByName", "none"));
+        assertTrue(count("service", "Categories", "findAllCategories", "none") >= 1);
+        assertTrue(count("controller", "Categories", "getAllCategories", "none") >= 1);
+
+        assertThrows(RuntimeException.class, () -> categoriesService.saveCategory(null));
+        assertTrue(meterRegistry.get("bakery.calls").tag("operation", "saveCategory")
+                .tag("layer", "service").timers().stream()
+                .anyMatch(timer -> !"none".equals(timer.getId().getTag("exception"))), "失敗的呼叫應以例外類別標記");
+    }
+
+    @Test
+    void servicesOutsideTheServicePackageAndSpringDataRepositoriesAreTimed() {
+        long before = count("dao", "Orders", "findTopByOrderByOrdersIdDesc", "none");
+        ordersRepository.findTopByOrderByOrdersIdDesc();
+        passwordHashingService.isHashed("x");
+
+        assertEquals(before + 1, count("dao", "Orders", "findTopByOrderByOrdersIdDesc", "none"));
+        assertTrue(count("service", "PasswordHashing", "isHashed", "none") >= 1);
+    }
+
+    @Test
+    void hibernateStatisticsAndPrometheusEndpoint() {
+        categoriesDAO.findByName("Bread");
+        assertTrue(meterRegistry.get("hibernate.query.executions").functionCounter().count() >= 1);
+
+        String scrape = prometheusMeterRegistry.scrape();
+        assertTrue(scrape.contains("bakery_calls_seconds_count"), "Prometheus 抓取結果應包含 bakery.calls");
+        assertTrue(scrape.contains("hibernate_query_executions_total"), "Prometheus 抓取結果應包含 Hibernate 統計");
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds"), "Prometheus 抓取結果應包含連線池指標");
+    }
+
+    private long count(String layer, String entity, String operation, String exception) {
+        Timer timer = meterRegistry.find("bakery.calls")
+                .tags("layer", layer, "entity", entity, "operation", operation, "exception", exception)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
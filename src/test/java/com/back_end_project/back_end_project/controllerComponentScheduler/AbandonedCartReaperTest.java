@@ -0,0 +1,83 @@
+package com.back_end_project.back_end_project.controllerComponentScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.controllerComponentCart.CartEngine;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 購物車清理：分段封存並刪除逾期未付款的項目，略過已付款、未逾期與使用中的購物車。
+ */
+@SpringBootTest(properties = {
+        "cart.reaper.mode=archive",
+        "cart.reaper.chunk-size=2",
+        "cart.reaper.pause-between-chunks=0ms" })
+class AbandonedCartReaperTest {
+
+    @Autowired
+    private AbandonedCartReaper abandonedCartReaper;
+
+    @Autowired
+    private CartEngine cartEngine;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void staleUnpaidLinesAreArchivedInChunks() {
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        Customer idle = testData.customer();
+        Customer shopping = testData.customer();
+        for (int i = 0; i < 3; i++) {
+            seedLine(idle, old, false);
+        }
+        seedLine(idle, LocalDateTime.now(), false); // 未逾期
+        seedLine(idle, old, true); // 已付款
+        seedLine(shopping, old, false);
+        cartEngine.getCart(shopping.getCustomerId()); // 使用中的購物車
+
+        assertEquals(3, abandonedCartReaper.reap());
+
+        assertEquals(2L, count("SELECT COUNT(sc) FROM ShoppingCart sc WHERE sc.customer.customerId = :id", idle));
+        assertEquals(1L, count("SELECT COUNT(sc) FROM ShoppingCart sc WHERE sc.customer.customerId = :id", shopping));
+        assertEquals(3L, count("SELECT COUNT(a) FROM ShoppingCartArchive a WHERE a.customerId = :id", idle));
+        assertEquals(0, abandonedCartReaper.reap());
+    }
+
+    private void seedLine(Customer customer, LocalDateTime dateAdded, boolean paid) {
+        Products product = testData.product("50", 10);
+        transactionTemplate.executeWithoutResult(status -> {
+            ShoppingCart line = new ShoppingCart();
+            line.setCustomer(entityManager.getReference(Customer.class, customer.getCustomerId()));
+            line.setProduct(entityManager.getReference(Products.class, product.getProductsId()));
+            line.setDateAdded(dateAdded);
+            line.setAccountPaid(paid);
+            entityManager.persist(line);
+        });
+    }
+
+    private long count(String jpql, Customer customer) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(jpql, Long.class)
+                .setParameter("id", customer.getCustomerId())
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,178 @@
+package com.back_end_project.back_end_project.controllerComponentStock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentCache.ProductCatalogCache;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+/**
+ * 熱門商品分段計數器：並行扣除不超賣，退回只進入同一世代的分段，重設或未租借時直接寫回資料庫。
+ * 每個測試自行建立以新產品為熱門商品的計數器，不影響容器中的計數器。
+ */
+@SpringBootTest
+class StripedStockCounterTest {
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private ProductsDAO productsDAO;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentAcquiresNeverOversell() throws Exception {
+        Products product = testData.product("30", 100);
+        StripedStockCounter counter = counter(product, 5);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    int acquired = 0;
+                    while (counter.tryAcquire(product.getProductsId(), 1) != StripedStockCounter.NOT_ACQUIRED) {
+                        acquired++;
+                    }
+                    return acquired;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(100, total);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, stockOf(product));
+        assertEquals(0, counter.snapshot().get(product.getProductsId()));
+    }
+
+    @Test
+    void releaseReturnsToTheSameLease() {
+        Products product = testData.product("30", 20);
+        StripedStockCounter counter = counter(product, 5);
+
+        long generation = counter.tryAcquire(product.getProductsId(), 2);
+        assertNotEquals(StripedStockCounter.NOT_ACQUIRED, generation);
+        counter.release(product.getProductsId(), 2, generation);
+
+        assertEquals(5, counter.snapshot().get(product.getProductsId()));
+        assertEquals(15, stockOf(product));
+        counter.returnLeases();
+        assertEquals(20, stockOf(product));
+    }
+
+    @Test
+    void releaseAfterResetGoesToDatabaseWithoutRecreatingTheLease() {
+        Products product = testData.product("30", 20);
+        StripedStockCounter counter = counter(product, 5);
+
+        long generation = counter.tryAcquire(product.getProductsId(), 2);
+        setStock(product, 8); // 盤點：資料庫數量即為實際值，手上的租借量作廢
+        counter.reset(product.getProductsId());
+        counter.release(product.getProductsId(), 2, generation); // 結帳回滾
+
+        assertFalse(counter.snapshot().containsKey(product.getProductsId()), "退回不應重新建立分段");
+        assertEquals(10, stockOf(product));
+        counter.returnLeases();
+        assertEquals(10, stockOf(product), "關閉時不應寫回不存在的庫存");
+    }
+
+    @Test
+    void releaseFromAnOldGenerationDoesNotMixIntoANewLease() {
+        Products product = testData.product("30", 20);
+        StripedStockCounter counter = counter(product, 5);
+
+        long old = counter.tryAcquire(product.getProductsId(), 1);
+        counter.reset(product.getProductsId()); // 舊租借的 4 個作廢
+        long current = counter.tryAcquire(product.getProductsId(), 1);
+        assertNotEquals(old, current);
+
+        counter.release(product.getProductsId(), 1, old);
+        assertEquals(4, counter.snapshot().get(product.getProductsId()));
+        assertEquals(11, stockOf(product));
+    }
+
+    @Test
+    void restockWithoutLeaseIsLeftToTheCaller() {
+        Products product = testData.product("30", 20);
+        StripedStockCounter counter = counter(product, 5);
+
+        assertFalse(counter.restock(product.getProductsId(), 3));
+        assertTrue(counter.snapshot().isEmpty());
+
+        counter.tryAcquire(product.getProductsId(), 1);
+        assertTrue(counter.restock(product.getProductsId(), 3));
+        assertEquals(7, counter.snapshot().get(product.getProductsId()));
+    }
+
+    @Test
+    void leaseTakenWhileTheSlotIsResetGoesBackToDatabase() {
+        Products product = testData.product("30", 20);
+        StripedStockCounter[] counter = new StripedStockCounter[1];
+        boolean[] resetDone = new boolean[1];
+        ProductsDAO dao = mock(ProductsDAO.class, AdditionalAnswers.delegatesTo(productsDAO));
+        doAnswer(invocation -> {
+            int updated = productsDAO.decrementStock(product.getProductsId(), invocation.<Integer>getArgument(1));
+            if (!resetDone[0]) {
+                resetDone[0] = true;
+                counter[0].reset(product.getProductsId()); // 租借已扣除資料庫後，分段被重設
+            }
+            return updated;
+        }).when(dao).decrementStock(eq(product.getProductsId()), anyInt());
+        counter[0] = new StripedStockCounter(Set.of(product.getProductsId()), 4, 5, dao, productCatalogCache,
+                transactionManager);
+
+        long generation = counter[0].tryAcquire(product.getProductsId(), 1);
+
+        assertNotEquals(StripedStockCounter.NOT_ACQUIRED, generation);
+        assertEquals(4, counter[0].snapshot().get(product.getProductsId()));
+        assertEquals(15, stockOf(product), "被丟棄分段的租借量應退回資料庫，只留下新分段的租借");
+    }
+
+    private StripedStockCounter counter(Products product, int leaseSize) {
+        return new StripedStockCounter(Set.of(product.getProductsId()), 4, leaseSize, productsDAO, productCatalogCache,
+                transactionManager);
+    }
+
+    private void setStock(Products product, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> productsDAO.updateStock(product.getProductsId(), quantity));
+    }
+
+    private int stockOf(Products product) {
+        return transactionTemplate.execute(status -> productsDAO.findById(product.getProductsId()).orElseThrow()
+                .getQuantityInStock());
+    }
+}
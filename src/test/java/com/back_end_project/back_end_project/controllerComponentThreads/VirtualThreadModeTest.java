@@ -0,0 +1,27 @@
+package com.back_end_project.back_end_project.controllerComponentThreads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * 虛擬執行緒模式：virtual-threads 設定檔在 Java 21 以上啟用釘住監控，在較舊的 JVM 上照常以平台執行緒啟動。
+ */
+@SpringBootTest
+@ActiveProfiles("virtual-threads")
+class VirtualThreadModeTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void pinningMonitorFollowsRuntime() {
+        boolean virtualThreadsAvailable = Runtime.version().feature() >= 21;
+        assertEquals(virtualThreadsAvailable,
+                applicationContext.getBeanNamesForType(VirtualThreadPinningMonitor.class).length == 1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.back_end_project.back_end_project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutRequestDTO;
+import com.back_end_project.back_end_project.RepositoryDTO.CheckoutResultDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.OrdersDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ShoppingCartDAO;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+/**
+ * 結帳：只刪除已結帳的購物車項目，庫存不足時全部回滾，沒有未付款項目時拒絕結帳，
+ * 同一購物車同時結帳兩次只會成立一筆訂單。
+ */
+@SpringBootTest
+class CheckoutServiceTest {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @MockitoSpyBean
+    private ShoppingCartDAO shoppingCartDAO;
+
+    @Autowired
+    private OrdersDAO ordersDAO;
+
+    @Autowired
+    private ProductsDAO productsDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void paidLinesStayInTheCart() {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product("30", 10);
+        Products cake = testData.product("80", 10);
+        testData.cartLine(customerId, bread, 2, false);
+        ShoppingCart paid = testData.cartLine(customerId, cake, 1, true);
+
+        CheckoutResultDTO result = checkoutService.checkout(request(customerId));
+
+        assertEquals(1, result.getLineCount());
+        List<ShoppingCart> remaining = cartOf(customerId);
+        assertEquals(1, remaining.size());
+        assertEquals(paid.getShoppingCartId(), remaining.get(0).getShoppingCartId());
+        assertEquals(8, stockOf(bread));
+        assertEquals(10, stockOf(cake));
+    }
+
+    @Test
+    void insufficientStockRollsBackEverything() {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product("30", 10);
+        Products scarce = testData.product("80", 1);
+        testData.cartLine(customerId, bread, 2, false);
+        testData.cartLine(customerId, scarce, 3, false);
+
+        assertThrows(InsufficientStockException.class, () -> checkoutService.checkout(request(customerId)));
+
+        assertEquals(10, stockOf(bread));
+        assertEquals(1, stockOf(scarce));
+        assertEquals(2, cartOf(customerId).size());
+        assertTrue(ordersOf(customerId).isEmpty());
+    }
+
+    @Test
+    void cartWithoutUnpaidLinesIsRejected() {
+        Integer customerId = testData.customer().getCustomerId();
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(request(customerId)));
+
+        testData.cartLine(customerId, testData.product("30", 10), 1, true);
+        assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout(request(customerId)));
+        assertEquals(1, cartOf(customerId).size());
+        assertTrue(ordersOf(customerId).isEmpty());
+    }
+
+    @Test
+    void concurrentCheckoutsOfOneCartCreateOneOrder() throws Exception {
+        Integer customerId = testData.customer().getCustomerId();
+        Products bread = testData.product("30", 10);
+        testData.cartLine(customerId, bread, 2, false);
+
+        // 兩個結帳都讀到購物車之後才繼續，模擬重複送出
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        doAnswer(invocation -> {
+            Object cart = invocation.callRealMethod();
+            bothRead.await(10, TimeUnit.SECONDS);
+            return cart;
+        }).when(shoppingCartDAO).findByCustomerId(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        int succeeded = 0;
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            List<Future<CheckoutResultDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> checkoutService.checkout(request(customerId))));
+            }
+            for (Future<CheckoutResultDTO> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, succeeded);
+        assertTrue(failures.get(0) instanceof CartAlreadyCheckedOutException, String.valueOf(failures.get(0)));
+        assertEquals(1, ordersOf(customerId).size());
+        assertEquals(8, stockOf(bread));
+    }
+
+    private CheckoutRequestDTO request(Integer customerId) {
+        CheckoutRequestDTO request = new CheckoutRequestDTO();
+        request.setCustomerId(customerId);
+        return request;
+    }
+
+    private List<ShoppingCart> cartOf(Integer customerId) {
+        return transactionTemplate.execute(status -> shoppingCartDAO.findByCustomerId(customerId));
+    }
+
+    private List<Orders> ordersOf(Integer customerId) {
+        return transactionTemplate.execute(status -> ordersDAO.findByCustomerId(customerId));
+    }
+
+    private int stockOf(Products product) {
+        return transactionTemplate.execute(status -> productsDAO.findById(product.getProductsId()).orElseThrow()
+                .getQuantityInStock());
+    }
+}
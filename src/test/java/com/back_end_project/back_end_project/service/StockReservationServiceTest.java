@@ -0,0 +1,150 @@
+package com.back_end_project.back_end_project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.RepositoryDTO.StockLineDTO;
+import com.back_end_project.back_end_project.RepositoryDaoAbstract.ProductsDAO;
+import com.back_end_project.back_end_project.controllerComponentStock.StripedStockCounter;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.support.TestDataFixture;
+
+/**
+ * 扣庫存：並行預留不超賣，任一項不足或外層交易回滾時，資料庫與熱門商品的記憶體分段都會退回。
+ * 熱門商品的 ID 在測試中才產生，因此以 spy 讓計數器把指定的產品視為熱門商品。
+ */
+@SpringBootTest(properties = "stock.lease-size=5")
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @MockitoSpyBean
+    private StripedStockCounter stripedStockCounter;
+
+    @Autowired
+    private TestDataFixture testData;
+
+    @Autowired
+    private ProductsDAO productsDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Products product = testData.product("30", 50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    int reserved = 0;
+                    try {
+                        while (true) {
+                            stockReservationService.reserve(List.of(new StockLineDTO(product.getProductsId(), 1)));
+                            reserved++;
+                        }
+                    } catch (InsufficientStockException e) {
+                        return reserved;
+                    }
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(50, total);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(0, stockOf(product));
+    }
+
+    @Test
+    void insufficientLineRollsBackEveryLine() {
+        Products bread = testData.product("30", 10);
+        Products hot = hotProduct(10);
+        Products scarce = hotProduct(1);
+
+        assertThrows(InsufficientStockException.class, () -> stockReservationService.reserve(List.of(
+                new StockLineDTO(bread.getProductsId(), 2),
+                new StockLineDTO(hot.getProductsId(), 2),
+                new StockLineDTO(scarce.getProductsId(), 3))));
+
+        assertEquals(10, stockOf(bread));
+        assertEquals(5, stockOf(hot)); // 已租借 5 個，扣除的 2 個退回分段
+        assertEquals(5, stripedStockCounter.snapshot().get(hot.getProductsId()));
+        assertEquals(1, stockOf(scarce));
+    }
+
+    @Test
+    void hotReservationIsReleasedWhenTheOuterTransactionRollsBack() {
+        Products bread = testData.product("30", 10);
+        Products hot = hotProduct(10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationService.reserve(List.of(
+                    new StockLineDTO(bread.getProductsId(), 2),
+                    new StockLineDTO(hot.getProductsId(), 3)));
+            status.setRollbackOnly(); // 例如寫入訂單失敗
+        });
+
+        assertEquals(10, stockOf(bread));
+        assertEquals(5, stripedStockCounter.snapshot().get(hot.getProductsId()));
+    }
+
+    @Test
+    void cancelledHotLineWithoutLeaseIsWrittenToDatabase() {
+        Products hot = hotProduct(10);
+
+        stockReservationService.release(List.of(new StockLineDTO(hot.getProductsId(), 4)));
+
+        assertEquals(14, stockOf(hot));
+        assertNull(stripedStockCounter.snapshot().get(hot.getProductsId()));
+    }
+
+    @Test
+    void cancelledHotLineIsRestockedOnlyAfterCommit() {
+        Products hot = hotProduct(10);
+        stockReservationService.reserve(List.of(new StockLineDTO(hot.getProductsId(), 3))); // 租借 5 個，分段剩 2
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationService.release(List.of(new StockLineDTO(hot.getProductsId(), 3)));
+            assertEquals(2, stripedStockCounter.snapshot().get(hot.getProductsId()), "提交前不應放回分段");
+            status.setRollbackOnly(); // 例如更新訂單狀態失敗，之後會重試
+        });
+        assertEquals(2, stripedStockCounter.snapshot().get(hot.getProductsId()));
+
+        transactionTemplate.executeWithoutResult(status ->
+                stockReservationService.release(List.of(new StockLineDTO(hot.getProductsId(), 3))));
+        assertEquals(5, stripedStockCounter.snapshot().get(hot.getProductsId()));
+        assertEquals(5, stockOf(hot));
+    }
+
+    private Products hotProduct(int quantityInStock) {
+        Products product = testData.product("30", quantityInStock);
+        doReturn(true).when(stripedStockCounter).isHot(product.getProductsId());
+        return product;
+    }
+
+    private int stockOf(Products product) {
+        return transactionTemplate.execute(status -> productsDAO.findById(product.getProductsId()).orElseThrow()
+                .getQuantityInStock());
+    }
+}
@@ -0,0 +1,51 @@
+package com.back_end_project.back_end_project.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * 記錄測試期間送到資料庫的 SQL 與第一組參數，供 EXPLAIN 重新執行。
+ */
+public final class CapturedStatements {
+
+    private static final List<Statement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    private CapturedStatements() {
+    }
+
+    static void record(List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            List<Parameter> parameters = new ArrayList<>();
+            if (!queryInfo.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                    parameters.add(new Parameter(operation.getMethod().getName(), operation.getArgs()));
+                }
+            }
+            STATEMENTS.add(new Statement(queryInfo.getQuery(), parameters));
+        }
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+    public static List<Statement> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    /**
+     * 一筆 SQL 與其參數。
+     */
+    public record Statement(String sql, List<Parameter> parameters) {
+    }
+
+    /**
+     * 一次 PreparedStatement.setXxx 呼叫：方法名稱與引數 (第一個引數是參數索引)。
+     */
+    public record Parameter(String method, Object[] args) {
+    }
+}
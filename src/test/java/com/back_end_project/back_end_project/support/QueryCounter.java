@@ -0,0 +1,26 @@
+package com.back_end_project.back_end_project.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 計算測試期間送到資料庫的 JDBC 執行次數 (一次 executeBatch 算一次來回)。
+ */
+public final class QueryCounter {
+
+    private static final AtomicInteger ROUND_TRIPS = new AtomicInteger();
+
+    private QueryCounter() {
+    }
+
+    static void increment() {
+        ROUND_TRIPS.incrementAndGet();
+    }
+
+    public static void reset() {
+        ROUND_TRIPS.set(0);
+    }
+
+    public static int roundTrips() {
+        return ROUND_TRIPS.get();
+    }
+}
@@ -0,0 +1,36 @@
+package com.back_end_project.back_end_project.support;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * 以 datasource-proxy 包裝 DataSource，讓測試可透過 {@link QueryCounter} 檢查資料庫來回次數，
+ * 並透過 {@link CapturedStatements} 取得實際送出的 SQL。
+ */
+@TestConfiguration
+public class QueryCountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("query-counter")
+                            .afterQuery((execInfo, queryInfoList) -> {
+                                QueryCounter.increment();
+                                CapturedStatements.record(queryInfoList);
+                            })
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.back_end_project.back_end_project.support;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.back_end_project.back_end_project.database.Categories;
+import com.back_end_project.back_end_project.database.Customer;
+import com.back_end_project.back_end_project.database.OrderDetails;
+import com.back_end_project.back_end_project.database.Orders;
+import com.back_end_project.back_end_project.database.Payments;
+import com.back_end_project.back_end_project.database.Products;
+import com.back_end_project.back_end_project.database.ShoppingCart;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * 整合測試共用的測試資料：每個方法以獨立交易寫入一筆資料並立即提交，回傳已帶有主鍵的 entity。
+ * 唯一欄位 (email、sku) 以遞增序號產生，同一次測試執行中不會重複。
+ * 需要特殊欄位值時使用帶 Consumer 的多載，在寫入前調整。
+ */
+@Component
+public class TestDataFixture {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return 不會與其他測試資料重複的序號，可用來組成唯一的名稱或編號
+     */
+    public long unique() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * 建立客戶 (姓名 Tester，密碼欄位為 x)。
+     */
+    public Customer customer() {
+        return customer(customer -> {
+        });
+    }
+
+    /**
+     * 建立客戶，寫入前以 settings 調整欄位 (例如姓名、密碼雜湊)。
+     */
+    public Customer customer(Consumer<Customer> settings) {
+        return transactionTemplate.execute(status -> {
+            Customer customer = new Customer();
+            customer.setName("Tester");
+            customer.setEmail("tester" + unique() + "@example.com");
+            customer.setPasswordHash("x");
+            settings.accept(customer);
+            entityManager.persist(customer);
+            return customer;
+        });
+    }
+
+    /**
+     * 建立分類。
+     */
+    public Categories category(String name) {
+        return transactionTemplate.execute(status -> {
+            Categories category = new Categories();
+            category.setCategoriesName(name);
+            entityManager.persist(category);
+            return category;
+        });
+    }
+
+    /**
+     * 在新的 Bread 分類下建立產品。
+     */
+    public Products product(String price, int quantityInStock) {
+        return product(category("Bread"), price, quantityInStock);
+    }
+
+    /**
+     * 在指定分類下建立產品，名稱與 sku 自動產生。
+     */
+    public Products product(Categories category, String price, int quantityInStock) {
+        return product(category, price, quantityInStock, product -> {
+        });
+    }
+
+    /**
+     * 在指定分類下建立產品，寫入前以 settings 調整欄位 (例如名稱、sku)。
+     */
+    public Products product(Categories category, String price, int quantityInStock, Consumer<Products> settings) {
+        return transactionTemplate.execute(status -> {
+            long id = unique();
+            Products product = new Products();
+            product.setCategory(entityManager.getReference(Categories.class, category.getCategoriesId()));
+            product.setProductName("Product-" + id);
+            product.setSku("SKU-" + id);
+            product.setPrice(new BigDecimal(price));
+            product.setQuantityInStock(quantityInStock);
+            settings.accept(product);
+            entityManager.persist(product);
+            return product;
+        });
+    }
+
+    /**
+     * 直接在資料表建立購物車項目 (不經過記憶體中的購物車)。
+     */
+    public ShoppingCart cartLine(Integer customerId, Products product, int quantity, boolean accountPaid) {
+        return transactionTemplate.execute(status -> {
+            ShoppingCart line = new ShoppingCart();
+            line.setCustomer(entityManager.getReference(Customer.class, customerId));
+            line.setProduct(entityManager.getReference(Products.class, product.getProductsId()));
+            line.setQuantity(quantity);
+            line.setDateAdded(LocalDateTime.now());
+            line.setAccountPaid(accountPaid);
+            entityManager.persist(line);
+            return line;
+        });
+    }
+
+    /**
+     * 建立訂單 (配送狀態 Pending)。
+     */
+    public Orders order(Integer customerId, LocalDateTime orderDate, String totalAmount, String paymentStatus) {
+        return order(customerId, orderDate, totalAmount, paymentStatus, order -> {
+        });
+    }
+
+    /**
+     * 建立訂單，寫入前以 settings 調整欄位 (例如是否取消)。
+     */
+    public Orders order(Integer customerId, LocalDateTime orderDate, String totalAmount, String paymentStatus,
+            Consumer<Orders> settings) {
+        return transactionTemplate.execute(status -> {
+            Orders order = new Orders();
+            order.setCustomer(entityManager.getReference(Customer.class, customerId));
+            order.setOrderDate(orderDate);
+            order.setTotalAmount(new BigDecimal(totalAmount));
+            order.setPaymentStatus(paymentStatus);
+            order.setShippingStatus("Pending");
+            settings.accept(order);
+            entityManager.persist(order);
+            return order;
+        });
+    }
+
+    /**
+     * 建立訂單明細，單價取產品價格。
+     */
+    public OrderDetails detail(Integer ordersId, Products product, int quantity) {
+        return transactionTemplate.execute(status -> {
+            OrderDetails detail = new OrderDetails();
+            detail.setOrder(entityManager.getReference(Orders.class, ordersId));
+            detail.setProduct(entityManager.getReference(Products.class, product.getProductsId()));
+            detail.setQuantity(quantity);
+            detail.setUnitPrice(product.getPrice());
+            entityManager.persist(detail);
+            return detail;
+        });
+    }
+
+    /**
+     * 建立訂單的付款紀錄，金額取訂單總金額。
+     */
+    public Payments payment(Orders order, String transactionStatus) {
+        return transactionTemplate.execute(status -> {
+            Payments payment = new Payments();
+            payment.setOrder(entityManager.getReference(Orders.class, order.getOrdersId()));
+            payment.setTransactionAmount(order.getTotalAmount());
+            payment.setTransactionStatus(transactionStatus);
+            entityManager.persist(payment);
+            return payment;
+        });
+    }
+}